@@ -0,0 +1,37 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 11:20
+ * @Description: 基准测试入口：参数和JMH命令行一致，默认把结果以JSON写到jmh-result-<版本>.json，方便不同版本之间比较。
+ * 版本取自系统属性benchmark.version，不设置时取本模块的版本号
+ * @Modified:
+ * @version: V1.0
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String version = System.getProperty("benchmark.version", implementationVersion());
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse("jmh-result-" + version + ".json"))
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private static String implementationVersion() {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        return version == null ? "dev" : version;
+    }
+}
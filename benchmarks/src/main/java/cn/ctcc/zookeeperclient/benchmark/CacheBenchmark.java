@@ -0,0 +1,262 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import cn.ctcc.zookeeperclient.curator.cache.CompactTreeCache;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.zookeeper.KeeperException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 10:40
+ * @Description: NodeCache/PathChildrenCache/TreeCache(以及CompactTreeCache)的启动耗时和事件延迟。
+ * 启动耗时：从start()到初始数据加载完成；事件延迟：从发出setData到监听器收到事件(包含setData本身的往返)
+ * @Modified:
+ * @version: V1.0
+ */
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final String ROOT = "/jmh_cache";
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+
+    /**
+     * 预先造好的子树：ROOT下children个子节点
+     */
+    @State(Scope.Benchmark)
+    public static class Tree {
+
+        @Param({"100", "10000"})
+        public int children;
+
+        @Param({"100"})
+        public int payloadSize;
+
+        public byte[] payload;
+
+        public String first;
+
+        @Setup(Level.Trial)
+        public void setup(ZkEnvironment env) throws Exception {
+            payload = new byte[payloadSize];
+            CuratorFramework client = env.curatorFramework;
+            if (client.checkExists().forPath(ROOT) != null) {
+                client.delete().deletingChildrenIfNeeded().forPath(ROOT);
+            }
+            client.create().forPath(ROOT, payload);
+            CountDownLatch created = new CountDownLatch(children);
+            AtomicInteger failed = new AtomicInteger();
+            for (int i = 0; i < children; i++) {
+                client.create().inBackground((c, event) -> {
+                    if (event.getResultCode() != KeeperException.Code.OK.intValue()) {
+                        failed.incrementAndGet();
+                    }
+                    created.countDown();
+                }).forPath(ROOT + "/node" + i, payload);
+            }
+            first = ROOT + "/node0";
+            //等待后台创建完成，有失败或超时直接结束，不能一直等下去
+            await(created, "创建" + children + "个子节点");
+            if (failed.get() > 0) {
+                throw new IllegalStateException("创建子节点失败" + failed.get() + "个");
+            }
+        }
+    }
+
+
+    /**************************************************启动耗时**************************************************/
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public NodeCache nodeCacheStart(ZkEnvironment env, Tree tree) throws Exception {
+        NodeCache nodeCache = new NodeCache(env.curatorFramework, tree.first);
+        nodeCache.start(true);
+        nodeCache.close();
+        return nodeCache;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PathChildrenCache pathChildrenCacheStart(ZkEnvironment env, Tree tree) throws Exception {
+        PathChildrenCache pathChildrenCache = new PathChildrenCache(env.curatorFramework, ROOT, true);
+        pathChildrenCache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+        pathChildrenCache.close();
+        return pathChildrenCache;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TreeCache treeCacheStart(ZkEnvironment env, Tree tree) throws Exception {
+        CountDownLatch initialized = new CountDownLatch(1);
+        TreeCache treeCache = TreeCache.newBuilder(env.curatorFramework, ROOT).setCacheData(true).build();
+        treeCache.getListenable().addListener((client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                initialized.countDown();
+            }
+        });
+        treeCache.start();
+        await(initialized, "TreeCache初始化");
+        treeCache.close();
+        return treeCache;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CompactTreeCache compactTreeCacheStart(ZkEnvironment env, Tree tree) throws Exception {
+        CountDownLatch initialized = new CountDownLatch(1);
+        CompactTreeCache treeCache = new CompactTreeCache(env.curatorFramework, ROOT, true, Integer.MAX_VALUE);
+        treeCache.addListener((client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                initialized.countDown();
+            }
+        });
+        treeCache.start();
+        await(initialized, "CompactTreeCache初始化");
+        treeCache.close();
+        return treeCache;
+    }
+
+
+    /**************************************************事件延迟**************************************************/
+
+    /**
+     * 已经启动好的缓存，每次setData后等待对应监听器的事件
+     */
+    @State(Scope.Benchmark)
+    public static class Caches {
+
+        private NodeCache nodeCache;
+
+        private PathChildrenCache pathChildrenCache;
+
+        private TreeCache treeCache;
+
+        private volatile CountDownLatch nodeCacheEvent;
+
+        private volatile CountDownLatch pathChildrenCacheEvent;
+
+        private volatile CountDownLatch treeCacheEvent;
+
+        private final AtomicLong version = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setup(ZkEnvironment env, Tree tree) throws Exception {
+            CuratorFramework client = env.curatorFramework;
+
+            nodeCache = new NodeCache(client, tree.first);
+            nodeCache.getListenable().addListener(() -> countDown(nodeCacheEvent));
+            nodeCache.start(true);
+
+            pathChildrenCache = new PathChildrenCache(client, ROOT, true);
+            pathChildrenCache.getListenable().addListener((c, event) -> {
+                if (event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED) {
+                    countDown(pathChildrenCacheEvent);
+                }
+            });
+            pathChildrenCache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+            CountDownLatch initialized = new CountDownLatch(1);
+            treeCache = TreeCache.newBuilder(client, ROOT).setCacheData(true).build();
+            treeCache.getListenable().addListener((c, event) -> {
+                if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                    initialized.countDown();
+                } else if (event.getType() == TreeCacheEvent.Type.NODE_UPDATED) {
+                    countDown(treeCacheEvent);
+                }
+            });
+            treeCache.start();
+            await(initialized, "TreeCache初始化");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            nodeCache.close();
+            pathChildrenCache.close();
+            treeCache.close();
+        }
+
+        private static void countDown(CountDownLatch latch) {
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        byte[] nextPayload(byte[] payload) {
+            byte[] data = payload.clone();
+            long v = version.incrementAndGet();
+            for (int i = 0; i < 8 && i < data.length; i++) {
+                data[i] = (byte) (v >>> (i * 8));
+            }
+            return data;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void nodeCacheEventLatency(ZkEnvironment env, Tree tree, Caches caches) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        caches.nodeCacheEvent = latch;
+        env.curatorFramework.setData().forPath(tree.first, caches.nextPayload(tree.payload));
+        await(latch, "NodeCache事件");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void pathChildrenCacheEventLatency(ZkEnvironment env, Tree tree, Caches caches) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        caches.pathChildrenCacheEvent = latch;
+        env.curatorFramework.setData().forPath(tree.first, caches.nextPayload(tree.payload));
+        await(latch, "PathChildrenCache事件");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void treeCacheEventLatency(ZkEnvironment env, Tree tree, Caches caches) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        caches.treeCacheEvent = latch;
+        env.curatorFramework.setData().forPath(tree.first, caches.nextPayload(tree.payload));
+        await(latch, "TreeCache事件");
+    }
+
+
+    /**
+     * 超时直接抛异常，不把超时当成一个正常的样本记下来
+     */
+    private static void await(CountDownLatch latch, String what) throws InterruptedException {
+        if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(what + "超过" + TIMEOUT_SECONDS + "秒没有完成");
+        }
+    }
+}
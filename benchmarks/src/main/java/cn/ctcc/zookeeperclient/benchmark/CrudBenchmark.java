@@ -0,0 +1,167 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 9:50
+ * @Description: 同步、异步(AsyncZkClient)、Curator同步和Curator inBackground()四种方式的CRUD吞吐，
+ * 负载从10B到1MB(略小于jute.maxbuffer)
+ * @Modified:
+ * @version: V1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CrudBenchmark {
+
+    private static final String ROOT = "/jmh_crud";
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private static final int OK = KeeperException.Code.OK.intValue();
+
+    @Param({"10", "1024", "102400", "1000000"})
+    public int payloadSize;
+
+    private byte[] payload;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private String existing;
+
+
+    @Setup(Level.Trial)
+    public void setup(ZkEnvironment env) throws Exception {
+        payload = new byte[payloadSize];
+        if (env.curatorFramework.checkExists().forPath(ROOT) == null) {
+            env.curatorFramework.create().forPath(ROOT);
+        }
+        existing = ROOT + "/existing";
+        env.curatorFramework.create().orSetData().forPath(existing, payload);
+    }
+
+
+    /**************************************************读**************************************************/
+
+    @Benchmark
+    public byte[] syncGetData(ZkEnvironment env) throws Exception {
+        return env.sessionManager.session(existing).getData(existing, false, new Stat());
+    }
+
+    @Benchmark
+    public Object asyncGetData(ZkEnvironment env) {
+        return env.asyncZkClient.getData(existing).join();
+    }
+
+    @Benchmark
+    public byte[] curatorGetData(ZkEnvironment env) throws Exception {
+        return env.curatorFramework.getData().forPath(existing);
+    }
+
+    @Benchmark
+    public Object curatorBackgroundGetData(ZkEnvironment env) throws Exception {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        env.curatorFramework.getData().inBackground((client, event) -> future.complete(event.getData())).forPath(existing);
+        return future.join();
+    }
+
+
+    /**************************************************写**************************************************/
+
+    @Benchmark
+    public Stat syncSetData(ZkEnvironment env) throws Exception {
+        return env.sessionManager.session(existing).setData(existing, payload, -1);
+    }
+
+    @Benchmark
+    public Stat asyncSetData(ZkEnvironment env) {
+        return env.asyncZkClient.setData(existing, payload, -1).join();
+    }
+
+    @Benchmark
+    public Stat curatorSetData(ZkEnvironment env) throws Exception {
+        return env.curatorFramework.setData().forPath(existing, payload);
+    }
+
+    @Benchmark
+    public Object curatorBackgroundSetData(ZkEnvironment env) throws Exception {
+        CompletableFuture<Stat> future = new CompletableFuture<>();
+        env.curatorFramework.setData().inBackground((client, event) -> future.complete(event.getStat())).forPath(existing, payload);
+        return future.join();
+    }
+
+
+    /**************************************************创建+删除**************************************************/
+
+    @Benchmark
+    public void syncCreateDelete(ZkEnvironment env) throws Exception {
+        String path = ROOT + "/node" + sequence.incrementAndGet();
+        env.sessionManager.session(path).create(path, payload, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        env.sessionManager.session(path).delete(path, -1);
+    }
+
+    @Benchmark
+    public void asyncCreateDelete(ZkEnvironment env) {
+        String path = ROOT + "/node" + sequence.incrementAndGet();
+        env.asyncZkClient.create(path, payload, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT)
+                .thenCompose(created -> env.asyncZkClient.delete(created, -1))
+                .join();
+    }
+
+    @Benchmark
+    public void curatorCreateDelete(ZkEnvironment env) throws Exception {
+        String path = ROOT + "/node" + sequence.incrementAndGet();
+        env.curatorFramework.create().forPath(path, payload);
+        env.curatorFramework.delete().forPath(path);
+    }
+
+    @Benchmark
+    public void curatorBackgroundCreateDelete(ZkEnvironment env) throws Exception {
+        String path = ROOT + "/node" + sequence.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        env.curatorFramework.create().inBackground((client, created) -> {
+            if (created.getResultCode() != OK) {
+                future.completeExceptionally(KeeperException.create(KeeperException.Code.get(created.getResultCode()), path));
+                return;
+            }
+            try {
+                client.delete().inBackground((c, deleted) -> {
+                    if (deleted.getResultCode() != OK) {
+                        future.completeExceptionally(KeeperException.create(KeeperException.Code.get(deleted.getResultCode()), path));
+                    } else {
+                        future.complete(null);
+                    }
+                }).forPath(path);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }).forPath(path, payload);
+        //回调没有执行时不会一直卡住JMH的fork
+        future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,101 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import cn.ctcc.zookeeperclient.discovery.Endpoint;
+import cn.ctcc.zookeeperclient.discovery.InstanceDetails;
+import cn.ctcc.zookeeperclient.discovery.InstanceSnapshot;
+import cn.ctcc.zookeeperclient.discovery.LeastOutstandingStrategy;
+import cn.ctcc.zookeeperclient.discovery.PowerOfTwoChoicesStrategy;
+import cn.ctcc.zookeeperclient.discovery.RoundRobinStrategy;
+import cn.ctcc.zookeeperclient.discovery.SelectionStrategy;
+import cn.ctcc.zookeeperclient.discovery.ZoneAwareStrategy;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 14:00
+ * @Description: 服务发现选择实例的吞吐量。快照用合成的实例构造，不连接集群，
+ * 每次调用模拟一次RPC：select后begin/end，对比各策略在多线程下的开销(配合-prof gc看每次操作的分配)
+ * @Modified:
+ * @version: V1.0
+ */
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiscoveryBenchmark {
+
+    private static final String[] ZONES = {"zone-a", "zone-b", "zone-c"};
+
+
+    /**
+     * 合成的实例快照，实例平均分布在三个可用区
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({"8", "256"})
+        public int instances;
+
+        @Param({"roundRobin", "leastOutstanding", "powerOfTwo", "zoneAware"})
+        public String strategy;
+
+        public InstanceSnapshot snapshot;
+
+        public SelectionStrategy selection;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            List<ServiceInstance<InstanceDetails>> list = new ArrayList<>(instances);
+            for (int i = 0; i < instances; i++) {
+                list.add(ServiceInstance.<InstanceDetails>builder()
+                        .name("jmh")
+                        .id("instance-" + i)
+                        .address("10.0." + (i / 256) + "." + (i % 256))
+                        .port(8080)
+                        .payload(new InstanceDetails(ZONES[i % ZONES.length]))
+                        .build());
+            }
+            snapshot = InstanceSnapshot.of(list, InstanceSnapshot.EMPTY);
+            switch (strategy) {
+                case "roundRobin":
+                    selection = new RoundRobinStrategy();
+                    break;
+                case "leastOutstanding":
+                    selection = new LeastOutstandingStrategy();
+                    break;
+                case "powerOfTwo":
+                    selection = new PowerOfTwoChoicesStrategy();
+                    break;
+                default:
+                    selection = new ZoneAwareStrategy(ZONES[0], 1, new PowerOfTwoChoicesStrategy());
+            }
+        }
+    }
+
+    @Benchmark
+    public Endpoint select(Pool pool) {
+        Endpoint endpoint = pool.selection.select(pool.snapshot);
+        endpoint.begin();
+        endpoint.end();
+        return endpoint;
+    }
+}
@@ -0,0 +1,69 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 10:20
+ * @Description: transaction().forOperations(...)在不同批大小下的吞吐(每次调用提交batchSize个setData)
+ * @Modified:
+ * @version: V1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionBenchmark {
+
+    private static final String ROOT = "/jmh_transaction";
+
+    @Param({"1", "10", "100", "500"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int payloadSize;
+
+    private List<String> paths;
+
+    private byte[] payload;
+
+
+    @Setup(Level.Trial)
+    public void setup(ZkEnvironment env) throws Exception {
+        payload = new byte[payloadSize];
+        paths = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String path = ROOT + "/node" + i;
+            env.curatorFramework.create().orSetData().creatingParentsIfNeeded().forPath(path, payload);
+            paths.add(path);
+        }
+    }
+
+    @Benchmark
+    public List<CuratorTransactionResult> transaction(ZkEnvironment env) throws Exception {
+        List<CuratorOp> ops = new ArrayList<>(batchSize);
+        for (String path : paths) {
+            ops.add(env.curatorFramework.transactionOp().setData().forPath(path, payload));
+        }
+        return env.curatorFramework.transaction().forOperations(ops);
+    }
+}
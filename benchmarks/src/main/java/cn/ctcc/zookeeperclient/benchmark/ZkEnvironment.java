@@ -0,0 +1,74 @@
+package cn.ctcc.zookeeperclient.benchmark;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingCluster;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.Closeable;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 9:30
+ * @Description: 基准测试共用的环境：内嵌的TestingServer(单机)或TestingCluster(3节点)，以及连在上面的各种客户端
+ * @Modified:
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+public class ZkEnvironment {
+
+    /**
+     * server：单机TestingServer；cluster：3节点TestingCluster
+     */
+    @Param({"server", "cluster"})
+    public String ensemble;
+
+    private Closeable zookeeper;
+
+    public String connectString;
+
+    public ZkSessionManager sessionManager;
+
+    public AsyncZkClient asyncZkClient;
+
+    public CuratorFramework curatorFramework;
+
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if ("cluster".equals(ensemble)) {
+            TestingCluster cluster = new TestingCluster(3);
+            cluster.start();
+            zookeeper = cluster;
+            connectString = cluster.getConnectString();
+        } else {
+            TestingServer server = new TestingServer();
+            zookeeper = server;
+            connectString = server.getConnectString();
+        }
+
+        sessionManager = new ZkSessionManager(connectString, 30000, 15000, 2);
+        asyncZkClient = new AsyncZkClient(sessionManager, 1000);
+
+        curatorFramework = CuratorFrameworkFactory.newClient(connectString, 30 * 1000, 15 * 1000,
+                new ExponentialBackoffRetry(1000, 3));
+        curatorFramework.start();
+        curatorFramework.blockUntilConnected();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        curatorFramework.close();
+        sessionManager.close();
+        zookeeper.close();
+    }
+}
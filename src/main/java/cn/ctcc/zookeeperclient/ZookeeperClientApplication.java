@@ -1,13 +1,187 @@
 package cn.ctcc.zookeeperclient;
 
+import cn.ctcc.zookeeperclient.codec.CompressingCodec;
+import cn.ctcc.zookeeperclient.codec.PayloadCodec;
+import cn.ctcc.zookeeperclient.config.ZookeeperProperties;
+import cn.ctcc.zookeeperclient.discovery.DiscoveryManager;
+import cn.ctcc.zookeeperclient.discovery.InstanceDetails;
+import cn.ctcc.zookeeperclient.loadgen.LoadGenerator;
+import cn.ctcc.zookeeperclient.metrics.CuratorMetrics;
+import cn.ctcc.zookeeperclient.metrics.ZkClientMetrics;
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.batch.BatchingZkWriter;
+import cn.ctcc.zookeeperclient.zkclient.cache.ZNodeDataCache;
+import cn.ctcc.zookeeperclient.zkclient.dispatch.StripedEventDispatcher;
+import cn.ctcc.zookeeperclient.zkclient.ensemble.LatencyAwareServerSelector;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import cn.ctcc.zookeeperclient.zkclient.watch.WatchRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.ServiceInstanceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.TimeUnit;
 
 @SpringBootApplication
+@EnableConfigurationProperties(ZookeeperProperties.class)
 public class ZookeeperClientApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(ZookeeperClientApplication.class, args);
     }
 
+    /**
+     * 共享会话管理器，会话在第一次使用时才建立连接；存在LatencyAwareServerSelector时优先连较快的服务端
+     */
+    @Bean(destroyMethod = "close")
+    public ZkSessionManager zkSessionManager(ZookeeperProperties properties,
+                                             ObjectProvider<LatencyAwareServerSelector> serverSelector) {
+        ZkSessionManager zkSessionManager = new ZkSessionManager(properties.getConnectString(), properties.getSessionTimeout(),
+                properties.getConnectionTimeout(), properties.getPoolSize());
+        serverSelector.ifAvailable(selector -> {
+            zkSessionManager.setServerSelector(selector);
+            ZookeeperProperties.Ensemble ensemble = properties.getEnsemble();
+            if (ensemble.isRebalance()) {
+                zkSessionManager.enableRebalance(TimeUnit.SECONDS.toMillis(ensemble.getRebalanceCooldownSeconds()));
+            }
+        });
+        return zkSessionManager;
+    }
+
+    /**
+     * 服务端延迟探测，zookeeper.ensemble.enabled=true时才创建
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "zookeeper.ensemble", name = "enabled", havingValue = "true")
+    public LatencyAwareServerSelector latencyAwareServerSelector(ZookeeperProperties properties) {
+        return new LatencyAwareServerSelector(properties.getConnectString(), properties.getEnsemble());
+    }
+
+    /**
+     * CompletableFuture异步客户端，存在PayloadCodec时读写自动编解码
+     */
+    @Bean
+    public AsyncZkClient asyncZkClient(ZkSessionManager zkSessionManager, ZookeeperProperties properties,
+                                       ObjectProvider<PayloadCodec> payloadCodec) {
+        AsyncZkClient asyncZkClient = new AsyncZkClient(zkSessionManager, properties.getMaxInFlight());
+        asyncZkClient.setPayloadCodec(payloadCodec.getIfAvailable());
+        return asyncZkClient;
+    }
+
+    /**
+     * 节点数据压缩，zookeeper.codec.enabled=true时才创建
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zookeeper.codec", name = "enabled", havingValue = "true")
+    public PayloadCodec payloadCodec(ZookeeperProperties properties) {
+        ZookeeperProperties.Codec codec = properties.getCodec();
+        return new CompressingCodec(codec.getAlgorithm(), codec.getThreshold());
+    }
+
+    /**
+     * 节点数据读穿透缓存
+     */
+    @Bean
+    public ZNodeDataCache zNodeDataCache(AsyncZkClient asyncZkClient, ZookeeperProperties properties) {
+        return new ZNodeDataCache(asyncZkClient, properties.getCacheMaxBytes());
+    }
+
+    /**
+     * 按path分条带的事件分发器
+     */
+    @Bean(destroyMethod = "close")
+    public StripedEventDispatcher stripedEventDispatcher(ZookeeperProperties properties) {
+        return new StripedEventDispatcher(properties.getDispatcherThreads());
+    }
+
+    /**
+     * 永久监听注册中心
+     */
+    @Bean(destroyMethod = "close")
+    public WatchRegistry watchRegistry(AsyncZkClient asyncZkClient, StripedEventDispatcher stripedEventDispatcher) {
+        return new WatchRegistry(asyncZkClient, stripedEventDispatcher);
+    }
+
+    /**
+     * 写操作合批，zookeeper.batch.enabled=true时才创建
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "zookeeper.batch", name = "enabled", havingValue = "true")
+    public BatchingZkWriter batchingZkWriter(AsyncZkClient asyncZkClient, ZookeeperProperties properties) {
+        ZookeeperProperties.Batch batch = properties.getBatch();
+        return new BatchingZkWriter(asyncZkClient, batch.getMaxSize(), batch.getMaxBytes(), batch.getLingerMs());
+    }
+
+    /**
+     * 压测工具，zookeeper.loadgen.enabled=true时在启动完成后执行
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zookeeper.loadgen", name = "enabled", havingValue = "true")
+    public LoadGenerator loadGenerator(AsyncZkClient asyncZkClient, ZookeeperProperties properties) {
+        return new LoadGenerator(asyncZkClient, properties.getLoadgen());
+    }
+
+    /**
+     * 原生客户端、缓存、分发器的监控，由actuator绑定到MeterRegistry
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zookeeper.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ZkClientMetrics zkClientMetrics(AsyncZkClient asyncZkClient, ZNodeDataCache zNodeDataCache,
+                                           StripedEventDispatcher stripedEventDispatcher, WatchRegistry watchRegistry,
+                                           ZookeeperProperties properties) {
+        return new ZkClientMetrics(asyncZkClient, zNodeDataCache, stripedEventDispatcher, watchRegistry,
+                properties.getMetrics().isPercentileHistogram());
+    }
+
+    /**
+     * CuratorFramework的监控，业务创建客户端后调用bind(client)
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "zookeeper.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CuratorMetrics curatorMetrics(MeterRegistry meterRegistry, ZookeeperProperties properties) {
+        return new CuratorMetrics(meterRegistry, properties.getMetrics().isPercentileHistogram());
+    }
+
+    /**
+     * 服务发现用的CuratorFramework，zookeeper.discovery.enabled=true时才创建
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "zookeeper.discovery", name = "enabled", havingValue = "true")
+    public CuratorFramework curatorFramework(ZookeeperProperties properties, ObjectProvider<CuratorMetrics> curatorMetrics) {
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+                .connectString(properties.getConnectString())
+                .sessionTimeoutMs(properties.getSessionTimeout())
+                .connectionTimeoutMs(properties.getConnectionTimeout())
+                .retryPolicy(new ExponentialBackoffRetry(1000, 3))
+                .build();
+        curatorMetrics.ifAvailable(metrics -> metrics.bind(client));
+        client.start();
+        return client;
+    }
+
+    /**
+     * 服务注册与发现，启动时注册本应用，关闭时注销
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "zookeeper.discovery", name = "enabled", havingValue = "true")
+    public DiscoveryManager discoveryManager(CuratorFramework curatorFramework, ZookeeperProperties properties) throws Exception {
+        ZookeeperProperties.Discovery discovery = properties.getDiscovery();
+        ServiceInstanceBuilder<InstanceDetails> self = ServiceInstance.<InstanceDetails>builder()
+                .name(discovery.getServiceName())
+                .port(discovery.getPort())
+                .payload(new InstanceDetails(discovery.getZone()));
+        if (discovery.getAddress() != null) {
+            self.address(discovery.getAddress());
+        }
+        return new DiscoveryManager(curatorFramework, discovery.getBasePath(), self.build());
+    }
+
 }
@@ -0,0 +1,34 @@
+package cn.ctcc.zookeeperclient.codec;
+
+import org.apache.curator.framework.api.CompressionProvider;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 15:00
+ * @Description: 把PayloadCodec接到Curator的CompressionProvider上：
+ * CuratorFrameworkFactory.builder().compressionProvider(new CodecCompressionProvider(codec))，
+ * 写入用create().compressed()/setData().compressed()，读取用getData().decompressed()，
+ * 缓存用TreeCache.newBuilder(...).setDataIsCompressed(true)、new NodeCache(client, path, true)。
+ * 和Curator默认的GzipCompressionProvider不同，没压缩过的旧数据也能用decompressed()读出
+ * @Modified:
+ * @version: V1.0
+ */
+public class CodecCompressionProvider implements CompressionProvider {
+
+    private final PayloadCodec codec;
+
+    public CodecCompressionProvider(PayloadCodec codec) {
+        this.codec = codec;
+    }
+
+
+    @Override
+    public byte[] compress(String path, byte[] data) {
+        return codec.encode(data);
+    }
+
+    @Override
+    public byte[] decompress(String path, byte[] compressedData) {
+        return codec.decode(compressedData);
+    }
+}
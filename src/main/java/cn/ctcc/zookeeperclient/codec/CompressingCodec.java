@@ -0,0 +1,90 @@
+package cn.ctcc.zookeeperclient.codec;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 14:30
+ * @Description: 超过阈值才压缩的编解码器。压缩后的数据格式：
+ *      2字节魔数(0xC1 0x5A) + 1字节算法id + 4字节原始长度 + 压缩数据
+ * 0xC1在UTF-8里不会出现，JSON、properties这类文本数据不可能以魔数开头，所以没有头的数据都按旧数据原样返回。
+ * 二进制数据恰好以魔数开头时，写入时加上NONE算法的头转义，读出时能正确还原。
+ * 压缩后不比原数据小的(已经压缩过的数据、很短的数据)按原样写入。
+ * @Modified:
+ * @version: V1.0
+ */
+public class CompressingCodec implements PayloadCodec {
+
+    static final byte MAGIC_0 = (byte) 0xC1;
+
+    static final byte MAGIC_1 = 0x5A;
+
+    static final int HEADER_LENGTH = 2 + 1 + 4;
+
+    private final Compression compression;
+
+    /**
+     * 超过这个字节数才压缩
+     */
+    private final int threshold;
+
+
+    public CompressingCodec(Compression compression, int threshold) {
+        if (compression == Compression.NONE) {
+            throw new IllegalArgumentException("compression不能是NONE");
+        }
+        this.compression = compression;
+        this.threshold = threshold;
+    }
+
+
+    @Override
+    public byte[] encode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length >= threshold) {
+            byte[] compressed = compression.compress(data);
+            if (compressed != data && compressed.length + HEADER_LENGTH < data.length) {
+                return withHeader(compression, data.length, compressed);
+            }
+        }
+        return hasMagic(data) ? withHeader(Compression.NONE, data.length, data) : data;
+    }
+
+    @Override
+    public byte[] decode(byte[] data) {
+        if (!hasMagic(data) || data.length < HEADER_LENGTH) {
+            return data;
+        }
+        Compression algorithm = Compression.of(data[2]);
+        if (algorithm == null) {
+            return data;
+        }
+        int originalLength = ((data[3] & 0xFF) << 24) | ((data[4] & 0xFF) << 16) | ((data[5] & 0xFF) << 8) | (data[6] & 0xFF);
+        return algorithm.decompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH, originalLength);
+    }
+
+    /**
+     * 数据是否是压缩格式
+     */
+    public static boolean isEncoded(byte[] data) {
+        return hasMagic(data) && data.length >= HEADER_LENGTH && Compression.of(data[2]) != null;
+    }
+
+
+    private static boolean hasMagic(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    private static byte[] withHeader(Compression algorithm, int originalLength, byte[] body) {
+        byte[] result = new byte[HEADER_LENGTH + body.length];
+        result[0] = MAGIC_0;
+        result[1] = MAGIC_1;
+        result[2] = algorithm.getId();
+        result[3] = (byte) (originalLength >>> 24);
+        result[4] = (byte) (originalLength >>> 16);
+        result[5] = (byte) (originalLength >>> 8);
+        result[6] = (byte) originalLength;
+        System.arraycopy(body, 0, result, HEADER_LENGTH, body.length);
+        return result;
+    }
+}
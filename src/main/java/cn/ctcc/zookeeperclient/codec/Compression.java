@@ -0,0 +1,138 @@
+package cn.ctcc.zookeeperclient.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 14:10
+ * @Description: 压缩算法，id写在数据头里，已经使用的id不能修改。
+ * Deflater/Inflater按线程复用，避免每次分配本地内存；LZ4使用lz4-java能用的最快实现
+ * @Modified:
+ * @version: V1.0
+ */
+public enum Compression {
+
+    /**
+     * 不压缩，只在原始数据恰好以魔数开头时用来转义
+     */
+    NONE(0) {
+        @Override
+        byte[] compress(byte[] data) {
+            return data;
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    },
+
+    DEFLATE(1) {
+        @Override
+        byte[] compress(byte[] data) {
+            Deflater deflater = DEFLATERS.get();
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[data.length];
+            int length = 0;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            //压缩后不比原数据小，交给调用方按不压缩处理
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : data;
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+            Inflater inflater = INFLATERS.get();
+            inflater.reset();
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[originalLength];
+            try {
+                int read = 0;
+                while (read < originalLength && !inflater.finished()) {
+                    int n = inflater.inflate(result, read, originalLength - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != originalLength) {
+                    throw new IllegalStateException("解压后长度不符: " + read + " != " + originalLength);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Deflate数据损坏", e);
+            }
+            return result;
+        }
+    },
+
+    LZ4(2) {
+        @Override
+        byte[] compress(byte[] data) {
+            LZ4Compressor compressor = LZ4Holder.FACTORY.fastCompressor();
+            byte[] buffer = new byte[compressor.maxCompressedLength(data.length)];
+            int length = compressor.compress(data, 0, data.length, buffer, 0, buffer.length);
+            return length < data.length ? Arrays.copyOf(buffer, length) : data;
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+            LZ4FastDecompressor decompressor = LZ4Holder.FACTORY.fastDecompressor();
+            byte[] result = new byte[originalLength];
+            decompressor.decompress(data, offset, result, 0, originalLength);
+            return result;
+        }
+    };
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final byte id;
+
+    Compression(int id) {
+        this.id = (byte) id;
+    }
+
+
+    /**
+     * 返回压缩结果；压缩后不比原数据小时直接返回原数组
+     */
+    abstract byte[] compress(byte[] data);
+
+    abstract byte[] decompress(byte[] data, int offset, int length, int originalLength);
+
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * 未知id返回null
+     */
+    static Compression of(byte id) {
+        for (Compression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * 只在用到LZ4时才加载lz4-java
+     */
+    private static final class LZ4Holder {
+
+        private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+    }
+}
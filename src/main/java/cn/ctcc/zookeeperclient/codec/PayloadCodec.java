@@ -0,0 +1,16 @@
+package cn.ctcc.zookeeperclient.codec;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 14:00
+ * @Description: 节点数据编解码，写入前encode，读出后decode。
+ * decode必须能识别不是自己编码的旧数据并原样返回，这样开启编解码前写入的节点不需要迁移
+ * @Modified:
+ * @version: V1.0
+ */
+public interface PayloadCodec {
+
+    byte[] encode(byte[] data);
+
+    byte[] decode(byte[] data);
+}
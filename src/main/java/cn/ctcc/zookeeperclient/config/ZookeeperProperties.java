@@ -0,0 +1,288 @@
+package cn.ctcc.zookeeperclient.config;
+
+import cn.ctcc.zookeeperclient.codec.Compression;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 9:30
+ * @Description: zookeeper客户端配置，对应application.properties中zookeeper.*前缀的配置项
+ * @Modified:
+ * @version: V1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "zookeeper")
+public class ZookeeperProperties {
+
+    /**
+     * znode节点
+     */
+    private String connectString = "192.168.241.12:2181,192.168.241.13:2181,192.168.241.14:2181";
+
+    /**
+     * 会话超时时间
+     */
+    private int sessionTimeout = 4000;
+
+    /**
+     * 等待SyncConnected的超时时间
+     */
+    private int connectionTimeout = 3000;
+
+    /**
+     * 常驻会话个数，所有操作复用这几个会话
+     */
+    private int poolSize = 2;
+
+    /**
+     * 每个会话允许的最大未完成异步请求数
+     */
+    private int maxInFlight = 1000;
+
+    /**
+     * 节点数据缓存的最大字节数
+     */
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * 事件分发条带数(线程数)
+     */
+    private int dispatcherThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 写操作合批配置
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 压测配置
+     */
+    private LoadGen loadgen = new LoadGen();
+
+    /**
+     * 监控配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 节点数据压缩配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * 服务注册与发现配置
+     */
+    private Discovery discovery = new Discovery();
+
+    /**
+     * 按延迟选择服务端配置
+     */
+    private Ensemble ensemble = new Ensemble();
+
+
+    @Data
+    public static class Batch {
+
+        /**
+         * 是否开启写操作合批
+         */
+        private boolean enabled = false;
+
+        /**
+         * 一批最多多少个操作
+         */
+        private int maxSize = 100;
+
+        /**
+         * 一批数据最多多少字节，要小于jute.maxbuffer
+         */
+        private int maxBytes = 512 * 1024;
+
+        /**
+         * 第一个操作进入缓冲区后最多等待多少毫秒
+         */
+        private long lingerMs = 2;
+    }
+
+
+    @Data
+    public static class LoadGen {
+
+        /**
+         * 是否在启动后执行压测
+         */
+        private boolean enabled = false;
+
+        /**
+         * 压测数据所在的根路径
+         */
+        private String root = "/loadgen";
+
+        /**
+         * 各类操作的权重：getData、setData、exists、getChildren
+         */
+        private int readWeight = 80;
+
+        private int writeWeight = 10;
+
+        private int existsWeight = 5;
+
+        private int childrenWeight = 5;
+
+        /**
+         * key的个数
+         */
+        private int keySpace = 10000;
+
+        /**
+         * setData的数据大小
+         */
+        private int payloadSize = 256;
+
+        /**
+         * 目标速率(ops/sec)，大于0时按固定速率发送(开环)；为0时由concurrency个线程循环发送(闭环)
+         */
+        private int targetRate = 0;
+
+        /**
+         * 闭环模式的并发数
+         */
+        private int concurrency = 32;
+
+        /**
+         * 压测时长(秒)
+         */
+        private int durationSeconds = 60;
+
+        /**
+         * 中间结果的输出间隔(秒)
+         */
+        private int reportIntervalSeconds = 5;
+    }
+
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否注册客户端和缓存的Micrometer指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 请求耗时是否发布分位数直方图(Prometheus等服务端聚合用)，会增加每个Timer的桶数
+         */
+        private boolean percentileHistogram = false;
+    }
+
+
+    @Data
+    public static class Codec {
+
+        /**
+         * 是否压缩AsyncZkClient写入的节点数据，关闭时读取也不解码
+         */
+        private boolean enabled = false;
+
+        /**
+         * 压缩算法：DEFLATE或LZ4
+         */
+        private Compression algorithm = Compression.DEFLATE;
+
+        /**
+         * 超过这个字节数才压缩
+         */
+        private int threshold = 1024;
+    }
+
+
+    @Data
+    public static class Discovery {
+
+        /**
+         * 是否启用服务注册与发现(会创建一个CuratorFramework)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 服务注册的根路径
+         */
+        private String basePath = "/services";
+
+        /**
+         * 本应用注册的服务名
+         */
+        private String serviceName = "zookeeper-client";
+
+        /**
+         * 本应用注册的地址，不配置时取本机网卡地址
+         */
+        private String address;
+
+        /**
+         * 本应用注册的端口
+         */
+        private int port = 8080;
+
+        /**
+         * 本应用所在的可用区
+         */
+        private String zone = "default";
+    }
+
+
+    @Data
+    public static class Ensemble {
+
+        /**
+         * 是否探测服务端延迟，新建会话只连较快的服务端
+         */
+        private boolean enabled = false;
+
+        /**
+         * 探测间隔(毫秒)
+         */
+        private long probeIntervalMillis = 2000;
+
+        /**
+         * 单次探测超时(毫秒)，超时算不健康
+         */
+        private int probeTimeoutMillis = 1000;
+
+        /**
+         * 服务端每个排队请求(Outstanding)折算的延迟(微秒)
+         */
+        private long outstandingPenaltyMicros = 200;
+
+        /**
+         * 连接串至少包含的服务端个数
+         */
+        private int minServers = 2;
+
+        /**
+         * score不超过最快的这么多倍的服务端也放进连接串
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * score超过最快的这么多倍算变慢
+         */
+        private double degradeRatio = 3.0;
+
+        /**
+         * 连续这么多轮变慢才迁移会话
+         */
+        private int degradeProbes = 3;
+
+        /**
+         * 是否把连在变慢服务端上的会话迁走(旧会话的临时节点会被删除)
+         */
+        private boolean rebalance = false;
+
+        /**
+         * 同一个会话两次迁移的最小间隔(秒)
+         */
+        private long rebalanceCooldownSeconds = 300;
+    }
+}
@@ -0,0 +1,242 @@
+package cn.ctcc.zookeeperclient.curator.binding;
+
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 14:10
+ * @Description: 按mzxid缓存解码结果--->test04、test05、test09、test10、test11每次收到事件或读到数据都要new String(...)，
+ * 换成JSON/protobuf后同一个版本会在很多线程里被反复解码。
+ * 这里按path或前缀注册解码器，解码结果和节点的Stat.getMzxid()一起缓存：同一个版本在一个JVM里只解码一次，
+ * 并发读到同一个新版本时只有一个线程解码，其余线程等它的结果。
+ * 每个path只保留最新版本；比缓存旧的版本(慢监听器读到的)直接解码不缓存。节点删除后调用invalidate，
+ * 或者把evictingListener()挂到TreeCache上自动清理。统计命中、解码次数、解码耗时和解码失败次数。
+ * @Modified:
+ * @version: V1.0
+ */
+public class TypedValueCache {
+
+    /**
+     * 按注册的path或前缀保存解码器
+     */
+    private final ConcurrentHashMap<String, Binding<?>> bindings = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder decodes = new LongAdder();
+
+    private final LongAdder decodeNanos = new LongAdder();
+
+    private final LongAdder decodeErrors = new LongAdder();
+
+
+    /**
+     * 为path或前缀(以/结尾表示只匹配子孙节点，如/config/)注册解码器，查找时取最长匹配；
+     * 返回的Binding可以直接按类型取值，不需要再查找前缀
+     */
+    public <T> Binding<T> register(String pathOrPrefix, ValueDecoder<T> decoder) {
+        Binding<T> binding = new Binding<>(this, decoder);
+        bindings.put(pathOrPrefix, binding);
+        //已缓存的值可能是别的解码器解出来的
+        entries.clear();
+        return binding;
+    }
+
+    /**
+     * 按注册的前缀解码，没有匹配的解码器时抛IllegalArgumentException，数据为null时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ChildData childData) {
+        return (T) get(childData.getPath(), childData.getStat(), childData.getData(), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String path, Stat stat, byte[] data) {
+        return (T) get(path, stat, data, null);
+    }
+
+    public void invalidate(String path) {
+        entries.remove(path);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 挂到TreeCache/CompactTreeCache上，节点删除时清理缓存
+     */
+    public TreeCacheListener evictingListener() {
+        return (client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.NODE_REMOVED && event.getData() != null) {
+                invalidate(event.getData().getPath());
+            }
+        };
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getDecodes() {
+        return decodes.sum();
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    public long getDecodeErrors() {
+        return decodeErrors.sum();
+    }
+
+
+    /**
+     * binding为null时按前缀查找
+     */
+    private Object get(String path, Stat stat, byte[] data, Binding<?> binding) {
+        if (data == null) {
+            return null;
+        }
+        long mzxid = stat.getMzxid();
+        Entry current = entries.get(path);
+        if (current != null && current.mzxid == mzxid && (binding == null || current.binding == binding)) {
+            hits.increment();
+            return current.value();
+        }
+        Binding<?> resolved = binding != null ? binding : lookup(path);
+
+        Entry fresh = new Entry(mzxid, resolved);
+        while (true) {
+            if (current == null) {
+                current = entries.putIfAbsent(path, fresh);
+                if (current == null) {
+                    break;
+                }
+            } else if (current.mzxid == mzxid && current.binding == resolved) {
+                //其他线程已经在解码同一个版本
+                hits.increment();
+                return current.value();
+            } else if (current.mzxid > mzxid) {
+                //旧版本，解码但不缓存
+                return decode(resolved, path, data);
+            } else if (entries.replace(path, current, fresh)) {
+                break;
+            } else {
+                current = entries.get(path);
+            }
+        }
+
+        try {
+            Object value = decode(resolved, path, data);
+            fresh.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(path, fresh);
+            fresh.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object decode(Binding<?> binding, String path, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            return binding.decoder.decode(path, data);
+        } catch (RuntimeException e) {
+            decodeErrors.increment();
+            throw e;
+        } catch (Exception e) {
+            decodeErrors.increment();
+            throw new IllegalStateException("解码失败: " + path, e);
+        } finally {
+            decodes.increment();
+            decodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 先找完全匹配，再从长到短找以/结尾的前缀
+     */
+    private Binding<?> lookup(String path) {
+        Binding<?> binding = bindings.get(path);
+        int index = path.length();
+        while (binding == null && index > 0) {
+            index = path.lastIndexOf('/', index - 1);
+            if (index < 0) {
+                break;
+            }
+            binding = bindings.get(path.substring(0, index + 1));
+        }
+        if (binding == null) {
+            throw new IllegalArgumentException("没有为" + path + "注册解码器");
+        }
+        return binding;
+    }
+
+
+    /**
+     * 某个path最新版本的解码结果，解码完成前future未结束
+     */
+    private static final class Entry {
+
+        private final long mzxid;
+
+        private final Binding<?> binding;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Entry(long mzxid, Binding<?> binding) {
+            this.mzxid = mzxid;
+            this.binding = binding;
+        }
+
+        Object value() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+        }
+    }
+
+
+    /**
+     * 某个解码器的类型化入口
+     */
+    public static final class Binding<T> {
+
+        private final TypedValueCache cache;
+
+        private final ValueDecoder<T> decoder;
+
+        private Binding(TypedValueCache cache, ValueDecoder<T> decoder) {
+            this.cache = cache;
+            this.decoder = decoder;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(ChildData childData) {
+            return (T) cache.get(childData.getPath(), childData.getStat(), childData.getData(), this);
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(String path, Stat stat, byte[] data) {
+            return (T) cache.get(path, stat, data, this);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package cn.ctcc.zookeeperclient.curator.binding;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 14:00
+ * @Description: 节点数据解码器。结果会在多个线程间共享，必须是不可变对象(或者调用方保证不修改)
+ * @Modified:
+ * @version: V1.0
+ */
+@FunctionalInterface
+public interface ValueDecoder<T> {
+
+    T decode(String path, byte[] data) throws Exception;
+}
@@ -0,0 +1,577 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 10:30
+ * @Description: 内存紧凑的TreeCache--->CuratorAPITest.test11在"/"上建TreeCache并setCacheData(true)，
+ * 每个节点一个ChildData，树大了以后非常占堆。这里的节点存储用CompactTreeStore(段驻留的字典树、Stat打包进long数组、数据放堆外)，
+ * 同步逻辑和TreeCache一致：每个节点注册数据监听和子节点监听，发出NODE_ADDED/NODE_UPDATED/NODE_REMOVED/INITIALIZED
+ * 以及连接状态事件，可以直接复用TreeCacheListener。
+ * 事件和读取得到的ChildData都是临时拼出来的副本。
+ * DataMode.LAZY模式下只同步树结构和Stat，启动时不下载数据；数据第一次读取时才加载，放进按字节数LRU淘汰的LazyDataCache，
+ * 节点版本变化时丢弃，适合很大但只读少数几个节点的配置树。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class CompactTreeCache implements Closeable {
+
+    /**
+     * 默认堆外数据块大小
+     */
+    public static final int DEFAULT_ARENA_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final CuratorFramework client;
+
+    private final String rootPath;
+
+    private final int maxDepth;
+
+    private final DataMode dataMode;
+
+    /**
+     * LAZY模式下按需加载的数据，其它模式为null
+     */
+    private final LazyDataCache lazyData;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CompactTreeStore store;
+
+    private final List<ListenerEntry> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 默认的监听器执行线程
+     */
+    private final ExecutorService defaultExecutor;
+
+    /**
+     * 未完成的后台操作数，首次降为0时发出INITIALIZED
+     */
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private final AtomicBoolean initialized = new AtomicBoolean();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    private final Watcher watcher = this::process;
+
+    private final BackgroundCallback callback = (client, event) -> processResult(event);
+
+    private final ConnectionStateListener connectionStateListener = this::stateChanged;
+
+
+    public CompactTreeCache(CuratorFramework client, String rootPath, boolean cacheData, int maxDepth) {
+        this(client, rootPath, cacheData ? DataMode.ALL : DataMode.NONE, maxDepth, 0, DEFAULT_ARENA_CHUNK_SIZE);
+    }
+
+    /**
+     * @param lazyMaxBytes LAZY模式下按需加载数据的字节上限
+     */
+    public CompactTreeCache(CuratorFramework client, String rootPath, DataMode dataMode, int maxDepth, long lazyMaxBytes) {
+        this(client, rootPath, dataMode, maxDepth, lazyMaxBytes, DEFAULT_ARENA_CHUNK_SIZE);
+    }
+
+    public CompactTreeCache(CuratorFramework client, String rootPath, DataMode dataMode, int maxDepth,
+                            long lazyMaxBytes, int arenaChunkSize) {
+        this.client = client;
+        this.rootPath = rootPath;
+        this.dataMode = dataMode;
+        this.lazyData = dataMode == DataMode.LAZY ? new LazyDataCache(lazyMaxBytes) : null;
+        this.maxDepth = maxDepth;
+        this.store = new CompactTreeStore(rootPath, arenaChunkSize);
+        this.defaultExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "compact-tree-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    public CompactTreeCache start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("CompactTreeCache已经启动");
+        }
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        if (client.getZookeeperClient().isConnected()) {
+            refreshRoot();
+        }
+        return this;
+    }
+
+    public void addListener(TreeCacheListener listener) {
+        addListener(listener, defaultExecutor);
+    }
+
+    public void addListener(TreeCacheListener listener, Executor executor) {
+        listeners.add(new ListenerEntry(listener, executor));
+    }
+
+    public void removeListener(TreeCacheListener listener) {
+        listeners.removeIf(entry -> entry.listener == listener);
+    }
+
+    /**
+     * 节点当前的数据，不存在或还没加载完时返回null。LAZY模式下数据未缓存时会同步从集群读取
+     */
+    public ChildData getCurrentData(String path) throws Exception {
+        ChildData childData;
+        lock.readLock().lock();
+        try {
+            int id = store.find(path);
+            if (id == CompactTreeStore.NONE || !store.isLoaded(id)) {
+                return null;
+            }
+            childData = childData(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (dataMode != DataMode.LAZY) {
+            return childData;
+        }
+        return new ChildData(path, childData.getStat(), loadLazy(path, childData.getStat().getVersion()));
+    }
+
+    /**
+     * LAZY模式下按需加载的数据缓存，可以查看命中、淘汰统计；其它模式返回null
+     */
+    public LazyDataCache getLazyDataCache() {
+        return lazyData;
+    }
+
+    /**
+     * 子节点名称到数据的映射，节点不存在时返回null
+     */
+    public Map<String, ChildData> getCurrentChildren(String path) {
+        lock.readLock().lock();
+        try {
+            int id = store.find(path);
+            if (id == CompactTreeStore.NONE || !store.isLoaded(id)) {
+                return null;
+            }
+            Map<String, ChildData> children = new LinkedHashMap<>();
+            for (int child : store.children(id)) {
+                if (store.isLoaded(child)) {
+                    children.put(store.name(child), childData(child));
+                }
+            }
+            return children;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 缓存的节点数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 堆外数据区已分配的字节数
+     */
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return store.getArena().getCapacityBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        client.getConnectionStateListenable().removeListener(connectionStateListener);
+        listeners.clear();
+        defaultExecutor.shutdown();
+    }
+
+
+    /****************************************************同步逻辑****************************************************/
+
+    private void refreshRoot() {
+        background(() -> client.checkExists().usingWatcher(watcher).inBackground(callback).forPath(rootPath));
+    }
+
+    private void refreshChildren(String path, int depth) {
+        if (depth < maxDepth) {
+            background(() -> client.getChildren().usingWatcher(watcher).inBackground(callback).forPath(path));
+        }
+    }
+
+    private void refreshData(String path) {
+        if (dataMode == DataMode.ALL) {
+            background(() -> client.getData().usingWatcher(watcher).inBackground(callback).forPath(path));
+        } else {
+            background(() -> client.checkExists().usingWatcher(watcher).inBackground(callback).forPath(path));
+        }
+    }
+
+    /**
+     * 重连后刷新整棵树
+     */
+    private void refreshAll() {
+        List<String> paths = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectPaths(CompactTreeStore.ROOT, paths, depths);
+        } finally {
+            lock.readLock().unlock();
+        }
+        refreshRoot();
+        for (int i = 0; i < paths.size(); i++) {
+            refreshChildren(paths.get(i), depths.get(i));
+            refreshData(paths.get(i));
+        }
+    }
+
+    private void collectPaths(int id, List<String> paths, List<Integer> depths) {
+        if (!store.hasRoot()) {
+            return;
+        }
+        paths.add(store.path(id));
+        depths.add(store.depth(id));
+        for (int child : store.children(id)) {
+            collectPaths(child, paths, depths);
+        }
+    }
+
+    private void process(WatchedEvent watchedEvent) {
+        if (closed) {
+            return;
+        }
+        String path = watchedEvent.getPath();
+        switch (watchedEvent.getType()) {
+            case NodeCreated:
+                if (rootPath.equals(path)) {
+                    refreshRoot();
+                }
+                break;
+            case NodeDataChanged:
+                if (contains(path)) {
+                    refreshData(path);
+                }
+                break;
+            case NodeChildrenChanged:
+                int depth = depthOf(path);
+                if (depth >= 0) {
+                    refreshChildren(path, depth);
+                }
+                break;
+            case NodeDeleted:
+                remove(path);
+                if (rootPath.equals(path)) {
+                    //继续监听根节点的创建
+                    refreshRoot();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void processResult(CuratorEvent event) {
+        try {
+            if (!closed) {
+                handleResult(event);
+            }
+        } finally {
+            operationDone();
+        }
+    }
+
+    /**
+     * 一个后台操作结束，首次全部结束时发出INITIALIZED
+     */
+    private void operationDone() {
+        if (outstanding.decrementAndGet() == 0 && initialized.compareAndSet(false, true)) {
+            publish(new TreeCacheEvent(TreeCacheEvent.Type.INITIALIZED, null));
+        }
+    }
+
+    private void handleResult(CuratorEvent event) {
+        String path = event.getPath();
+        int resultCode = event.getResultCode();
+        if (resultCode == KeeperException.Code.NONODE.intValue()) {
+            remove(path);
+            return;
+        }
+        if (resultCode != KeeperException.Code.OK.intValue()) {
+            log.warn("TreeCache后台操作失败: {} {} {}", event.getType(), path, KeeperException.Code.get(resultCode));
+            return;
+        }
+        switch (event.getType()) {
+            case EXISTS:
+                if (event.getStat() == null) {
+                    remove(path);
+                } else if (rootPath.equals(path) && !hasRoot()) {
+                    lock.writeLock().lock();
+                    try {
+                        store.ensureRoot();
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    refreshData(path);
+                    refreshChildren(path, 0);
+                } else if (dataMode != DataMode.ALL) {
+                    //缓存数据时Stat随GET_DATA一起更新
+                    updateNode(path, event.getStat(), null);
+                }
+                break;
+            case GET_DATA:
+                updateNode(path, event.getStat(), event.getData());
+                break;
+            case CHILDREN:
+                updateChildren(path, event.getChildren());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void updateNode(String path, Stat stat, byte[] data) {
+        TreeCacheEvent.Type type;
+        lock.writeLock().lock();
+        try {
+            int id = store.find(path);
+            if (id == CompactTreeStore.NONE) {
+                return;
+            }
+            if (!store.isLoaded(id)) {
+                type = TreeCacheEvent.Type.NODE_ADDED;
+            } else if (store.mzxid(id) != stat.getMzxid()) {
+                type = TreeCacheEvent.Type.NODE_UPDATED;
+            } else {
+                return;
+            }
+            store.update(id, stat, data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (lazyData != null) {
+            lazyData.invalidate(path, stat.getVersion());
+        }
+        publish(new TreeCacheEvent(type, new ChildData(path, stat, data)));
+    }
+
+    private void updateChildren(String path, List<String> children) {
+        List<String> added = new ArrayList<>();
+        List<CompactTreeStore.Removed> removed = new ArrayList<>();
+        int depth;
+        lock.writeLock().lock();
+        try {
+            int id = store.find(path);
+            if (id == CompactTreeStore.NONE) {
+                return;
+            }
+            depth = store.depth(id);
+            Set<String> current = new HashSet<>(children);
+            for (int child : store.children(id)) {
+                if (!current.contains(store.name(child))) {
+                    removed.addAll(store.removeSubtree(child));
+                }
+            }
+            for (String name : children) {
+                if (store.child(id, name) == CompactTreeStore.NONE) {
+                    added.add(store.path(store.getOrCreateChild(id, name)));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemoved(removed);
+        for (String child : added) {
+            refreshData(child);
+            refreshChildren(child, depth + 1);
+        }
+    }
+
+    private void remove(String path) {
+        List<CompactTreeStore.Removed> removed;
+        lock.writeLock().lock();
+        try {
+            int id = store.find(path);
+            if (id == CompactTreeStore.NONE) {
+                return;
+            }
+            removed = store.removeSubtree(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemoved(removed);
+    }
+
+    private void stateChanged(CuratorFramework client, ConnectionState newState) {
+        switch (newState) {
+            case SUSPENDED:
+                publish(new TreeCacheEvent(TreeCacheEvent.Type.CONNECTION_SUSPENDED, null));
+                break;
+            case LOST:
+                publish(new TreeCacheEvent(TreeCacheEvent.Type.CONNECTION_LOST, null));
+                break;
+            case CONNECTED:
+                refreshRoot();
+                break;
+            case RECONNECTED:
+                refreshAll();
+                publish(new TreeCacheEvent(TreeCacheEvent.Type.CONNECTION_RECONNECTED, null));
+                break;
+            default:
+                break;
+        }
+    }
+
+
+    /****************************************************工具方法****************************************************/
+
+    private boolean hasRoot() {
+        lock.readLock().lock();
+        try {
+            return store.hasRoot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean contains(String path) {
+        return depthOf(path) >= 0;
+    }
+
+    /**
+     * 节点深度，不存在返回-1
+     */
+    private int depthOf(String path) {
+        lock.readLock().lock();
+        try {
+            int id = store.find(path);
+            return id == CompactTreeStore.NONE ? -1 : store.depth(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * LAZY模式下读取数据：版本一致时用缓存，否则从集群读取，读到的版本和树中的版本一致时才放入缓存
+     */
+    private byte[] loadLazy(String path, int version) throws Exception {
+        byte[] data = lazyData.get(path, version);
+        if (data != null) {
+            return data;
+        }
+        Stat stat = new Stat();
+        data = client.getData().storingStatIn(stat).forPath(path);
+        lock.readLock().lock();
+        try {
+            int id = store.find(path);
+            if (id != CompactTreeStore.NONE && store.isLoaded(id) && store.stat(id).getVersion() == stat.getVersion()) {
+                lazyData.put(path, stat.getVersion(), data);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return data;
+    }
+
+    /**
+     * 需要持有读锁
+     */
+    private ChildData childData(int id) {
+        return new ChildData(store.path(id), store.stat(id), store.data(id));
+    }
+
+    private void background(BackgroundOperation operation) {
+        if (closed) {
+            return;
+        }
+        outstanding.incrementAndGet();
+        try {
+            operation.run();
+        } catch (Exception e) {
+            log.error("TreeCache后台操作提交失败", e);
+            operationDone();
+        }
+    }
+
+    private void publishRemoved(List<CompactTreeStore.Removed> removed) {
+        for (CompactTreeStore.Removed node : removed) {
+            if (lazyData != null) {
+                lazyData.remove(node.getPath());
+            }
+            publish(new TreeCacheEvent(TreeCacheEvent.Type.NODE_REMOVED,
+                    new ChildData(node.getPath(), node.getStat(), node.getData())));
+        }
+    }
+
+    private void publish(TreeCacheEvent event) {
+        if (closed) {
+            return;
+        }
+        for (ListenerEntry entry : listeners) {
+            entry.executor.execute(() -> {
+                try {
+                    entry.listener.childEvent(client, event);
+                } catch (Exception e) {
+                    log.error("TreeCacheListener处理事件出错: {}", event, e);
+                }
+            });
+        }
+    }
+
+
+    @FunctionalInterface
+    private interface BackgroundOperation {
+        void run() throws Exception;
+    }
+
+    private static final class ListenerEntry {
+
+        private final TreeCacheListener listener;
+
+        private final Executor executor;
+
+        ListenerEntry(TreeCacheListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+}
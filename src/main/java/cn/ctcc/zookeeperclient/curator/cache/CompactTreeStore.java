@@ -0,0 +1,525 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+import org.apache.zookeeper.data.Stat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 9:40
+ * @Description: 紧凑的树存储--->TreeCache每个节点都是一个完整的ChildData(自己的path字符串、Stat对象和byte[])，
+ * 几百万节点时要占几个G的堆。这里：
+ *      节点用int编号，父子关系、兄弟链表都是int数组；
+ *      path按段(segment)驻留，相同的段名只保存一份字符串，子节点查找用(父节点, 段)为key的开放寻址表；
+ *      Stat的11个字段打包进一个long数组；
+ *      节点数据放在堆外的OffHeapArena里。
+ * 节点0保留不用，节点1是根节点。非线程安全，由CompactTreeCache加读写锁。
+ * @Modified:
+ * @version: V1.0
+ */
+public class CompactTreeStore {
+
+    public static final int NONE = 0;
+
+    public static final int ROOT = 1;
+
+    /**
+     * 每个节点的Stat占几个long：czxid、mzxid、ctime、mtime、pzxid、ephemeralOwner、
+     * version|cversion、aversion|dataLength、numChildren
+     */
+    private static final int STAT_STRIDE = 9;
+
+    private static final byte LIVE = 1;
+
+    /**
+     * 已经读到过Stat(NODE_ADDED已经发出)
+     */
+    private static final byte LOADED = 2;
+
+    private static final long EMPTY_KEY = 0L;
+
+    private static final long DELETED_KEY = -1L;
+
+    private final String rootPath;
+
+    /**
+     * 段名驻留表
+     */
+    private final Map<String, Integer> segmentIds = new HashMap<>();
+
+    private final List<String> segments = new ArrayList<>();
+
+    private int[] parent;
+
+    private int[] segment;
+
+    private int[] firstChild;
+
+    private int[] nextSibling;
+
+    private int[] prevSibling;
+
+    private int[] depth;
+
+    private byte[] flags;
+
+    private long[] stats;
+
+    private long[] dataRef;
+
+    private int[] dataLength;
+
+    /**
+     * 回收的节点编号
+     */
+    private int[] freeIds = new int[16];
+
+    private int freeCount;
+
+    /**
+     * 下一个没用过的编号
+     */
+    private int nextId = ROOT + 1;
+
+    private int size;
+
+    /**
+     * 子节点索引：key为(父节点<<32 | 段编号)，开放寻址
+     */
+    private long[] indexKeys;
+
+    private int[] indexValues;
+
+    private int indexUsed;
+
+    private OffHeapArena arena;
+
+
+    public CompactTreeStore(String rootPath, int arenaChunkSize) {
+        this.rootPath = rootPath;
+        this.arena = new OffHeapArena(arenaChunkSize);
+        int capacity = 1024;
+        parent = new int[capacity];
+        segment = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        prevSibling = new int[capacity];
+        depth = new int[capacity];
+        flags = new byte[capacity];
+        stats = new long[capacity * STAT_STRIDE];
+        dataRef = new long[capacity];
+        dataLength = new int[capacity];
+        indexKeys = new long[capacity * 2];
+        indexValues = new int[capacity * 2];
+    }
+
+
+    /**
+     * 根节点是否存在
+     */
+    public boolean hasRoot() {
+        return (flags[ROOT] & LIVE) != 0;
+    }
+
+    /**
+     * 创建根节点，已存在时直接返回
+     */
+    public int ensureRoot() {
+        if (!hasRoot()) {
+            int id = allocate();
+            if (id != ROOT) {
+                throw new IllegalStateException("根节点编号错误: " + id);
+            }
+            parent[id] = NONE;
+            segment[id] = intern(rootPath);
+            depth[id] = 0;
+        }
+        return ROOT;
+    }
+
+    /**
+     * 按完整路径查找节点，不存在返回NONE
+     */
+    public int find(String path) {
+        if (!hasRoot() || !path.startsWith(rootPath)) {
+            return NONE;
+        }
+        if (path.length() == rootPath.length()) {
+            return ROOT;
+        }
+        int start = rootPath.length();
+        if (path.charAt(start) == '/') {
+            start++;
+        } else if (!"/".equals(rootPath)) {
+            return NONE;
+        }
+        int id = ROOT;
+        while (start <= path.length() && id != NONE) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            Integer segmentId = segmentIds.get(path.substring(start, end));
+            if (segmentId == null) {
+                return NONE;
+            }
+            id = child(id, segmentId);
+            start = end + 1;
+        }
+        return id;
+    }
+
+    /**
+     * 查找或创建子节点
+     */
+    public int getOrCreateChild(int parentId, String name) {
+        int segmentId = intern(name);
+        int id = child(parentId, segmentId);
+        if (id != NONE) {
+            return id;
+        }
+        id = allocate();
+        parent[id] = parentId;
+        segment[id] = segmentId;
+        depth[id] = depth[parentId] + 1;
+        //插到兄弟链表头部
+        int head = firstChild[parentId];
+        nextSibling[id] = head;
+        if (head != NONE) {
+            prevSibling[head] = id;
+        }
+        firstChild[parentId] = id;
+        indexPut(key(parentId, segmentId), id);
+        return id;
+    }
+
+    /**
+     * 子节点编号，不存在返回NONE
+     */
+    public int child(int parentId, String name) {
+        Integer segmentId = segmentIds.get(name);
+        return segmentId == null ? NONE : child(parentId, segmentId);
+    }
+
+    /**
+     * 子节点名称列表
+     */
+    public List<String> childNames(int id) {
+        List<String> names = new ArrayList<>();
+        for (int c = firstChild[id]; c != NONE; c = nextSibling[c]) {
+            names.add(segments.get(segment[c]));
+        }
+        return names;
+    }
+
+    /**
+     * 子节点编号列表
+     */
+    public List<Integer> children(int id) {
+        List<Integer> ids = new ArrayList<>();
+        for (int c = firstChild[id]; c != NONE; c = nextSibling[c]) {
+            ids.add(c);
+        }
+        return ids;
+    }
+
+    public String name(int id) {
+        return segments.get(segment[id]);
+    }
+
+    /**
+     * 由父节点链拼出完整路径
+     */
+    public String path(int id) {
+        if (id == ROOT) {
+            return rootPath;
+        }
+        int[] chain = new int[depth[id]];
+        int n = 0;
+        for (int c = id; c != ROOT; c = parent[c]) {
+            chain[n++] = c;
+        }
+        StringBuilder builder = new StringBuilder(rootPath.length() + n * 16);
+        builder.append(rootPath);
+        for (int i = n - 1; i >= 0; i--) {
+            if (builder.charAt(builder.length() - 1) != '/') {
+                builder.append('/');
+            }
+            builder.append(segments.get(segment[chain[i]]));
+        }
+        return builder.toString();
+    }
+
+    public int depth(int id) {
+        return depth[id];
+    }
+
+    public boolean isLoaded(int id) {
+        return (flags[id] & LOADED) != 0;
+    }
+
+    public long mzxid(int id) {
+        return stats[id * STAT_STRIDE + 1];
+    }
+
+    /**
+     * 保存Stat和数据，data为null表示不缓存数据
+     */
+    public void update(int id, Stat stat, byte[] data) {
+        int base = id * STAT_STRIDE;
+        stats[base] = stat.getCzxid();
+        stats[base + 1] = stat.getMzxid();
+        stats[base + 2] = stat.getCtime();
+        stats[base + 3] = stat.getMtime();
+        stats[base + 4] = stat.getPzxid();
+        stats[base + 5] = stat.getEphemeralOwner();
+        stats[base + 6] = ((long) stat.getVersion() << 32) | (stat.getCversion() & 0xFFFFFFFFL);
+        stats[base + 7] = ((long) stat.getAversion() << 32) | (stat.getDataLength() & 0xFFFFFFFFL);
+        stats[base + 8] = stat.getNumChildren();
+        flags[id] |= LOADED;
+
+        arena.free(dataRef[id], dataLength[id]);
+        dataRef[id] = arena.put(data);
+        dataLength[id] = data == null ? 0 : data.length;
+        if (arena.needsCompaction()) {
+            compact();
+        }
+    }
+
+    public Stat stat(int id) {
+        int base = id * STAT_STRIDE;
+        return new Stat(stats[base], stats[base + 1], stats[base + 2], stats[base + 3],
+                (int) (stats[base + 6] >> 32), (int) stats[base + 6], (int) (stats[base + 7] >> 32),
+                stats[base + 5], (int) stats[base + 7], (int) stats[base + 8], stats[base + 4]);
+    }
+
+    public byte[] data(int id) {
+        return arena.get(dataRef[id], dataLength[id]);
+    }
+
+    /**
+     * 删除子树，按先子后父的顺序返回其中已加载过的节点(路径、Stat和数据)
+     */
+    public List<Removed> removeSubtree(int id) {
+        List<Removed> removed = new ArrayList<>();
+        collect(id, removed);
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public OffHeapArena getArena() {
+        return arena;
+    }
+
+
+    private void collect(int id, List<Removed> removed) {
+        for (int c = firstChild[id]; c != NONE; ) {
+            int next = nextSibling[c];
+            collect(c, removed);
+            c = next;
+        }
+        if (isLoaded(id)) {
+            removed.add(new Removed(path(id), stat(id), data(id)));
+        }
+        unlink(id);
+    }
+
+    private void unlink(int id) {
+        int p = parent[id];
+        if (p != NONE) {
+            int prev = prevSibling[id];
+            int next = nextSibling[id];
+            if (prev != NONE) {
+                nextSibling[prev] = next;
+            } else {
+                firstChild[p] = next;
+            }
+            if (next != NONE) {
+                prevSibling[next] = prev;
+            }
+            indexRemove(key(p, segment[id]));
+        }
+        arena.free(dataRef[id], dataLength[id]);
+        flags[id] = 0;
+        parent[id] = NONE;
+        firstChild[id] = NONE;
+        nextSibling[id] = NONE;
+        prevSibling[id] = NONE;
+        dataRef[id] = OffHeapArena.NULL;
+        dataLength[id] = 0;
+        size--;
+        if (id != ROOT) {
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = id;
+        }
+    }
+
+    private int allocate() {
+        int id;
+        if (!hasRoot()) {
+            id = ROOT;
+        } else if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+        }
+        if (id >= parent.length) {
+            grow(parent.length * 2);
+        }
+        flags[id] = LIVE;
+        firstChild[id] = NONE;
+        nextSibling[id] = NONE;
+        prevSibling[id] = NONE;
+        dataRef[id] = OffHeapArena.NULL;
+        dataLength[id] = 0;
+        size++;
+        return id;
+    }
+
+    private void grow(int capacity) {
+        parent = Arrays.copyOf(parent, capacity);
+        segment = Arrays.copyOf(segment, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        prevSibling = Arrays.copyOf(prevSibling, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        stats = Arrays.copyOf(stats, capacity * STAT_STRIDE);
+        dataRef = Arrays.copyOf(dataRef, capacity);
+        dataLength = Arrays.copyOf(dataLength, capacity);
+    }
+
+    private int intern(String name) {
+        Integer id = segmentIds.get(name);
+        if (id == null) {
+            id = segments.size();
+            String interned = name.intern();
+            segments.add(interned);
+            segmentIds.put(interned, id);
+        }
+        return id;
+    }
+
+    /**
+     * 把存活数据搬到新的数据区，回收浪费的堆外内存
+     */
+    private void compact() {
+        OffHeapArena fresh = new OffHeapArena(arena.getChunkSize());
+        for (int id = ROOT; id < nextId; id++) {
+            if ((flags[id] & LIVE) != 0 && dataRef[id] != OffHeapArena.NULL) {
+                dataRef[id] = fresh.put(arena.get(dataRef[id], dataLength[id]));
+            }
+        }
+        arena = fresh;
+    }
+
+
+    private static long key(int parentId, int segmentId) {
+        return ((long) parentId << 32) | (segmentId & 0xFFFFFFFFL);
+    }
+
+    private int child(int parentId, int segmentId) {
+        long key = key(parentId, segmentId);
+        int mask = indexKeys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = indexKeys[i];
+            if (k == EMPTY_KEY) {
+                return NONE;
+            }
+            if (k == key) {
+                return indexValues[i];
+            }
+        }
+    }
+
+    private void indexPut(long key, int value) {
+        if ((indexUsed + 1) * 2 > indexKeys.length) {
+            rehash(size * 4 > indexKeys.length ? indexKeys.length * 2 : indexKeys.length);
+        }
+        int mask = indexKeys.length - 1;
+        int i = mix(key) & mask;
+        while (indexKeys[i] != EMPTY_KEY && indexKeys[i] != DELETED_KEY) {
+            i = (i + 1) & mask;
+        }
+        if (indexKeys[i] == EMPTY_KEY) {
+            indexUsed++;
+        }
+        indexKeys[i] = key;
+        indexValues[i] = value;
+    }
+
+    private void indexRemove(long key) {
+        int mask = indexKeys.length - 1;
+        for (int i = mix(key) & mask; indexKeys[i] != EMPTY_KEY; i = (i + 1) & mask) {
+            if (indexKeys[i] == key) {
+                indexKeys[i] = DELETED_KEY;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 重建索引，同时清理删除标记
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = indexKeys;
+        int[] oldValues = indexValues;
+        indexKeys = new long[capacity];
+        indexValues = new int[capacity];
+        indexUsed = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY && oldKeys[i] != DELETED_KEY) {
+                indexPut(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+
+    /**
+     * 被删除的节点
+     */
+    public static final class Removed {
+
+        private final String path;
+
+        private final Stat stat;
+
+        private final byte[] data;
+
+        Removed(String path, Stat stat, byte[] data) {
+            this.path = path;
+            this.stat = stat;
+            this.data = data;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Stat getStat() {
+            return stat;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 14:00
+ * @Description: CompactTreeCache的数据缓存方式
+ * @Modified:
+ * @version: V1.0
+ */
+public enum DataMode {
+
+    /**
+     * 缓存所有节点数据，等同于TreeCache的setCacheData(true)
+     */
+    ALL,
+
+    /**
+     * 只缓存树结构和Stat，等同于setCacheData(false)
+     */
+    NONE,
+
+    /**
+     * 缓存树结构和Stat，数据在第一次读取时才加载，按字节数LRU淘汰，节点版本变化时丢弃
+     */
+    LAZY
+}
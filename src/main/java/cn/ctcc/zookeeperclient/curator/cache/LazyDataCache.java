@@ -0,0 +1,121 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 14:10
+ * @Description: DataMode.LAZY下按需加载的节点数据：按path保存数据和加载时的版本号，总字节数超过上限时按LRU淘汰
+ * @Modified:
+ * @version: V1.0
+ */
+public class LazyDataCache {
+
+    /**
+     * 每个条目除了数据之外的估算开销
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+
+    public LazyDataCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+
+    /**
+     * 读取指定版本的数据，没有或版本不一致时返回null
+     */
+    public synchronized byte[] get(String path, int version) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.version != version) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.data;
+    }
+
+    public synchronized void put(String path, int version, byte[] data) {
+        int size = ENTRY_OVERHEAD + path.length() * 2 + (data == null ? 0 : data.length);
+        if (size > maxBytes) {
+            return;
+        }
+        Entry old = entries.put(path, new Entry(version, data, size));
+        if (old != null) {
+            currentBytes -= old.size;
+        }
+        currentBytes += size;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            currentBytes -= eldest.size;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 节点版本变化时丢弃旧数据
+     */
+    public synchronized void invalidate(String path, int version) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.version != version) {
+            entries.remove(path);
+            currentBytes -= entry.size;
+        }
+    }
+
+    public synchronized void remove(String path) {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            currentBytes -= entry.size;
+        }
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+
+    private static final class Entry {
+
+        private final int version;
+
+        private final byte[] data;
+
+        private final int size;
+
+        Entry(int version, byte[] data, int size) {
+            this.version = version;
+            this.data = data;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 9:20
+ * @Description: 堆外数据区：节点数据顺序追加到若干块DirectByteBuffer里，用一个long引用(块下标<<32 | 偏移)定位。
+ * 数据更新后旧数据只记为浪费，不单独回收，由使用方在浪费过多时整体搬迁(见CompactTreeStore.compact)。
+ * 非线程安全，由调用方加锁。
+ * @Modified:
+ * @version: V1.0
+ */
+public class OffHeapArena {
+
+    /**
+     * 没有数据时的引用
+     */
+    public static final long NULL = -1L;
+
+    private final int chunkSize;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * 当前追加的块
+     */
+    private ByteBuffer current;
+
+    private long allocatedBytes;
+
+    private long wastedBytes;
+
+
+    public OffHeapArena(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+
+    /**
+     * 写入数据，返回引用
+     */
+    public long put(byte[] data) {
+        if (data == null) {
+            return NULL;
+        }
+        int length = data.length;
+        if (current == null || current.remaining() < length) {
+            //超过块大小的数据单独占一块
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, length));
+            chunks.add(current);
+        }
+        int offset = current.position();
+        current.put(data);
+        allocatedBytes += length;
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    /**
+     * 读取数据，返回堆内副本
+     */
+    public byte[] get(long ref, int length) {
+        if (ref == NULL) {
+            return null;
+        }
+        ByteBuffer chunk = chunks.get((int) (ref >>> 32)).duplicate();
+        chunk.position((int) ref);
+        byte[] data = new byte[length];
+        chunk.get(data);
+        return data;
+    }
+
+    /**
+     * 释放数据：只记账，整体搬迁时才真正回收
+     */
+    public void free(long ref, int length) {
+        if (ref != NULL) {
+            wastedBytes += length;
+        }
+    }
+
+    /**
+     * 已分配的堆外内存
+     */
+    public long getCapacityBytes() {
+        long capacity = 0;
+        for (ByteBuffer chunk : chunks) {
+            capacity += chunk.capacity();
+        }
+        return capacity;
+    }
+
+    public long getLiveBytes() {
+        return allocatedBytes - wastedBytes;
+    }
+
+    public long getWastedBytes() {
+        return wastedBytes;
+    }
+
+    /**
+     * 浪费超过一半且超过一个块时值得搬迁
+     */
+    public boolean needsCompaction() {
+        return wastedBytes > chunkSize && wastedBytes * 2 > allocatedBytes;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,85 @@
+package cn.ctcc.zookeeperclient.curator.chunk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 9:30
+ * @Description: 大数据的清单，保存在数据path节点上：
+ *      4字节魔数"ZKLV" + 代号(generation) + 总长度 + 分块大小 + 分块数 + CRC32
+ * 分块保存在path/generation/index下，换代只需要修改清单，读取方不会看到写了一半的数据
+ * @Modified:
+ * @version: V1.0
+ */
+public final class ChunkManifest {
+
+    static final int MAGIC = 0x5A4B4C56;
+
+    private final String generation;
+
+    private final long totalLength;
+
+    private final int chunkSize;
+
+    private final int chunkCount;
+
+    private final long crc32;
+
+
+    ChunkManifest(String generation, long totalLength, int chunkSize, int chunkCount, long crc32) {
+        this.generation = generation;
+        this.totalLength = totalLength;
+        this.chunkSize = chunkSize;
+        this.chunkCount = chunkCount;
+        this.crc32 = crc32;
+    }
+
+
+    byte[] encode() {
+        byte[] name = generation.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + 2 + name.length + 8 + 4 + 4 + 8)
+                .putInt(MAGIC)
+                .putShort((short) name.length)
+                .put(name)
+                .putLong(totalLength)
+                .putInt(chunkSize)
+                .putInt(chunkCount)
+                .putLong(crc32)
+                .array();
+    }
+
+    /**
+     * 不是清单格式时抛IllegalArgumentException
+     */
+    static ChunkManifest decode(byte[] data) {
+        if (data == null || data.length < 4 || ByteBuffer.wrap(data).getInt() != MAGIC) {
+            throw new IllegalArgumentException("不是分块数据的清单");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, 4, data.length - 4);
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        return new ChunkManifest(new String(name, StandardCharsets.UTF_8), buffer.getLong(), buffer.getInt(),
+                buffer.getInt(), buffer.getLong());
+    }
+
+    public String getGeneration() {
+        return generation;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getCrc32() {
+        return crc32;
+    }
+}
@@ -0,0 +1,299 @@
+package cn.ctcc.zookeeperclient.curator.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 10:00
+ * @Description: 超过jute.maxbuffer的大数据存储--->CuratorAPITest.test03的setData().forPath(...)一次只能写不到1MB。
+ * 写入：数据按chunkSize切块，在path下新建一代(generation)节点，分块作为它的子节点用transaction()分批创建，
+ *      每批请求总字节数不超过maxTransactionBytes(整个multi请求也受jute.maxbuffer限制)；
+ *      最后一批和清单的setData(带版本号CAS)在同一个事务里提交，提交成功后再后台删除上一代。
+ * 读取：先读清单，再按清单里的代号并发getData所有分块(最多maxParallelReads个同时进行)，直接拷贝到预先分配好的数组，最后校验CRC32。
+ *      读取期间上一代被删除(NoNode)时重新读清单再来一次。
+ * 写入失败时会后台删除新建的一代；最后一个事务失败时先重新读清单，清单已经指向新一代说明其实提交成功了(连接丢失后重试)，按成功返回，
+ * 确认不了时保留新一代。写入进程中途崩溃留下的代不影响读取，可以用purge清理。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class ChunkedValueStore {
+
+    /**
+     * 读取时因换代重试的次数
+     */
+    private static final int READ_ATTEMPTS = 5;
+
+    /**
+     * 每个create操作在multi请求里除数据外的估算开销
+     */
+    private static final int OP_OVERHEAD = 256;
+
+    private final CuratorFramework client;
+
+    private final int chunkSize;
+
+    private final int maxTransactionBytes;
+
+    private final int maxParallelReads;
+
+    /**
+     * 等待分块读取完成的超时时间
+     */
+    private final long readTimeoutMillis;
+
+
+    /**
+     * @param chunkSize 分块大小，必须小于jute.maxbuffer
+     * @param maxTransactionBytes 一个事务里分块数据的总字节数上限
+     */
+    public ChunkedValueStore(CuratorFramework client, int chunkSize, int maxTransactionBytes, int maxParallelReads,
+                             long readTimeoutMillis) {
+        if (chunkSize <= 0 || chunkSize + OP_OVERHEAD > maxTransactionBytes) {
+            throw new IllegalArgumentException("chunkSize必须大于0且不超过maxTransactionBytes");
+        }
+        this.client = client;
+        this.chunkSize = chunkSize;
+        this.maxTransactionBytes = maxTransactionBytes;
+        this.maxParallelReads = maxParallelReads;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public ChunkedValueStore(CuratorFramework client) {
+        this(client, 256 * 1024, 768 * 1024, 16, 60 * 1000);
+    }
+
+
+    /**
+     * 写入数据，后写的覆盖先写的
+     */
+    public Stat write(String path, byte[] value) throws Exception {
+        return write(path, value, -1);
+    }
+
+    /**
+     * 写入数据，expectedVersion不为-1时清单的版本号必须等于它，否则抛BadVersionException；
+     * 清单还不存在时expectedVersion只能是-1
+     */
+    public Stat write(String path, byte[] value, int expectedVersion) throws Exception {
+        String previous = generationOf(path);
+        if (previous == null) {
+            try {
+                client.create().creatingParentsIfNeeded().forPath(path, new byte[0]);
+            } catch (KeeperException.NodeExistsException e) {
+                //节点已存在(空节点或者并发创建)
+            }
+        }
+
+        String generation = newGeneration();
+        String generationPath = ZKPaths.makePath(path, generation);
+        int chunkCount = (int) ((value.length + (long) chunkSize - 1) / chunkSize);
+        CRC32 crc32 = new CRC32();
+        crc32.update(value, 0, value.length);
+        ChunkManifest manifest = new ChunkManifest(generation, value.length, chunkSize, chunkCount, crc32.getValue());
+
+        boolean committing = false;
+        try {
+            List<CuratorOp> batch = new ArrayList<>();
+            batch.add(client.transactionOp().create().forPath(generationPath, new byte[0]));
+            int batchBytes = OP_OVERHEAD;
+            for (int i = 0; i < chunkCount; i++) {
+                int offset = i * chunkSize;
+                int length = Math.min(chunkSize, value.length - offset);
+                if (batchBytes + length + OP_OVERHEAD > maxTransactionBytes) {
+                    client.transaction().forOperations(batch);
+                    batch = new ArrayList<>();
+                    batchBytes = 0;
+                }
+                byte[] chunk = new byte[length];
+                System.arraycopy(value, offset, chunk, 0, length);
+                batch.add(client.transactionOp().create().forPath(chunkPath(generationPath, i), chunk));
+                batchBytes += length + OP_OVERHEAD;
+            }
+
+            //最后一批分块和清单一起提交，清单的setData是最后一个操作
+            batch.add(client.transactionOp().setData().withVersion(expectedVersion).forPath(path, manifest.encode()));
+            committing = true;
+            List<CuratorTransactionResult> results = client.transaction().forOperations(batch);
+            Stat stat = results.get(results.size() - 1).getResultStat();
+            if (previous != null) {
+                deleteGeneration(ZKPaths.makePath(path, previous));
+            }
+            return stat;
+        } catch (Exception e) {
+            if (!committing) {
+                deleteGeneration(generationPath);
+                throw e;
+            }
+            //最后一个事务可能已经提交(ConnectionLoss后Curator重试得到NodeExists/BadVersion)，以清单为准
+            Stat stat = new Stat();
+            ChunkManifest current;
+            try {
+                byte[] data = client.getData().storingStatIn(stat).forPath(path);
+                current = data == null || data.length == 0 ? null : ChunkManifest.decode(data);
+            } catch (Exception readError) {
+                //无法确认是否提交，保留新一代，由purge清理
+                e.addSuppressed(readError);
+                throw e;
+            }
+            if (current != null && generation.equals(current.getGeneration())) {
+                if (previous != null) {
+                    deleteGeneration(ZKPaths.makePath(path, previous));
+                }
+                return stat;
+            }
+            deleteGeneration(generationPath);
+            throw e;
+        }
+    }
+
+    /**
+     * 读取数据，节点不存在时返回null
+     */
+    public byte[] read(String path) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            Stat stat = new Stat();
+            byte[] manifestData;
+            try {
+                manifestData = client.getData().storingStatIn(stat).forPath(path);
+            } catch (KeeperException.NoNodeException e) {
+                return null;
+            }
+            if (manifestData == null || manifestData.length == 0) {
+                return null;
+            }
+            ChunkManifest manifest = ChunkManifest.decode(manifestData);
+            try {
+                return readChunks(path, manifest);
+            } catch (KeeperException.NoNodeException e) {
+                //读的过程中换代了
+                if (attempt >= READ_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取清单，节点不存在或还没有写入过数据时返回null
+     */
+    public ChunkManifest readManifest(String path) throws Exception {
+        try {
+            byte[] data = client.getData().forPath(path);
+            return data == null || data.length == 0 ? null : ChunkManifest.decode(data);
+        } catch (KeeperException.NoNodeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 清理没有被清单引用的代(写入进程中途崩溃留下的)，只能在没有并发写入时调用
+     */
+    public void purge(String path) throws Exception {
+        String current = generationOf(path);
+        for (String child : client.getChildren().forPath(path)) {
+            if (!child.equals(current)) {
+                deleteGeneration(ZKPaths.makePath(path, child));
+            }
+        }
+    }
+
+    /**
+     * 删除数据和所有分块
+     */
+    public void delete(String path) throws Exception {
+        try {
+            client.delete().deletingChildrenIfNeeded().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            //已经删除
+        }
+    }
+
+
+    private byte[] readChunks(String path, ChunkManifest manifest) throws Exception {
+        if (manifest.getTotalLength() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("数据太大，无法读到一个数组里: " + manifest.getTotalLength());
+        }
+        byte[] value = new byte[(int) manifest.getTotalLength()];
+        String generationPath = ZKPaths.makePath(path, manifest.getGeneration());
+        int chunkCount = manifest.getChunkCount();
+        CountDownLatch done = new CountDownLatch(chunkCount);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Semaphore window = new Semaphore(maxParallelReads);
+
+        for (int i = 0; i < chunkCount && error.get() == null; i++) {
+            window.acquire();
+            int offset = i * manifest.getChunkSize();
+            client.getData().inBackground((c, event) -> {
+                try {
+                    int resultCode = event.getResultCode();
+                    byte[] chunk = event.getData();
+                    if (resultCode != KeeperException.Code.OK.intValue()) {
+                        error.compareAndSet(null, KeeperException.create(KeeperException.Code.get(resultCode), event.getPath()));
+                    } else if (chunk == null || offset + chunk.length > value.length) {
+                        error.compareAndSet(null, new IllegalStateException("分块长度和清单不符: " + event.getPath()));
+                    } else {
+                        System.arraycopy(chunk, 0, value, offset, chunk.length);
+                    }
+                } finally {
+                    window.release();
+                    done.countDown();
+                }
+            }).forPath(chunkPath(generationPath, i));
+        }
+        if (error.get() == null && !done.await(readTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("读取分块超时: " + path);
+        }
+        //出错后不再发新的请求，已经发出的请求完成前value不能返回给调用方，也不会返回
+        if (error.get() != null) {
+            throw error.get();
+        }
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(value, 0, value.length);
+        if (crc32.getValue() != manifest.getCrc32()) {
+            throw new IllegalStateException("CRC32校验失败: " + path);
+        }
+        return value;
+    }
+
+    /**
+     * 当前清单引用的代号
+     */
+    private String generationOf(String path) throws Exception {
+        ChunkManifest manifest = readManifest(path);
+        return manifest == null ? null : manifest.getGeneration();
+    }
+
+    private void deleteGeneration(String generationPath) {
+        try {
+            client.delete().guaranteed().deletingChildrenIfNeeded().inBackground().forPath(generationPath);
+        } catch (Exception e) {
+            log.warn("删除{}失败", generationPath, e);
+        }
+    }
+
+    private static String newGeneration() {
+        return "g" + Long.toHexString(System.currentTimeMillis()) + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    }
+
+    private static String chunkPath(String generationPath, int index) {
+        return generationPath + "/" + index;
+    }
+}
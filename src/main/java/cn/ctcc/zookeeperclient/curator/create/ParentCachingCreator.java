@@ -0,0 +1,191 @@
+package cn.ctcc.zookeeperclient.curator.create;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 16:00
+ * @Description: 记住父节点是否存在的创建工具--->CuratorAPITest的test06、test08用creatingParentContainersIfNeeded()创建/001/002/003这样的深路径，
+ * 同一个父节点下创建成千上万个叶子节点时，每次都要重复检查/创建祖先节点。
+ * 这里把确认存在的父路径记下来，并给它注册exists监听，收到NodeDeleted时把它和它下面记住的路径一起清掉；
+ * 多个线程同时需要创建同一个缺失的父节点时只发一次请求。
+ * 稳定后每个叶子节点只需要一次往返。连接丢失(LOST)后监听不可信，清空全部记录。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class ParentCachingCreator implements Closeable {
+
+    private final CuratorFramework client;
+
+    /**
+     * 记住的路径数上限，超过后清空重来
+     */
+    private final int maxEntries;
+
+    /**
+     * 确认存在的父路径
+     */
+    private final Set<String> knownParents = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 正在创建的父路径，并发请求共用一次创建
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> creating = new ConcurrentHashMap<>();
+
+    private final LongAdder parentHits = new LongAdder();
+
+    private final LongAdder parentMisses = new LongAdder();
+
+    private final Watcher watcher = this::process;
+
+    private final ConnectionStateListener connectionStateListener = (c, newState) -> {
+        if (newState == ConnectionState.LOST) {
+            knownParents.clear();
+        }
+    };
+
+
+    public ParentCachingCreator(CuratorFramework client, int maxEntries) {
+        this.client = client;
+        this.maxEntries = maxEntries;
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+    }
+
+
+    public String create(String path, byte[] data) throws Exception {
+        return create(path, data, CreateMode.PERSISTENT);
+    }
+
+    /**
+     * 创建节点，缺失的父节点按creatingParentContainersIfNeeded()的方式创建
+     */
+    public String create(String path, byte[] data, CreateMode createMode) throws Exception {
+        String parent = ZKPaths.getPathAndNode(path).getPath();
+        if (knownParents.contains(parent)) {
+            parentHits.increment();
+            try {
+                return client.create().withMode(createMode).forPath(path, data);
+            } catch (KeeperException.NoNodeException e) {
+                //父节点刚被删除，监听还没到
+                forget(parent);
+            }
+        } else {
+            parentMisses.increment();
+        }
+        ensureParent(parent);
+        return client.create().withMode(createMode).forPath(path, data);
+    }
+
+    /**
+     * 确保父节点存在，同一个父路径同时只有一个线程真正去创建
+     */
+    public void ensureParent(String parent) throws Exception {
+        if ("/".equals(parent) || knownParents.contains(parent)) {
+            return;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> existing = creating.putIfAbsent(parent, future);
+        if (existing != null) {
+            try {
+                existing.get();
+                return;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        try {
+            //parent本身和祖先都按容器节点创建(3.4服务端上退化为永久节点)，已存在时不报错
+            client.createContainers(parent);
+            remember(parent);
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            creating.remove(parent, future);
+        }
+    }
+
+    public long getParentHits() {
+        return parentHits.sum();
+    }
+
+    public long getParentMisses() {
+        return parentMisses.sum();
+    }
+
+    public int size() {
+        return knownParents.size();
+    }
+
+    @Override
+    public void close() {
+        client.getConnectionStateListenable().removeListener(connectionStateListener);
+        knownParents.clear();
+    }
+
+
+    /**
+     * 记住父路径并注册删除监听
+     */
+    private void remember(String parent) {
+        if (knownParents.size() >= maxEntries) {
+            knownParents.clear();
+        }
+        if (knownParents.add(parent)) {
+            watch(parent);
+        }
+    }
+
+    private void watch(String parent) {
+        try {
+            client.checkExists().usingWatcher(watcher).inBackground((c, event) -> {
+                if (event.getStat() == null) {
+                    //注册监听时已经被删除
+                    forget(event.getPath());
+                }
+            }).forPath(parent);
+        } catch (Exception e) {
+            log.warn("注册父节点监听失败: {}", parent, e);
+            knownParents.remove(parent);
+        }
+    }
+
+    private void process(WatchedEvent watchedEvent) {
+        String path = watchedEvent.getPath();
+        if (path == null) {
+            return;
+        }
+        if (watchedEvent.getType() == Watcher.Event.EventType.NodeDeleted) {
+            forget(path);
+        } else if (knownParents.contains(path)) {
+            //其它事件消耗了监听，重新注册
+            watch(path);
+        }
+    }
+
+    /**
+     * 忘掉path和记在它下面的路径
+     */
+    private void forget(String path) {
+        knownParents.remove(path);
+        String prefix = path + "/";
+        knownParents.removeIf(known -> known.startsWith(prefix));
+    }
+}
@@ -0,0 +1,247 @@
+package cn.ctcc.zookeeperclient.curator.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/24 14:00
+ * @Description: 按号段租用的分布式ID生成器--->CuratorAPITest.test01用PERSISTENT_SEQUENTIAL节点取递增序号，
+ * 每个ID都是一次集群写，还留下一个没用的节点。
+ * 这里计数节点保存下一个未分配的ID(8字节)，每个JVM一次用带版本号的setData(CAS)租下一个号段，
+ * 号段内的ID用AtomicLong在本地无锁分配。号段用掉3/4时在后台预取下一个号段，正常情况下nextId不会等待集群。
+ * 号段大小按消耗速度自适应：一个号段用完的时间短于targetLeaseMillis的一半就翻倍，长于两倍就减半，在[minBlockSize, maxBlockSize]之间。
+ * 保证：所有JVM拿到的ID不重复，单个JVM内号段的起点递增(同一号段内多个线程拿到ID的先后不保证)；
+ * 预取和同步租用同时发生时，先CAS成功却后装上的号段会被丢弃，不会让ID回退。
+ * 进程退出时没用完的号段(当前号段剩余部分和预取号段)以及丢弃的号段会成为空洞，不保证全局连续。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class RangeIdGenerator implements Closeable {
+
+    private final CuratorFramework client;
+
+    private final String counterPath;
+
+    private final int minBlockSize;
+
+    private final int maxBlockSize;
+
+    private final long targetLeaseNanos;
+
+    /**
+     * 当前号段，用完后在锁内换成预取的号段
+     */
+    private volatile Block current = Block.EMPTY;
+
+    /**
+     * 预取的下一个号段，没有时为null
+     */
+    private volatile Block prefetched;
+
+    private final Object refillLock = new Object();
+
+    /**
+     * 下一次租用的号段大小
+     */
+    private volatile int blockSize;
+
+    private volatile long lastLeaseNanos = System.nanoTime();
+
+    private final ExecutorService prefetcher;
+
+    private final LongAdder leases = new LongAdder();
+
+    private final LongAdder casConflicts = new LongAdder();
+
+
+    public RangeIdGenerator(CuratorFramework client, String counterPath, int minBlockSize, int maxBlockSize,
+                            long targetLeaseMillis) {
+        if (minBlockSize <= 0 || maxBlockSize < minBlockSize) {
+            throw new IllegalArgumentException("号段大小必须满足0 < minBlockSize <= maxBlockSize");
+        }
+        this.client = client;
+        this.counterPath = counterPath;
+        this.minBlockSize = minBlockSize;
+        this.maxBlockSize = maxBlockSize;
+        this.targetLeaseNanos = TimeUnit.MILLISECONDS.toNanos(targetLeaseMillis);
+        this.blockSize = minBlockSize;
+        this.prefetcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "zk-id-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public RangeIdGenerator(CuratorFramework client, String counterPath) {
+        this(client, counterPath, 1000, 1 << 20, 1000);
+    }
+
+
+    /**
+     * 获取一个ID，集群不可用且本地号段用完时抛IllegalStateException
+     */
+    public long nextId() {
+        while (true) {
+            Block block = current;
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                if (id == block.prefetchAt) {
+                    prefetcher.execute(this::prefetch);
+                }
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * 已租用的号段数，即对计数节点的写次数
+     */
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getCasConflicts() {
+        return casConflicts.sum();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public void close() {
+        prefetcher.shutdownNow();
+    }
+
+
+    /**
+     * 当前号段用完，换成预取的号段或者同步租一个
+     */
+    private void refill(Block exhausted) {
+        synchronized (refillLock) {
+            if (current != exhausted) {
+                return;
+            }
+            Block next = prefetched;
+            prefetched = null;
+            if (next != null && next.start < exhausted.end) {
+                //预取先CAS成功，但同步租用的号段先装上了，用它会让ID回退
+                log.debug("丢弃过期的预取号段[{}, {})", next.start, next.end);
+                next = null;
+            }
+            if (next == null) {
+                try {
+                    next = lease();
+                } catch (Exception e) {
+                    throw new IllegalStateException("租用号段失败: " + counterPath, e);
+                }
+            }
+            current = next;
+        }
+    }
+
+    private void prefetch() {
+        try {
+            Block block = lease();
+            synchronized (refillLock) {
+                if (prefetched == null && block.start >= current.end) {
+                    prefetched = block;
+                    return;
+                }
+            }
+            //已经有预取的号段，或者比当前号段小(同步租用和预取同时发生)，多出来的这段成为空洞
+            log.debug("丢弃多余的号段[{}, {})", block.start, block.end);
+        } catch (Exception e) {
+            log.warn("预取号段失败: {}", counterPath, e);
+        }
+    }
+
+    /**
+     * CAS租用一个号段，并按上一个号段的使用时长调整下一个号段的大小
+     */
+    private Block lease() throws Exception {
+        int size = adaptBlockSize();
+        while (true) {
+            Stat stat = new Stat();
+            long start;
+            try {
+                byte[] data = client.getData().storingStatIn(stat).forPath(counterPath);
+                start = data == null || data.length < 8 ? 0 : ByteBuffer.wrap(data).getLong();
+            } catch (KeeperException.NoNodeException e) {
+                try {
+                    client.create().creatingParentsIfNeeded().forPath(counterPath, encode(0));
+                } catch (KeeperException.NodeExistsException ignore) {
+                    //其他JVM已经创建
+                }
+                continue;
+            }
+            long end = start + size;
+            try {
+                client.setData().withVersion(stat.getVersion()).forPath(counterPath, encode(end));
+                leases.increment();
+                return new Block(start, end);
+            } catch (KeeperException.BadVersionException e) {
+                casConflicts.increment();
+            }
+        }
+    }
+
+    private int adaptBlockSize() {
+        long now = System.nanoTime();
+        long elapsed = now - lastLeaseNanos;
+        lastLeaseNanos = now;
+        int size = blockSize;
+        if (elapsed < targetLeaseNanos / 2) {
+            size = (int) Math.min((long) size * 2, maxBlockSize);
+        } else if (elapsed > targetLeaseNanos * 2) {
+            size = Math.max(size / 2, minBlockSize);
+        }
+        blockSize = size;
+        return size;
+    }
+
+    private static byte[] encode(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+
+    /**
+     * 号段[start, end)
+     */
+    private static final class Block {
+
+        static final Block EMPTY = new Block(0, 0);
+
+        private final long start;
+
+        private final long end;
+
+        /**
+         * 分配到这个ID时开始预取下一个号段
+         */
+        private final long prefetchAt;
+
+        private final AtomicLong next;
+
+        Block(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.prefetchAt = end == start ? Long.MIN_VALUE : start + (end - start) * 3 / 4;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
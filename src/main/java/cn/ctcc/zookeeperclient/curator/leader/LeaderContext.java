@@ -0,0 +1,81 @@
+package cn.ctcc.zookeeperclient.curator.leader;
+
+import java.util.Map;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/27 9:50
+ * @Description: 一个任期内leader可用的操作。状态读的是当选前就已经加载好的本地缓存，不访问集群
+ * @Modified:
+ * @version: V1.0
+ */
+public final class LeaderContext {
+
+    private final LeaderElection election;
+
+    private final long term;
+
+    /**
+     * 从前任最后一次心跳到本任期开始工作的毫秒数，没有前任时为-1
+     */
+    private final long failoverMillis;
+
+
+    LeaderContext(LeaderElection election, long term, long failoverMillis) {
+        this.election = election;
+        this.term = term;
+        this.failoverMillis = failoverMillis;
+    }
+
+
+    public String getParticipantId() {
+        return election.getParticipantId();
+    }
+
+    /**
+     * 任期号，每次换leader(包括同一个参与者重新当选)加1
+     */
+    public long getTerm() {
+        return term;
+    }
+
+    public long getFailoverMillis() {
+        return failoverMillis;
+    }
+
+    /**
+     * 本任期是否仍然有效，连接SUSPENDED后立即变为false
+     */
+    public boolean isLeader() {
+        return election.isLeader(term);
+    }
+
+    /**
+     * 缓存里的某项状态，不存在时返回null
+     */
+    public byte[] getState(String name) {
+        return election.getState(name);
+    }
+
+    /**
+     * 缓存里的全部状态
+     */
+    public Map<String, byte[]> getStates() {
+        return election.getStates();
+    }
+
+    /**
+     * 写入一项状态，本任期已失效时抛IllegalStateException
+     */
+    public void writeState(String name, byte[] data) throws Exception {
+        election.writeState(term, name, data);
+    }
+
+    /**
+     * 从集群重新加载全部状态。缓存是异步更新的，前任失去领导权前最后的写入可能还没到，
+     * 对此敏感的任务在lead()开头调用一次
+     */
+    public void refresh() throws Exception {
+        election.refreshState();
+    }
+}
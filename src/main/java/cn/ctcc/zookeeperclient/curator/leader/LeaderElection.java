@@ -0,0 +1,307 @@
+package cn.ctcc.zookeeperclient.curator.leader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.leader.CancelLeadershipException;
+import org.apache.curator.framework.recipes.leader.LeaderSelector;
+import org.apache.curator.framework.recipes.leader.LeaderSelectorListener;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/27 10:00
+ * @Description: 快速切换的leader选举，基于LeaderSelector。basePath下三个子节点：
+ *      latch：LeaderSelector的锁节点
+ *      state：leader的状态，每项一个子节点。所有参与者启动时就用PathChildrenCache加载并持续跟踪，备用节点当选时状态已经在内存里
+ *      heartbeat：leader每heartbeatMillis写一次心跳，新leader据此计算切换耗时
+ *      term：任期计数器，当选后CAS加1，不依赖异步更新的心跳缓存，保证任期唯一
+ * 连接SUSPENDED时立即放弃领导权(中断LeaderTask)，不等会话超时后的LOST，这时会话可能还在，锁节点要等重连后才删掉。
+ * 切换耗时记两个直方图：
+ *      failover：前任最后一次心跳(主动释放时为释放时间)到本参与者开始执行任务的毫秒数，包含不超过一个心跳间隔的误差和机器间的时钟偏差
+ *      takeover：拿到锁到开始执行任务的微秒数，也就是当选后的准备时间
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class LeaderElection implements Closeable, LeaderSelectorListener {
+
+    private static final long MAX_FAILOVER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final long MAX_TAKEOVER_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final CuratorFramework client;
+
+    private final String participantId;
+
+    private final LeaderTask task;
+
+    private final long heartbeatMillis;
+
+    private final String statePath;
+
+    private final String heartbeatPath;
+
+    /**
+     * 任期计数器
+     */
+    private final String termPath;
+
+    private final LeaderSelector selector;
+
+    private final PathChildrenCache stateCache;
+
+    private final NodeCache heartbeatCache;
+
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    /**
+     * 当前有效的任期，不是leader时为0
+     */
+    private volatile long leadingTerm;
+
+    private final ConcurrentHistogram failover = new ConcurrentHistogram(MAX_FAILOVER_MILLIS, 3);
+
+    private final ConcurrentHistogram takeover = new ConcurrentHistogram(MAX_TAKEOVER_MICROS, 3);
+
+    private final LongAdder elected = new LongAdder();
+
+    /**
+     * 因连接SUSPENDED/LOST放弃领导权的次数
+     */
+    private final LongAdder suspendedDrops = new LongAdder();
+
+
+    public LeaderElection(CuratorFramework client, String basePath, String participantId, long heartbeatMillis, LeaderTask task) {
+        this.client = client;
+        this.participantId = participantId;
+        this.task = task;
+        this.heartbeatMillis = heartbeatMillis;
+        this.statePath = ZKPaths.makePath(basePath, "state");
+        this.heartbeatPath = ZKPaths.makePath(basePath, "heartbeat");
+        this.termPath = ZKPaths.makePath(basePath, "term");
+        this.selector = new LeaderSelector(client, ZKPaths.makePath(basePath, "latch"), this);
+        this.selector.setId(participantId);
+        this.selector.autoRequeue();
+        this.stateCache = new PathChildrenCache(client, statePath, true);
+        this.heartbeatCache = new NodeCache(client, heartbeatPath);
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leader-heartbeat-" + participantId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * 先同步加载状态和心跳，再参加选举
+     */
+    public LeaderElection start() throws Exception {
+        client.createContainers(statePath);
+        stateCache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+        heartbeatCache.start(true);
+        selector.start();
+        return this;
+    }
+
+    @Override
+    public void takeLeadership(CuratorFramework client) throws Exception {
+        long acquired = System.nanoTime();
+        LeaderHeartbeat previous = LeaderHeartbeat.decode(currentData(heartbeatCache.getCurrentData()));
+        long term = nextTerm();
+        long failoverMillis = previous == null ? -1 : System.currentTimeMillis() - previous.getTimeMillis();
+
+        leadingTerm = term;
+        //拿到锁到这里之间的SUSPENDED被stateChanged忽略了(当时leadingTerm还是0)，再检查一次
+        if (!client.getZookeeperClient().isConnected()) {
+            log.warn("{}当选时连接已断开，放弃任期{}", participantId, term);
+            leadingTerm = 0;
+            suspendedDrops.increment();
+            return;
+        }
+        ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleWithFixedDelay(() -> {
+            if (isLeader(term)) {
+                heartbeat(term, false);
+            }
+        },
+                0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        LeaderContext context = new LeaderContext(this, term, failoverMillis);
+        elected.increment();
+        if (failoverMillis >= 0) {
+            failover.recordValue(Math.min(Math.max(failoverMillis, 0), MAX_FAILOVER_MILLIS));
+        }
+        takeover.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - acquired), MAX_TAKEOVER_MICROS));
+        log.info("{}当选leader，任期{}，前任{}，切换耗时{}ms", participantId, term,
+                previous == null ? null : previous.getParticipantId(), failoverMillis);
+        try {
+            task.lead(context);
+        } finally {
+            heartbeat.cancel(true);
+            //主动放弃时写一次释放心跳，新leader从这里开始计时；因断线放弃时写不进去，新leader从最后一次心跳计时
+            if (leadingTerm == term) {
+                leadingTerm = 0;
+                boolean interrupted = Thread.interrupted();
+                heartbeat(term, true);
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            log.info("{}放弃leader，任期{}", participantId, term);
+        }
+    }
+
+    @Override
+    public void stateChanged(CuratorFramework client, ConnectionState newState) {
+        if ((newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) && leadingTerm != 0) {
+            log.warn("{}连接状态{}，立即放弃leader，任期{}", participantId, newState, leadingTerm);
+            leadingTerm = 0;
+            suspendedDrops.increment();
+            //LeaderSelector捕获后中断takeLeadership线程
+            throw new CancelLeadershipException();
+        }
+    }
+
+    public boolean isLeader() {
+        return leadingTerm != 0;
+    }
+
+    public String getParticipantId() {
+        return participantId;
+    }
+
+    /**
+     * 前任最后一次心跳到开始执行任务的毫秒数，返回副本
+     */
+    public Histogram getFailoverMillis() {
+        return failover.copy();
+    }
+
+    /**
+     * 拿到锁到开始执行任务的微秒数，返回副本
+     */
+    public Histogram getTakeoverMicros() {
+        return takeover.copy();
+    }
+
+    public long getElectedCount() {
+        return elected.sum();
+    }
+
+    public long getSuspendedDrops() {
+        return suspendedDrops.sum();
+    }
+
+    public void printReport(PrintStream out) {
+        Histogram failoverMillis = getFailoverMillis();
+        Histogram takeoverMicros = getTakeoverMicros();
+        out.printf("%s elected=%d suspendedDrops=%d failover(ms) p50/p99/max=%d/%d/%d takeover(us) p50/p99/max=%d/%d/%d%n",
+                participantId, getElectedCount(), getSuspendedDrops(),
+                failoverMillis.getValueAtPercentile(50), failoverMillis.getValueAtPercentile(99), failoverMillis.getMaxValue(),
+                takeoverMicros.getValueAtPercentile(50), takeoverMicros.getValueAtPercentile(99), takeoverMicros.getMaxValue());
+    }
+
+    @Override
+    public void close() {
+        selector.close();
+        heartbeatExecutor.shutdownNow();
+        try {
+            stateCache.close();
+            heartbeatCache.close();
+        } catch (Exception e) {
+            log.warn("关闭{}的状态缓存失败", participantId, e);
+        }
+    }
+
+
+    boolean isLeader(long term) {
+        return leadingTerm == term;
+    }
+
+    byte[] getState(String name) {
+        return currentData(stateCache.getCurrentData(ZKPaths.makePath(statePath, name)));
+    }
+
+    Map<String, byte[]> getStates() {
+        Map<String, byte[]> states = new HashMap<>();
+        for (ChildData childData : stateCache.getCurrentData()) {
+            states.put(ZKPaths.getNodeFromPath(childData.getPath()), childData.getData());
+        }
+        return states;
+    }
+
+    void writeState(long term, String name, byte[] data) throws Exception {
+        if (!isLeader(term)) {
+            throw new IllegalStateException(participantId + "的任期" + term + "已失效");
+        }
+        String path = ZKPaths.makePath(statePath, name);
+        try {
+            client.setData().forPath(path, data);
+        } catch (KeeperException.NoNodeException e) {
+            client.create().forPath(path, data);
+        }
+    }
+
+    void refreshState() throws Exception {
+        stateCache.rebuild();
+    }
+
+
+    /**
+     * 在term节点上CAS加1得到新任期，只有持有锁的leader会调用，任期全局唯一且递增
+     */
+    private long nextTerm() throws Exception {
+        while (true) {
+            Stat stat = new Stat();
+            try {
+                byte[] data = client.getData().storingStatIn(stat).forPath(termPath);
+                long term = (data == null || data.length == 0 ? 0 : Long.parseLong(new String(data, StandardCharsets.UTF_8))) + 1;
+                client.setData().withVersion(stat.getVersion()).forPath(termPath, Long.toString(term).getBytes(StandardCharsets.UTF_8));
+                return term;
+            } catch (KeeperException.NoNodeException e) {
+                try {
+                    client.create().creatingParentContainersIfNeeded().forPath(termPath, "1".getBytes(StandardCharsets.UTF_8));
+                    return 1;
+                } catch (KeeperException.NodeExistsException ignored) {
+                    //并发创建，重新读
+                }
+            } catch (KeeperException.BadVersionException ignored) {
+                //被失效的前任改过，重新读
+            }
+        }
+    }
+
+    private void heartbeat(long term, boolean released) {
+        try {
+            byte[] data = new LeaderHeartbeat(System.currentTimeMillis(), term, released, participantId).encode();
+            try {
+                client.setData().forPath(heartbeatPath, data);
+            } catch (KeeperException.NoNodeException e) {
+                client.create().creatingParentContainersIfNeeded().forPath(heartbeatPath, data);
+            }
+        } catch (Exception e) {
+            log.debug("{}写心跳失败，任期{}", participantId, term, e);
+        }
+    }
+
+    private static byte[] currentData(ChildData childData) {
+        return childData == null ? null : childData.getData();
+    }
+}
@@ -0,0 +1,70 @@
+package cn.ctcc.zookeeperclient.curator.leader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/27 9:40
+ * @Description: leader定期写入的心跳："时间戳,任期,是否已主动释放,参与者id"。
+ * 新leader用前任最后一次心跳的时间估算切换耗时，前任主动释放时最后一次心跳就是释放时间
+ * @Modified:
+ * @version: V1.0
+ */
+final class LeaderHeartbeat {
+
+    private final long timeMillis;
+
+    private final long term;
+
+    private final boolean released;
+
+    private final String participantId;
+
+
+    LeaderHeartbeat(long timeMillis, long term, boolean released, String participantId) {
+        this.timeMillis = timeMillis;
+        this.term = term;
+        this.released = released;
+        this.participantId = participantId;
+    }
+
+
+    byte[] encode() {
+        return (timeMillis + "," + term + "," + released + "," + participantId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解析失败(空节点或格式不对)返回null
+     */
+    static LeaderHeartbeat decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        String[] fields = new String(data, StandardCharsets.UTF_8).split(",", 4);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            return new LeaderHeartbeat(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                    Boolean.parseBoolean(fields[2]), fields[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    long getTimeMillis() {
+        return timeMillis;
+    }
+
+    long getTerm() {
+        return term;
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+
+    String getParticipantId() {
+        return participantId;
+    }
+}
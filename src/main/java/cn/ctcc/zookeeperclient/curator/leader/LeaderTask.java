@@ -0,0 +1,14 @@
+package cn.ctcc.zookeeperclient.curator.leader;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/27 9:30
+ * @Description: 当选后执行的任务。lead()返回即放弃领导权；连接SUSPENDED时执行线程会被中断，
+ * 实现必须响应中断尽快返回，否则旧leader和新leader会同时工作
+ * @Modified:
+ * @version: V1.0
+ */
+public interface LeaderTask {
+
+    void lead(LeaderContext context) throws Exception;
+}
@@ -0,0 +1,185 @@
+package cn.ctcc.zookeeperclient.curator.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.locks.InterProcessSemaphoreMutex;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/24 10:00
+ * @Description: 本地排队、集群只排一次的分布式锁--->多个线程直接用InterProcessMutex时，每个线程都要建一个临时有序节点、
+ * 注册一个watch，锁在线程之间交接也要经过集群。
+ * 这里同一个JVM里的线程先在一个公平的ReentrantLock上排队，拿到本地锁的线程再去拿ZooKeeper锁；
+ * 释放时如果本地还有线程在等，就不释放ZooKeeper锁，直接把本地锁交给下一个线程，直到交接次数或持有时间达到上限。
+ * ZooKeeper锁用InterProcessSemaphoreMutex：InterProcessMutex只能由获取它的线程释放，没法在线程之间交接。
+ * 所以同一个path的所有JVM都必须用CoalescingLock(或InterProcessSemaphoreMutex)，不能和InterProcessMutex混用。
+ * 支持重入，acquire和release必须在同一个线程里成对调用。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class CoalescingLock {
+
+    private final CoalescingLockManager manager;
+
+    private final String path;
+
+    private final InterProcessSemaphoreMutex mutex;
+
+    /**
+     * 本地排队用的公平锁，下面的状态只在持有它时读写
+     */
+    private final ReentrantLock local = new ReentrantLock(true);
+
+    private boolean zkHeld;
+
+    /**
+     * 拿到ZooKeeper锁时的连接代数
+     */
+    private long zkEpoch;
+
+    /**
+     * 本次持有ZooKeeper锁期间已经交接的次数
+     */
+    private int handoffs;
+
+    private long heldSince;
+
+    private final LongAdder zkAcquisitions = new LongAdder();
+
+    private final LongAdder localHandoffs = new LongAdder();
+
+
+    CoalescingLock(CoalescingLockManager manager, CuratorFramework client, String path) {
+        this.manager = manager;
+        this.path = path;
+        this.mutex = new InterProcessSemaphoreMutex(client, path);
+    }
+
+
+    public void acquire() throws Exception {
+        acquire(-1, null);
+    }
+
+    /**
+     * time小于0时一直等待，超时返回false
+     */
+    public boolean acquire(long time, TimeUnit unit) throws Exception {
+        long deadline = time < 0 ? 0 : System.nanoTime() + unit.toNanos(time);
+        try {
+            if (time < 0) {
+                local.lockInterruptibly();
+            } else if (!local.tryLock(time, unit)) {
+                releaseIfIdle();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            releaseIfIdle();
+            throw e;
+        }
+        if (local.getHoldCount() > 1) {
+            return true;
+        }
+
+        boolean acquired = false;
+        try {
+            if (zkHeld && zkEpoch != manager.getConnectionEpoch()) {
+                //连接断过，锁可能已经随会话失效，释放失败也当作已经释放
+                try {
+                    releaseZk();
+                } catch (Exception e) {
+                    log.warn("释放失效的锁{}失败", path, e);
+                }
+            }
+            if (zkHeld) {
+                localHandoffs.increment();
+            } else {
+                long epoch = manager.getConnectionEpoch();
+                if (time < 0) {
+                    mutex.acquire();
+                } else if (!mutex.acquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                zkHeld = true;
+                zkEpoch = epoch;
+                handoffs = 0;
+                heldSince = System.nanoTime();
+                zkAcquisitions.increment();
+            }
+            acquired = true;
+            return true;
+        } finally {
+            if (!acquired) {
+                local.unlock();
+            }
+        }
+    }
+
+    public void release() throws Exception {
+        if (!local.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("当前线程没有持有锁: " + path);
+        }
+        if (local.getHoldCount() > 1) {
+            local.unlock();
+            return;
+        }
+        try {
+            handoffs++;
+            if (!local.hasQueuedThreads() || handoffs >= manager.getMaxLocalHandoffs()
+                    || System.nanoTime() - heldSince >= manager.getMaxHoldNanos()) {
+                releaseZk();
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return local.isHeldByCurrentThread();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 向集群获取锁的次数
+     */
+    public long getZkAcquisitions() {
+        return zkAcquisitions.sum();
+    }
+
+    /**
+     * 不经过集群、直接在本地交接的次数
+     */
+    public long getLocalHandoffs() {
+        return localHandoffs.sum();
+    }
+
+
+    private void releaseZk() throws Exception {
+        zkHeld = false;
+        mutex.release();
+    }
+
+    /**
+     * 等待的线程放弃时，上一个持有者可能因为看到它在排队而没有释放ZooKeeper锁，这里补上
+     */
+    private void releaseIfIdle() {
+        if (local.tryLock()) {
+            try {
+                if (zkHeld && !local.hasQueuedThreads()) {
+                    releaseZk();
+                }
+            } catch (Exception e) {
+                log.warn("释放锁{}失败", path, e);
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package cn.ctcc.zookeeperclient.curator.lock;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/24 9:30
+ * @Description: 合并本JVM内锁请求的分布式锁管理器，每个path一个CoalescingLock。
+ * maxLocalHandoffs和maxHoldMillis是公平性上限：连续在本地交接这么多次、或者持有ZooKeeper锁超过这么长时间后，
+ * 即使本地还有线程在等，也要把锁还给集群，让其他JVM排在前面的请求先拿到。
+ * 连接SUSPENDED/LOST后ZooKeeper锁可能已经随会话失效，之后的第一次获取会放弃旧锁重新排队。
+ * @Modified:
+ * @version: V1.0
+ */
+public class CoalescingLockManager implements ConnectionStateListener {
+
+    private final CuratorFramework client;
+
+    private final int maxLocalHandoffs;
+
+    private final long maxHoldNanos;
+
+    private final ConcurrentHashMap<String, CoalescingLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 每次连接SUSPENDED/LOST加1，持有锁时记下的值和当前值不同就说明锁可能已经失效
+     */
+    private volatile long connectionEpoch;
+
+
+    public CoalescingLockManager(CuratorFramework client, int maxLocalHandoffs, long maxHoldMillis) {
+        if (maxLocalHandoffs <= 0) {
+            throw new IllegalArgumentException("maxLocalHandoffs必须大于0: " + maxLocalHandoffs);
+        }
+        this.client = client;
+        this.maxLocalHandoffs = maxLocalHandoffs;
+        this.maxHoldNanos = TimeUnit.MILLISECONDS.toNanos(maxHoldMillis);
+        client.getConnectionStateListenable().addListener(this);
+    }
+
+
+    /**
+     * 同一个path返回同一个锁对象
+     */
+    public CoalescingLock lock(String path) {
+        return locks.computeIfAbsent(path, p -> new CoalescingLock(this, client, p));
+    }
+
+    @Override
+    public void stateChanged(CuratorFramework client, ConnectionState newState) {
+        if (newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) {
+            connectionEpoch++;
+        }
+    }
+
+    int getMaxLocalHandoffs() {
+        return maxLocalHandoffs;
+    }
+
+    long getMaxHoldNanos() {
+        return maxHoldNanos;
+    }
+
+    long getConnectionEpoch() {
+        return connectionEpoch;
+    }
+}
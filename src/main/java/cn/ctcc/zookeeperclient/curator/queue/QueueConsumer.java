@@ -0,0 +1,249 @@
+package cn.ctcc.zookeeperclient.curator.queue;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/25 10:40
+ * @Description: 队列消费者，非线程安全，每个消费线程一个。
+ * 每次take轮到下一个分片，从缓存的节点名里按顺序取一批，并发读出数据后用一次multi()认领；
+ * 某个元素已经被其他消费者认领时multi整体失败，根据结果列表找到它、去掉后重试，不需要重新列分片。
+ * 缓存用完才重新getChildren，所有分片都为空时在分片上注册子节点监听等待新元素。
+ * @Modified:
+ * @version: V1.0
+ */
+public class QueueConsumer implements Closeable {
+
+    private final ShardedWorkQueue queue;
+
+    private final CuratorFramework client;
+
+    /**
+     * 确认模式下的消费者id(consumers下的临时节点名)，不确认模式为null
+     */
+    private final String id;
+
+    /**
+     * 每个分片缓存的待认领节点名
+     */
+    private final ArrayDeque<String>[] cached;
+
+    private int cursor;
+
+    /**
+     * 等待新元素时的闩，由shardWatcher打开
+     */
+    private volatile CountDownLatch changed;
+
+    /**
+     * 所有分片共用一个监听对象，空闲时反复take不会在同一个分片上堆积监听
+     */
+    private final CuratorWatcher shardWatcher = event -> {
+        CountDownLatch latch = changed;
+        if (latch != null) {
+            latch.countDown();
+        }
+    };
+
+
+    @SuppressWarnings("unchecked")
+    QueueConsumer(ShardedWorkQueue queue, String id) {
+        this.queue = queue;
+        this.client = queue.getClient();
+        this.id = id;
+        this.cached = new ArrayDeque[queue.getShards()];
+        for (int i = 0; i < cached.length; i++) {
+            cached[i] = new ArrayDeque<>();
+        }
+        //不同消费者从不同分片开始，减少争抢
+        this.cursor = ThreadLocalRandom.current().nextInt(cached.length);
+    }
+
+
+    /**
+     * 取出最多maxItems个元素，超时没有元素时返回空列表
+     */
+    public List<QueueItem> take(int maxItems, long timeout, TimeUnit unit) throws Exception {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int limit = Math.max(1, Math.min(maxItems, id == null ? queue.getMaxBatchOps() : queue.getMaxBatchOps() / 2));
+        while (true) {
+            for (int n = 0; n < cached.length; n++) {
+                int shard = cursor;
+                cursor = (cursor + 1) % cached.length;
+                List<QueueItem> items = claim(shard, limit);
+                if (!items.isEmpty()) {
+                    return items;
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !awaitItems(remaining)) {
+                return Collections.emptyList();
+            }
+        }
+    }
+
+    /**
+     * 确认处理完成，不确认模式下什么也不做
+     */
+    public void ack(List<QueueItem> items) throws Exception {
+        if (id == null) {
+            return;
+        }
+        List<QueueItem> pending = new ArrayList<>(items);
+        while (!pending.isEmpty()) {
+            List<QueueItem> batch = new ArrayList<>(pending.subList(0, Math.min(pending.size(), queue.getMaxBatchOps())));
+            List<CuratorOp> ops = new ArrayList<>(batch.size());
+            for (QueueItem item : batch) {
+                ops.add(client.transactionOp().delete().forPath(item.getClaimPath()));
+            }
+            try {
+                client.transaction().forOperations(ops);
+                pending.subList(0, batch.size()).clear();
+            } catch (KeeperException e) {
+                int index = ShardedWorkQueue.failedIndex(e);
+                if (index < 0) {
+                    throw e;
+                }
+                //已经被当作失效消费者的元素放回了队列
+                pending.remove(index);
+            }
+        }
+    }
+
+    /**
+     * 删除消费者节点，未确认的元素之后会被requeueAbandoned放回
+     */
+    @Override
+    public void close() {
+        if (id == null) {
+            return;
+        }
+        try {
+            client.delete().guaranteed().forPath(ZKPaths.makePath(queue.getRoot(), ShardedWorkQueue.CONSUMERS, id));
+        } catch (Exception e) {
+            //会话结束时临时节点也会被删除
+        }
+    }
+
+
+    private List<QueueItem> claim(int shard, int limit) throws Exception {
+        ArrayDeque<String> names = cached[shard];
+        boolean listed = false;
+        while (true) {
+            if (names.isEmpty()) {
+                if (listed) {
+                    return Collections.emptyList();
+                }
+                List<String> children = client.getChildren().forPath(queue.shardPath(shard));
+                Collections.sort(children);
+                names.addAll(children);
+                listed = true;
+                if (names.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            List<String> candidates = new ArrayList<>(limit);
+            while (candidates.size() < limit && !names.isEmpty()) {
+                candidates.add(names.poll());
+            }
+            List<QueueItem> items = claimBatch(shard, candidates);
+            if (!items.isEmpty()) {
+                return items;
+            }
+        }
+    }
+
+    /**
+     * 读出数据后一次multi认领，返回认领成功的元素
+     */
+    private List<QueueItem> claimBatch(int shard, List<String> candidates) throws Exception {
+        String shardPath = queue.shardPath(shard);
+        byte[][] data = new byte[candidates.size()][];
+        boolean[] found = new boolean[candidates.size()];
+        CountDownLatch fetched = new CountDownLatch(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = i;
+            client.getData().inBackground((c, event) -> {
+                if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
+                    data[index] = event.getData();
+                    found[index] = true;
+                }
+                fetched.countDown();
+            }).forPath(ZKPaths.makePath(shardPath, candidates.get(i)));
+        }
+        fetched.await();
+
+        List<QueueItem> items = new ArrayList<>(candidates.size());
+        //确认模式下认领时要在inflight下重新写一份数据，和enqueueAll一样按字节数限制一次multi的大小，放不下的留到下一批
+        int batchBytes = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (found[i]) {
+                String name = candidates.get(i);
+                if (id != null) {
+                    int size = (data[i] == null ? 0 : data[i].length) + 2 * ShardedWorkQueue.OP_OVERHEAD;
+                    if (!items.isEmpty() && batchBytes + size > queue.getMaxBatchBytes()) {
+                        ArrayDeque<String> names = cached[shard];
+                        for (int j = candidates.size() - 1; j >= i; j--) {
+                            names.addFirst(candidates.get(j));
+                        }
+                        break;
+                    }
+                    batchBytes += size;
+                }
+                String claimPath = id == null ? null : ZKPaths.makePath(queue.getRoot(), ShardedWorkQueue.INFLIGHT,
+                        id + "~" + shard + "~" + name);
+                items.add(new QueueItem(shard, name, data[i], claimPath));
+            }
+        }
+
+        int opsPerItem = id == null ? 1 : 2;
+        while (!items.isEmpty()) {
+            List<CuratorOp> ops = new ArrayList<>(items.size() * opsPerItem);
+            for (QueueItem item : items) {
+                ops.add(client.transactionOp().delete().forPath(ZKPaths.makePath(shardPath, item.getName())));
+                if (id != null) {
+                    ops.add(client.transactionOp().create().forPath(item.getClaimPath(), item.getData()));
+                }
+            }
+            try {
+                client.transaction().forOperations(ops);
+                return items;
+            } catch (KeeperException e) {
+                int index = ShardedWorkQueue.failedIndex(e);
+                if (index < 0) {
+                    throw e;
+                }
+                //被其他消费者认领了
+                items.remove(index / opsPerItem);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 所有分片都为空时注册子节点监听，有分片不为空或者监听触发时返回true
+     */
+    private boolean awaitItems(long timeoutNanos) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        changed = latch;
+        for (int shard = 0; shard < cached.length; shard++) {
+            if (!client.getChildren().usingWatcher(shardWatcher).forPath(queue.shardPath(shard)).isEmpty()) {
+                return true;
+            }
+        }
+        return latch.await(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
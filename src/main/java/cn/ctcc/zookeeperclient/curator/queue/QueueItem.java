@@ -0,0 +1,48 @@
+package cn.ctcc.zookeeperclient.curator.queue;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/25 9:30
+ * @Description: 取出的队列元素，需要确认的消费者处理完后用ack提交
+ * @Modified:
+ * @version: V1.0
+ */
+public class QueueItem {
+
+    private final int shard;
+
+    /**
+     * 元素在分片下的节点名，分片内按它排序
+     */
+    private final String name;
+
+    private final byte[] data;
+
+    /**
+     * 确认模式下的处理中节点路径，否则为null
+     */
+    private final String claimPath;
+
+    QueueItem(int shard, String name, byte[] data, String claimPath) {
+        this.shard = shard;
+        this.name = name;
+        this.data = data;
+        this.claimPath = claimPath;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    String getClaimPath() {
+        return claimPath;
+    }
+}
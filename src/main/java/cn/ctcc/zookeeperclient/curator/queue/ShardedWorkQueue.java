@@ -0,0 +1,230 @@
+package cn.ctcc.zookeeperclient.curator.queue;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.OpResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/25 10:00
+ * @Description: 分片的分布式工作队列--->Curator的DistributedQueue把所有元素放在同一个父节点下，
+ * 每次变化消费者都要getChildren整个列表，积压到10万左右就撑不住了。
+ * 这里元素轮流放到shards个分片父节点(root/shard-i)下，生产者用multi()批量入队；
+ * 消费者每次只列一个分片，并缓存列出的节点名，后续直接从缓存里按顺序认领，缓存用完才重新列(见QueueConsumer)。
+ * 认领也是一次multi()：
+ *      不确认模式：直接删除元素，最多处理一次
+ *      确认模式：删除元素的同时在root/inflight下创建处理中节点，ack时删除；消费者会话失效后由requeueAbandoned放回分片，至少处理一次
+ * 分片之间不保证顺序，同一分片内按入队顺序。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class ShardedWorkQueue {
+
+    static final String SHARD_PREFIX = "shard-";
+
+    static final String ITEM_PREFIX = "item-";
+
+    static final String INFLIGHT = "inflight";
+
+    static final String CONSUMERS = "consumers";
+
+    /**
+     * 每个create操作在multi请求里除数据外的估算开销
+     */
+    static final int OP_OVERHEAD = 128;
+
+    private final CuratorFramework client;
+
+    private final String root;
+
+    private final int shards;
+
+    private final int maxBatchOps;
+
+    private final int maxBatchBytes;
+
+    /**
+     * 下一个入队的分片
+     */
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+
+    /**
+     * @param maxBatchOps 一次multi的最多操作数
+     * @param maxBatchBytes 一次multi的数据总字节数上限，需要小于jute.maxbuffer
+     */
+    public ShardedWorkQueue(CuratorFramework client, String root, int shards, int maxBatchOps, int maxBatchBytes) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards必须大于0: " + shards);
+        }
+        this.client = client;
+        this.root = root;
+        this.shards = shards;
+        this.maxBatchOps = maxBatchOps;
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+
+    /**
+     * 创建分片、处理中和消费者父节点
+     */
+    public ShardedWorkQueue start() throws Exception {
+        for (int i = 0; i < shards; i++) {
+            ensure(shardPath(i));
+        }
+        ensure(ZKPaths.makePath(root, INFLIGHT));
+        ensure(ZKPaths.makePath(root, CONSUMERS));
+        return this;
+    }
+
+    public void enqueue(byte[] data) throws Exception {
+        client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(itemPrefix(next()), data);
+    }
+
+    /**
+     * 批量入队，元素轮流分到各个分片，按maxBatchOps/maxBatchBytes拆成多个multi；
+     * 某一批失败时之前的批次已经入队
+     */
+    public void enqueueAll(List<byte[]> items) throws Exception {
+        List<CuratorOp> batch = new ArrayList<>();
+        int batchBytes = 0;
+        for (byte[] data : items) {
+            int size = (data == null ? 0 : data.length) + OP_OVERHEAD;
+            if (!batch.isEmpty() && (batch.size() >= maxBatchOps || batchBytes + size > maxBatchBytes)) {
+                client.transaction().forOperations(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL)
+                    .forPath(itemPrefix(next()), data));
+            batchBytes += size;
+        }
+        if (!batch.isEmpty()) {
+            client.transaction().forOperations(batch);
+        }
+    }
+
+    /**
+     * 创建消费者，acknowledged为true时取出的元素需要ack
+     */
+    public QueueConsumer newConsumer(boolean acknowledged) throws Exception {
+        String id = null;
+        if (acknowledged) {
+            String path = client.create().withMode(CreateMode.EPHEMERAL_SEQUENTIAL)
+                    .forPath(ZKPaths.makePath(root, CONSUMERS, "c-"), new byte[0]);
+            id = ZKPaths.getNodeFromPath(path);
+        }
+        return new QueueConsumer(this, id);
+    }
+
+    /**
+     * 把会话已经失效的消费者的处理中元素放回原分片，返回放回的个数。
+     * 处理中节点名是consumerId~shard~itemName，消费者的临时节点不存在就说明它已经失效
+     */
+    public int requeueAbandoned() throws Exception {
+        List<String> live = client.getChildren().forPath(ZKPaths.makePath(root, CONSUMERS));
+        String inflightPath = ZKPaths.makePath(root, INFLIGHT);
+        int requeued = 0;
+        for (String claim : client.getChildren().forPath(inflightPath)) {
+            String[] parts = claim.split("~", 3);
+            if (parts.length != 3 || live.contains(parts[0])) {
+                continue;
+            }
+            String claimPath = ZKPaths.makePath(inflightPath, claim);
+            try {
+                byte[] data = client.getData().forPath(claimPath);
+                client.transaction().forOperations(
+                        client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL)
+                                .forPath(itemPrefix(Integer.parseInt(parts[1])), data),
+                        client.transactionOp().delete().forPath(claimPath));
+                requeued++;
+            } catch (KeeperException.NoNodeException e) {
+                //其他进程已经放回
+            }
+        }
+        return requeued;
+    }
+
+    /**
+     * 所有分片中的元素总数(每个分片一次getChildren，只用于监控和测试)
+     */
+    public int size() throws Exception {
+        int size = 0;
+        for (int i = 0; i < shards; i++) {
+            size += client.checkExists().forPath(shardPath(i)).getNumChildren();
+        }
+        return size;
+    }
+
+
+    /**
+     * multi失败时第一个出错的操作下标，没有结果列表时返回-1
+     */
+    static int failedIndex(KeeperException e) {
+        List<OpResult> results = e.getResults();
+        if (results == null) {
+            return -1;
+        }
+        for (int i = 0; i < results.size(); i++) {
+            OpResult result = results.get(i);
+            if (result instanceof OpResult.ErrorResult) {
+                int err = ((OpResult.ErrorResult) result).getErr();
+                if (err != KeeperException.Code.OK.intValue()
+                        && err != KeeperException.Code.RUNTIMEINCONSISTENCY.intValue()) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    CuratorFramework getClient() {
+        return client;
+    }
+
+    String getRoot() {
+        return root;
+    }
+
+    int getShards() {
+        return shards;
+    }
+
+    int getMaxBatchOps() {
+        return maxBatchOps;
+    }
+
+    int getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    String shardPath(int shard) {
+        return ZKPaths.makePath(root, SHARD_PREFIX + shard);
+    }
+
+
+    private String itemPrefix(int shard) {
+        return ZKPaths.makePath(shardPath(shard), ITEM_PREFIX);
+    }
+
+    private int next() {
+        return (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards;
+    }
+
+    private void ensure(String path) throws Exception {
+        try {
+            client.create().creatingParentsIfNeeded().forPath(path, new byte[0]);
+        } catch (KeeperException.NodeExistsException e) {
+            //已经存在
+        }
+    }
+}
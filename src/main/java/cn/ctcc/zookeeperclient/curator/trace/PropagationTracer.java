@@ -0,0 +1,226 @@
+package cn.ctcc.zookeeperclient.curator.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.NodeCacheListener;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 10:00
+ * @Description: 变更传播延迟追踪--->统计一次setData从写入到NodeCache(test09)、TreeCache(test11)监听器触发用了多长时间。
+ * 写入方用write(...)在数据前打上发送时间(见TracedPayload)，监听方用trace(...)包装原有监听器，触发时计算两个延迟：
+ *      端到端延迟：监听器触发时间 - 写入方的发送时间
+ *      提交后延迟：监听器触发时间 - 服务端提交时间(Stat.getMtime())
+ * 两个延迟都按path的前prefixDepth级目录分别记录到HdrHistogram。写入方、服务端和监听方不在同一台机器时结果包含时钟偏差，
+ * 算出的负值按0记录并单独计数。超过lagThresholdMillis的监听器会被记下来，并回调LagHandler(默认打warn日志)。
+ * NodeCache会合并连续的变更，只统计监听器实际看到的版本；没有时间戳的数据直接忽略。
+ * 初始加载不统计：TreeCache忽略INITIALIZED之前的事件，NodeCache忽略服务端提交时间早于追踪开始的版本。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class PropagationTracer {
+
+    /**
+     * 延迟上限1小时，3位有效数字
+     */
+    private static final long MAX_LATENCY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 统计到第几级目录，如2表示/config/app1/key记到/config/app1下
+     */
+    private final int prefixDepth;
+
+    private final long lagThresholdMillis;
+
+    private final ConcurrentHashMap<String, PrefixStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 每个监听器超过阈值的次数
+     */
+    private final ConcurrentHashMap<String, LongAdder> lagging = new ConcurrentHashMap<>();
+
+    private final LongAdder clockSkew = new LongAdder();
+
+    /**
+     * 追踪开始时间，NodeCache里提交时间早于它的版本是初始加载，不统计
+     */
+    private final long startMillis = System.currentTimeMillis();
+
+    private volatile LagHandler lagHandler = (listener, path, latencyMillis) ->
+            log.warn("监听器{}收到{}的变更延迟{}ms", listener, path, latencyMillis);
+
+
+    public PropagationTracer(int prefixDepth, long lagThresholdMillis) {
+        if (prefixDepth <= 0) {
+            throw new IllegalArgumentException("prefixDepth必须大于0: " + prefixDepth);
+        }
+        this.prefixDepth = prefixDepth;
+        this.lagThresholdMillis = lagThresholdMillis;
+    }
+
+
+    /**
+     * 写入带发送时间的数据
+     */
+    public Stat write(CuratorFramework client, String path, byte[] data) throws Exception {
+        return client.setData().forPath(path, TracedPayload.stamp(data));
+    }
+
+    /**
+     * 包装NodeCache的监听器，先统计再调用原监听器
+     */
+    public NodeCacheListener trace(String listenerName, NodeCache nodeCache, NodeCacheListener delegate) {
+        return () -> {
+            ChildData childData = nodeCache.getCurrentData();
+            //初始加载看到的是追踪开始前写入的版本，不是传播延迟
+            if (childData != null && childData.getStat() != null && childData.getStat().getMtime() >= startMillis) {
+                record(listenerName, childData);
+            }
+            delegate.nodeChanged();
+        };
+    }
+
+    /**
+     * 包装TreeCache的监听器，只统计INITIALIZED之后的NODE_ADDED和NODE_UPDATED(之前的是初始同步)，需要TreeCache缓存数据
+     */
+    public TreeCacheListener trace(String listenerName, TreeCacheListener delegate) {
+        AtomicBoolean initialized = new AtomicBoolean();
+        return (client, event) -> {
+            TreeCacheEvent.Type type = event.getType();
+            if (type == TreeCacheEvent.Type.INITIALIZED) {
+                initialized.set(true);
+            } else if (initialized.get() && (type == TreeCacheEvent.Type.NODE_ADDED || type == TreeCacheEvent.Type.NODE_UPDATED)) {
+                record(listenerName, event.getData());
+            }
+            delegate.childEvent(client, event);
+        };
+    }
+
+    /**
+     * 监听器收到一个版本的数据时调用
+     */
+    public void record(String listenerName, ChildData childData) {
+        if (childData == null || childData.getStat() == null) {
+            return;
+        }
+        long sendTime = TracedPayload.sendTimeMillis(childData.getData());
+        if (sendTime < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long endToEnd = now - sendTime;
+        long sinceCommit = now - childData.getStat().getMtime();
+        if (endToEnd < 0 || sinceCommit < 0) {
+            clockSkew.increment();
+        }
+        PrefixStats prefixStats = stats.computeIfAbsent(prefixOf(childData.getPath()), p -> new PrefixStats());
+        prefixStats.endToEnd.recordValue(clamp(endToEnd));
+        prefixStats.sinceCommit.recordValue(clamp(sinceCommit));
+
+        if (endToEnd > lagThresholdMillis) {
+            lagging.computeIfAbsent(listenerName, l -> new LongAdder()).increment();
+            lagHandler.onLag(listenerName, childData.getPath(), endToEnd);
+        }
+    }
+
+    public void setLagHandler(LagHandler lagHandler) {
+        this.lagHandler = lagHandler;
+    }
+
+    /**
+     * 某个前缀的端到端延迟(毫秒)，返回副本
+     */
+    public Histogram getEndToEnd(String prefix) {
+        PrefixStats prefixStats = stats.get(prefix);
+        return prefixStats == null ? null : prefixStats.endToEnd.copy();
+    }
+
+    /**
+     * 某个前缀的提交后延迟(毫秒)，返回副本
+     */
+    public Histogram getSinceCommit(String prefix) {
+        PrefixStats prefixStats = stats.get(prefix);
+        return prefixStats == null ? null : prefixStats.sinceCommit.copy();
+    }
+
+    /**
+     * 超过阈值的监听器及次数
+     */
+    public Map<String, Long> getLaggingListeners() {
+        Map<String, Long> result = new TreeMap<>();
+        lagging.forEach((listener, count) -> result.put(listener, count.sum()));
+        return result;
+    }
+
+    /**
+     * 出现负延迟(时钟偏差)的次数
+     */
+    public long getClockSkewCount() {
+        return clockSkew.sum();
+    }
+
+    /**
+     * 按前缀打印p50/p99/p99.9/max
+     */
+    public void printReport(PrintStream out) {
+        out.printf("%-30s %8s %22s %22s%n", "prefix", "count", "end-to-end p50/p99/max", "since-commit p50/p99/max");
+        new TreeMap<>(stats).forEach((prefix, prefixStats) -> {
+            Histogram endToEnd = prefixStats.endToEnd.copy();
+            Histogram sinceCommit = prefixStats.sinceCommit.copy();
+            out.printf("%-30s %8d %8d/%6d/%6d %8d/%6d/%6d%n", prefix, endToEnd.getTotalCount(),
+                    endToEnd.getValueAtPercentile(50), endToEnd.getValueAtPercentile(99), endToEnd.getMaxValue(),
+                    sinceCommit.getValueAtPercentile(50), sinceCommit.getValueAtPercentile(99), sinceCommit.getMaxValue());
+        });
+        out.println("超过" + lagThresholdMillis + "ms的监听器: " + getLaggingListeners());
+        out.println("时钟偏差次数: " + getClockSkewCount());
+    }
+
+
+    private String prefixOf(String path) {
+        int index = 0;
+        for (int depth = 0; depth < prefixDepth; depth++) {
+            index = path.indexOf('/', index + 1);
+            if (index < 0) {
+                return path;
+            }
+        }
+        return path.substring(0, index);
+    }
+
+    private static long clamp(long latency) {
+        return latency < 0 ? 0 : Math.min(latency, MAX_LATENCY_MILLIS);
+    }
+
+
+    /**
+     * 监听器延迟超过阈值时的回调，在监听器线程里执行
+     */
+    public interface LagHandler {
+
+        void onLag(String listenerName, String path, long latencyMillis);
+    }
+
+
+    private static final class PrefixStats {
+
+        private final Histogram endToEnd = new ConcurrentHistogram(MAX_LATENCY_MILLIS, 3);
+
+        private final Histogram sinceCommit = new ConcurrentHistogram(MAX_LATENCY_MILLIS, 3);
+    }
+}
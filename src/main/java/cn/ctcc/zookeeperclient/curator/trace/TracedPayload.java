@@ -0,0 +1,63 @@
+package cn.ctcc.zookeeperclient.curator.trace;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 9:30
+ * @Description: 带发送时间戳的节点数据：4字节魔数 + 8字节发送端System.currentTimeMillis() + 原始数据。
+ * 只应该用在需要追踪传播延迟的节点上，读取方用strip取回原始数据；没有魔数的数据原样返回
+ * @Modified:
+ * @version: V1.0
+ */
+public final class TracedPayload {
+
+    /**
+     * "ZKT1"
+     */
+    static final int MAGIC = 0x5A4B5431;
+
+    static final int HEADER_LENGTH = 4 + 8;
+
+    private TracedPayload() {
+    }
+
+
+    /**
+     * 在数据前加上当前时间
+     */
+    public static byte[] stamp(byte[] data) {
+        byte[] payload = data == null ? new byte[0] : data;
+        return ByteBuffer.allocate(HEADER_LENGTH + payload.length)
+                .putInt(MAGIC)
+                .putLong(System.currentTimeMillis())
+                .put(payload)
+                .array();
+    }
+
+    /**
+     * 发送时间，数据没有打时间戳时返回-1
+     */
+    public static long sendTimeMillis(byte[] data) {
+        if (!isStamped(data)) {
+            return -1;
+        }
+        return ByteBuffer.wrap(data, 4, 8).getLong();
+    }
+
+    /**
+     * 去掉时间戳头，返回原始数据
+     */
+    public static byte[] strip(byte[] data) {
+        if (!isStamped(data)) {
+            return data;
+        }
+        byte[] payload = new byte[data.length - HEADER_LENGTH];
+        System.arraycopy(data, HEADER_LENGTH, payload, 0, payload.length);
+        return payload;
+    }
+
+    public static boolean isStamped(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && ByteBuffer.wrap(data).getInt() == MAGIC;
+    }
+}
@@ -0,0 +1,89 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 11:30
+ * @Description: 基于curator-x-discovery的服务发现：start()时注册本应用的实例(注册节点是临时节点，会话重建后ServiceDiscovery会重新注册)，
+ * close()时注销；pool(...)按服务名创建带本地缓存的实例池，同一个服务只创建一次
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class DiscoveryManager implements Closeable {
+
+    private final ServiceDiscovery<InstanceDetails> discovery;
+
+    private final ServiceInstance<InstanceDetails> self;
+
+    private final ConcurrentHashMap<String, ServicePool> pools = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param self 本应用的实例，为null时只发现不注册
+     */
+    public DiscoveryManager(CuratorFramework client, String basePath, ServiceInstance<InstanceDetails> self) {
+        ServiceDiscoveryBuilder<InstanceDetails> builder = ServiceDiscoveryBuilder.builder(InstanceDetails.class)
+                .client(client)
+                .basePath(basePath)
+                .serializer(new JsonInstanceSerializer<>(InstanceDetails.class));
+        if (self != null) {
+            builder.thisInstance(self);
+        }
+        this.discovery = builder.build();
+        this.self = self;
+    }
+
+
+    public void start() throws Exception {
+        discovery.start();
+        if (self != null) {
+            log.info("已注册服务实例: {} {}:{}", self.getName(), self.getAddress(), self.getPort());
+        }
+    }
+
+    /**
+     * 某个服务的实例池，第一次调用时启动并加载实例列表；同一个服务以第一次传入的策略为准
+     */
+    public ServicePool pool(String serviceName, SelectionStrategy strategy) {
+        return pools.computeIfAbsent(serviceName, name -> {
+            ServicePool pool = new ServicePool(discovery, name, strategy);
+            try {
+                pool.start();
+            } catch (Exception e) {
+                throw new IllegalStateException("启动服务" + name + "的实例池失败", e);
+            }
+            return pool;
+        });
+    }
+
+    public ServiceDiscovery<InstanceDetails> getServiceDiscovery() {
+        return discovery;
+    }
+
+    @Override
+    public void close() {
+        for (ServicePool pool : pools.values()) {
+            try {
+                pool.close();
+            } catch (Exception e) {
+                log.warn("关闭服务{}的实例池失败", pool.getServiceName(), e);
+            }
+        }
+        pools.clear();
+        try {
+            discovery.close();
+        } catch (Exception e) {
+            log.warn("关闭服务发现失败", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 9:40
+ * @Description: 可选择的服务实例，带本地未完成请求计数。
+ * 调用方选中后begin()，请求结束后end()，LeastOutstandingStrategy和PowerOfTwoChoicesStrategy据此选择。
+ * 实例列表刷新时同一个id的Endpoint会被沿用，计数不会丢
+ * @Modified:
+ * @version: V1.0
+ */
+public final class Endpoint {
+
+    private final ServiceInstance<InstanceDetails> instance;
+
+    private final String zone;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+
+    Endpoint(ServiceInstance<InstanceDetails> instance) {
+        this.instance = instance;
+        InstanceDetails details = instance.getPayload();
+        this.zone = details == null ? null : details.getZone();
+    }
+
+
+    public void begin() {
+        outstanding.incrementAndGet();
+    }
+
+    public void end() {
+        outstanding.decrementAndGet();
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public ServiceInstance<InstanceDetails> getInstance() {
+        return instance;
+    }
+
+    public String getId() {
+        return instance.getId();
+    }
+
+    public String getAddress() {
+        return instance.getAddress();
+    }
+
+    public Integer getPort() {
+        return instance.getPort();
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    @Override
+    public String toString() {
+        return instance.getAddress() + ":" + instance.getPort() + "(" + zone + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 9:30
+ * @Description: 服务实例的附加信息，作为ServiceInstance的payload按JSON保存在注册节点上
+ * @Modified:
+ * @version: V1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceDetails {
+
+    /**
+     * 实例所在的可用区，ZoneAwareStrategy优先选择同区实例
+     */
+    private String zone;
+}
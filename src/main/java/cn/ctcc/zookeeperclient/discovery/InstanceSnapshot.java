@@ -0,0 +1,100 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 9:50
+ * @Description: 某个服务在某一时刻的实例列表，创建后不再修改。
+ * 按id排序的全部实例和按可用区分组的实例都在刷新时算好，选择时只读数组，不分配对象也不加锁
+ * @Modified:
+ * @version: V1.0
+ */
+public final class InstanceSnapshot {
+
+    private static final Endpoint[] NONE = new Endpoint[0];
+
+    public static final InstanceSnapshot EMPTY = new InstanceSnapshot(NONE, Collections.emptyMap(), Collections.emptyMap());
+
+    private final Endpoint[] all;
+
+    private final Map<String, Endpoint[]> byZone;
+
+    private final Map<String, Endpoint> byId;
+
+
+    private InstanceSnapshot(Endpoint[] all, Map<String, Endpoint[]> byZone, Map<String, Endpoint> byId) {
+        this.all = all;
+        this.byZone = byZone;
+        this.byId = byId;
+    }
+
+
+    /**
+     * 按新的实例列表创建快照，previous里已有的实例沿用原来的Endpoint
+     */
+    public static InstanceSnapshot of(List<ServiceInstance<InstanceDetails>> instances, InstanceSnapshot previous) {
+        List<ServiceInstance<InstanceDetails>> sorted = new ArrayList<>(instances);
+        sorted.sort(Comparator.comparing(ServiceInstance::getId));
+
+        Endpoint[] all = new Endpoint[sorted.size()];
+        Map<String, Endpoint> byId = new HashMap<>();
+        Map<String, List<Endpoint>> zones = new HashMap<>();
+        for (int i = 0; i < all.length; i++) {
+            ServiceInstance<InstanceDetails> instance = sorted.get(i);
+            Endpoint endpoint = previous.byId.get(instance.getId());
+            if (endpoint == null || !sameRegistration(endpoint.getInstance(), instance)) {
+                endpoint = new Endpoint(instance);
+            }
+            all[i] = endpoint;
+            byId.put(endpoint.getId(), endpoint);
+            if (endpoint.getZone() != null) {
+                zones.computeIfAbsent(endpoint.getZone(), z -> new ArrayList<>()).add(endpoint);
+            }
+        }
+        Map<String, Endpoint[]> byZone = new HashMap<>();
+        zones.forEach((zone, endpoints) -> byZone.put(zone, endpoints.toArray(NONE)));
+        return new InstanceSnapshot(all, byZone, byId);
+    }
+
+    /**
+     * 全部实例，调用方不能修改
+     */
+    public Endpoint[] getAll() {
+        return all;
+    }
+
+    /**
+     * 某个可用区的实例，没有时返回空数组
+     */
+    public Endpoint[] getZone(String zone) {
+        Endpoint[] endpoints = zone == null ? null : byZone.get(zone);
+        return endpoints == null ? NONE : endpoints;
+    }
+
+    public Endpoint get(String id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return all.length;
+    }
+
+
+    /**
+     * 注册时间、地址、端口都没变才沿用，否则当作新实例
+     */
+    private static boolean sameRegistration(ServiceInstance<InstanceDetails> a, ServiceInstance<InstanceDetails> b) {
+        return a.getRegistrationTimeUTC() == b.getRegistrationTimeUTC()
+                && Objects.equals(a.getAddress(), b.getAddress())
+                && Objects.equals(a.getPort(), b.getPort());
+    }
+}
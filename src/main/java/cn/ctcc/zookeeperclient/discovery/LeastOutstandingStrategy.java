@@ -0,0 +1,33 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 10:20
+ * @Description: 选本地未完成请求最少的实例，每次从轮转的起点开始扫描，计数相同的实例轮流被选中。
+ * 扫描全部候选，实例很多时用PowerOfTwoChoicesStrategy
+ * @Modified:
+ * @version: V1.0
+ */
+public class LeastOutstandingStrategy implements SelectionStrategy {
+
+    private final AtomicInteger offset = new AtomicInteger();
+
+    @Override
+    public Endpoint select(Endpoint[] candidates) {
+        int length = candidates.length;
+        int start = (offset.getAndIncrement() & Integer.MAX_VALUE) % length;
+        Endpoint best = candidates[start];
+        int min = best.getOutstanding();
+        for (int i = 1; i < length && min > 0; i++) {
+            Endpoint candidate = candidates[(start + i) % length];
+            int outstanding = candidate.getOutstanding();
+            if (outstanding < min) {
+                best = candidate;
+                min = outstanding;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,30 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 10:30
+ * @Description: 随机取两个不同的实例，选未完成请求少的那个，O(1)且负载接近最少请求
+ * @Modified:
+ * @version: V1.0
+ */
+public class PowerOfTwoChoicesStrategy implements SelectionStrategy {
+
+    @Override
+    public Endpoint select(Endpoint[] candidates) {
+        int length = candidates.length;
+        if (length == 1) {
+            return candidates[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(length);
+        int b = random.nextInt(length - 1);
+        if (b >= a) {
+            b++;
+        }
+        Endpoint first = candidates[a];
+        Endpoint second = candidates[b];
+        return first.getOutstanding() <= second.getOutstanding() ? first : second;
+    }
+}
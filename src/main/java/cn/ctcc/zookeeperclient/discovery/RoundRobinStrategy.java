@@ -0,0 +1,20 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 10:10
+ * @Description: 轮询
+ * @Modified:
+ * @version: V1.0
+ */
+public class RoundRobinStrategy implements SelectionStrategy {
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public Endpoint select(Endpoint[] candidates) {
+        return candidates[(next.getAndIncrement() & Integer.MAX_VALUE) % candidates.length];
+    }
+}
@@ -0,0 +1,24 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 10:00
+ * @Description: 实例选择策略。实现在选择路径上不能分配对象、不能加锁，会被多个线程同时调用
+ * @Modified:
+ * @version: V1.0
+ */
+public interface SelectionStrategy {
+
+    /**
+     * 从非空的候选数组里选一个
+     */
+    Endpoint select(Endpoint[] candidates);
+
+    /**
+     * 从快照里选一个，没有实例时返回null
+     */
+    default Endpoint select(InstanceSnapshot snapshot) {
+        Endpoint[] all = snapshot.getAll();
+        return all.length == 0 ? null : select(all);
+    }
+}
@@ -0,0 +1,104 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.x.discovery.ServiceCache;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.details.ServiceCacheListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 11:00
+ * @Description: 某个服务的本地实例池。用ServiceCache监听服务下的实例节点，有变化时重建InstanceSnapshot，
+ * select()只读volatile快照再交给SelectionStrategy，每次RPC选择实例都不访问集群
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class ServicePool implements Closeable, ServiceCacheListener {
+
+    private final String serviceName;
+
+    private final ServiceCache<InstanceDetails> cache;
+
+    private final SelectionStrategy strategy;
+
+    private volatile InstanceSnapshot snapshot = InstanceSnapshot.EMPTY;
+
+    /**
+     * 快照版本，每次重建加1
+     */
+    private final AtomicLong version = new AtomicLong();
+
+
+    ServicePool(ServiceDiscovery<InstanceDetails> discovery, String serviceName, SelectionStrategy strategy) {
+        this.serviceName = serviceName;
+        this.strategy = strategy;
+        this.cache = discovery.serviceCacheBuilder().name(serviceName).build();
+    }
+
+
+    /**
+     * 启动并等待初始实例列表加载完成
+     */
+    void start() throws Exception {
+        cache.addListener(this);
+        cache.start();
+        rebuild();
+    }
+
+    /**
+     * 选择一个实例，没有实例时返回null
+     */
+    public Endpoint select() {
+        return strategy.select(snapshot);
+    }
+
+    public InstanceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    @Override
+    public void cacheChanged() {
+        rebuild();
+    }
+
+    /**
+     * 断线期间保留最后一次的实例列表，重连后ServiceCache会重新同步并触发cacheChanged
+     */
+    @Override
+    public void stateChanged(CuratorFramework client, ConnectionState newState) {
+        if (!newState.isConnected()) {
+            log.warn("服务{}的实例监听连接状态: {}，继续使用缓存的{}个实例", serviceName, newState, snapshot.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.removeListener(this);
+        cache.close();
+    }
+
+
+    private synchronized void rebuild() {
+        snapshot = InstanceSnapshot.of(cache.getInstances(), snapshot);
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,36 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 10:40
+ * @Description: 同可用区优先：本区实例不少于minLocal个时只在本区里选，否则在全部实例里选，具体怎么选交给delegate
+ * @Modified:
+ * @version: V1.0
+ */
+public class ZoneAwareStrategy implements SelectionStrategy {
+
+    private final String localZone;
+
+    private final int minLocal;
+
+    private final SelectionStrategy delegate;
+
+
+    public ZoneAwareStrategy(String localZone, int minLocal, SelectionStrategy delegate) {
+        this.localZone = localZone;
+        this.minLocal = Math.max(1, minLocal);
+        this.delegate = delegate;
+    }
+
+
+    @Override
+    public Endpoint select(Endpoint[] candidates) {
+        return delegate.select(candidates);
+    }
+
+    @Override
+    public Endpoint select(InstanceSnapshot snapshot) {
+        Endpoint[] local = snapshot.getZone(localZone);
+        return local.length >= minLocal ? delegate.select(local) : delegate.select(snapshot);
+    }
+}
@@ -0,0 +1,295 @@
+package cn.ctcc.zookeeperclient.loadgen;
+
+import cn.ctcc.zookeeperclient.config.ZookeeperProperties;
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.springframework.boot.CommandLineRunner;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/20 14:00
+ * @Description: 压测工具--->以前只能在ZookeeperClientAPITest.main里打开某一行看System.out。
+ * 设置zookeeper.loadgen.enabled=true后，应用启动完成时按配置的读写比例、key个数、数据大小、速率和时长压测，
+ * 每种操作的延迟记录在HdrHistogram里，定期和结束时打印p50/p99/p99.9/max和吞吐。
+ * 开环模式(targetRate>0)按预定的发送时刻计时，发送被背压推迟的时间也算进延迟，即修正了coordinated omission；
+ * 闭环模式下每个线程等上一个请求返回再发下一个，记录的是服务时间。
+ * @Modified:
+ * @version: V1.0
+ */
+public class LoadGenerator implements CommandLineRunner {
+
+    /**
+     * 延迟上限1分钟，3位有效数字
+     */
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int BUCKETS = 100;
+
+    private final AsyncZkClient asyncZkClient;
+
+    private final ZookeeperProperties.LoadGen config;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final int[] weights;
+
+    private final int totalWeight;
+
+    private byte[] payload;
+
+
+    public LoadGenerator(AsyncZkClient asyncZkClient, ZookeeperProperties.LoadGen config) {
+        this.asyncZkClient = asyncZkClient;
+        this.config = config;
+        this.weights = new int[]{config.getReadWeight(), config.getWriteWeight(), config.getExistsWeight(), config.getChildrenWeight()};
+        int sum = 0;
+        for (int weight : weights) {
+            sum += weight;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("操作权重之和必须大于0");
+        }
+        this.totalWeight = sum;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_NANOS, 3));
+            totals.put(operation, new Histogram(MAX_LATENCY_NANOS, 3));
+        }
+    }
+
+
+    @Override
+    public void run(String... args) throws Exception {
+        payload = new byte[config.getPayloadSize()];
+        prepare();
+
+        System.out.printf("压测开始: %s, keySpace=%d, payload=%dB, duration=%ds%n",
+                config.getTargetRate() > 0 ? "开环 targetRate=" + config.getTargetRate() + "/s" : "闭环 concurrency=" + config.getConcurrency(),
+                config.getKeySpace(), config.getPayloadSize(), config.getDurationSeconds());
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        Thread reporter = startReporter(start);
+        if (config.getTargetRate() > 0) {
+            runOpenLoop(end);
+        } else {
+            runClosedLoop(end);
+        }
+        reporter.interrupt();
+        reporter.join();
+
+        long elapsed = System.nanoTime() - start;
+        collect();
+        System.out.println("==================================压测结果==================================");
+        print(totals, elapsed);
+        System.out.println("errors=" + errors.sum());
+    }
+
+
+    /**
+     * 按固定速率发送，延迟从预定发送时刻算起
+     */
+    private void runOpenLoop(long end) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.getTargetRate();
+        List<CompletableFuture<?>> outstanding = new ArrayList<>();
+        long next = System.nanoTime();
+        int sent = 0;
+        while (next < end) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            outstanding.add(issue(next));
+            next += interval;
+            if ((++sent & 1023) == 0) {
+                outstanding.removeIf(CompletableFuture::isDone);
+            }
+        }
+        CompletableFuture.allOf(outstanding.toArray(new CompletableFuture[0])).handle((v, e) -> null).join();
+    }
+
+    /**
+     * concurrency个线程各自循环：发请求、等结果
+     */
+    private void runClosedLoop(long end) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(config.getConcurrency());
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        issue(System.nanoTime()).handle((v, e) -> null).join();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "zk-loadgen-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+    }
+
+    /**
+     * 按权重随机选一种操作发出，startNanos是计时起点
+     */
+    private CompletableFuture<?> issue(long startNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pick(random.nextInt(totalWeight));
+        int key = random.nextInt(config.getKeySpace());
+        CompletableFuture<?> future;
+        switch (operation) {
+            case READ:
+                future = asyncZkClient.getData(keyPath(key));
+                break;
+            case WRITE:
+                future = asyncZkClient.setData(keyPath(key), payload, -1);
+                break;
+            case EXISTS:
+                future = asyncZkClient.exists(keyPath(key));
+                break;
+            default:
+                future = asyncZkClient.getChildren(bucketPath(key % BUCKETS));
+                break;
+        }
+        Recorder recorder = recorders.get(operation);
+        return future.whenComplete((v, error) -> {
+            if (error != null) {
+                errors.increment();
+            } else {
+                recorder.recordValue(Math.min(System.nanoTime() - startNanos, MAX_LATENCY_NANOS));
+            }
+        });
+    }
+
+    private Operation pick(int value) {
+        for (int i = 0; i < weights.length; i++) {
+            if (value < weights[i]) {
+                return Operation.values()[i];
+            }
+            value -= weights[i];
+        }
+        return Operation.CHILDREN;
+    }
+
+    /**
+     * 创建根节点、分桶节点和所有key
+     */
+    private void prepare() {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        ignoreExists(asyncZkClient.create(config.getRoot(), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT)).join();
+        for (int i = 0; i < BUCKETS; i++) {
+            futures.add(ignoreExists(asyncZkClient.create(bucketPath(i), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        futures.clear();
+        for (int i = 0; i < config.getKeySpace(); i++) {
+            futures.add(ignoreExists(asyncZkClient.create(keyPath(i), payload, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static CompletableFuture<?> ignoreExists(CompletableFuture<?> future) {
+        return future.handle((v, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause != null && !(cause instanceof KeeperException.NodeExistsException)) {
+                throw new CompletionException(cause);
+            }
+            return null;
+        });
+    }
+
+    private String bucketPath(int bucket) {
+        return config.getRoot() + "/b" + bucket;
+    }
+
+    private String keyPath(int key) {
+        return bucketPath(key % BUCKETS) + "/k" + key;
+    }
+
+    private Thread startReporter(long start) {
+        Thread reporter = new Thread(() -> {
+            long intervalNanos = TimeUnit.SECONDS.toNanos(config.getReportIntervalSeconds());
+            long last = start;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+                    long now = System.nanoTime();
+                    Map<Operation, Histogram> interval = collect();
+                    System.out.printf("-------------------------- %ds --------------------------%n",
+                            TimeUnit.NANOSECONDS.toSeconds(now - start));
+                    print(interval, now - last);
+                    last = now;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "zk-loadgen-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+        return reporter;
+    }
+
+    /**
+     * 取出各操作这段时间的直方图，并累加到总计
+     */
+    private synchronized Map<Operation, Histogram> collect() {
+        Map<Operation, Histogram> interval = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            totals.get(operation).add(histogram);
+            interval.put(operation, histogram);
+        }
+        return interval;
+    }
+
+    private static void print(Map<Operation, Histogram> histograms, long elapsedNanos) {
+        Histogram all = new Histogram(MAX_LATENCY_NANOS, 3);
+        System.out.printf("%-9s %10s %12s %10s %10s %10s %10s%n", "op", "count", "ops/sec", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            all.add(histogram);
+            printLine(entry.getKey().name(), histogram, elapsedNanos);
+        }
+        printLine("TOTAL", all, elapsedNanos);
+    }
+
+    private static void printLine(String name, Histogram histogram, long elapsedNanos) {
+        long count = histogram.getTotalCount();
+        System.out.printf("%-9s %10d %12.1f %10.3f %10.3f %10.3f %10.3f%n", name, count,
+                count * 1e9 / Math.max(elapsedNanos, 1),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+    }
+
+
+    private enum Operation {
+
+        READ,
+
+        WRITE,
+
+        EXISTS,
+
+        CHILDREN
+    }
+}
@@ -0,0 +1,193 @@
+package cn.ctcc.zookeeperclient.metrics;
+
+import cn.ctcc.zookeeperclient.curator.binding.TypedValueCache;
+import cn.ctcc.zookeeperclient.curator.cache.CompactTreeCache;
+import cn.ctcc.zookeeperclient.curator.cache.LazyDataCache;
+import cn.ctcc.zookeeperclient.zkclient.cache.ZNodeDataCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/21 11:30
+ * @Description: 各种缓存的监控，cache标签是调用方给的名字：
+ *      zookeeper.cache.entries：缓存的节点数
+ *      zookeeper.cache.events：监听器收到的事件次数，按事件类型打tag，事件速率由监控系统按计数求导
+ *      ZNodeDataCache/LazyDataCache额外有hits、misses、evictions和字节数
+ *      TypedValueCache有hits、解码耗时(zookeeper.cache.decode)和解码失败次数
+ * 事件计数器在注册时按枚举全部建好，监听器里只做一次EnumMap查找和一次累加。
+ * TreeCache没有提供节点总数，按NODE_ADDED/NODE_REMOVED事件自己维护；其余缓存的条目数在拉取指标时才计算。
+ * @Modified:
+ * @version: V1.0
+ */
+public final class CacheMetrics {
+
+    private static final String ENTRIES = "zookeeper.cache.entries";
+
+    private static final String EVENTS = "zookeeper.cache.events";
+
+    private CacheMetrics() {
+    }
+
+
+    /**
+     * NodeCache：条目数是0或1，事件只有nodeChanged一种
+     */
+    public static void monitor(MeterRegistry registry, String name, NodeCache cache) {
+        Gauge.builder(ENTRIES, cache, c -> c.getCurrentData() == null ? 0 : 1)
+                .description("缓存的节点数")
+                .tags("cache", name, "type", "NodeCache")
+                .register(registry);
+        Counter changed = eventCounter(registry, name, "NodeCache", "NODE_CHANGED");
+        cache.getListenable().addListener(changed::increment);
+    }
+
+    /**
+     * PathChildrenCache：条目数取自getCurrentData()，拉取时复制一次子节点列表
+     */
+    public static void monitor(MeterRegistry registry, String name, PathChildrenCache cache) {
+        Gauge.builder(ENTRIES, cache, c -> c.getCurrentData().size())
+                .description("缓存的节点数")
+                .tags("cache", name, "type", "PathChildrenCache")
+                .register(registry);
+        Map<PathChildrenCacheEvent.Type, Counter> counters = new EnumMap<>(PathChildrenCacheEvent.Type.class);
+        for (PathChildrenCacheEvent.Type type : PathChildrenCacheEvent.Type.values()) {
+            counters.put(type, eventCounter(registry, name, "PathChildrenCache", type.name()));
+        }
+        cache.getListenable().addListener((client, event) -> counters.get(event.getType()).increment());
+    }
+
+    /**
+     * TreeCache：需要在start()之前调用，否则初始同步的NODE_ADDED统计不到
+     */
+    public static void monitor(MeterRegistry registry, String name, TreeCache cache) {
+        AtomicLong entries = new AtomicLong();
+        Gauge.builder(ENTRIES, entries, AtomicLong::get)
+                .description("缓存的节点数")
+                .tags("cache", name, "type", "TreeCache")
+                .register(registry);
+        cache.getListenable().addListener(treeListener(registry, name, "TreeCache", entries));
+    }
+
+    /**
+     * CompactTreeCache：条目数直接取size()，另外统计堆外数据字节数和LAZY模式的数据缓存
+     */
+    public static void monitor(MeterRegistry registry, String name, CompactTreeCache cache) {
+        Gauge.builder(ENTRIES, cache, CompactTreeCache::size)
+                .description("缓存的节点数")
+                .tags("cache", name, "type", "CompactTreeCache")
+                .register(registry);
+        Gauge.builder("zookeeper.cache.offheap.bytes", cache, CompactTreeCache::getOffHeapBytes)
+                .description("堆外数据占用的字节数")
+                .tags("cache", name, "type", "CompactTreeCache")
+                .register(registry);
+        cache.addListener(treeListener(registry, name, "CompactTreeCache", null));
+        LazyDataCache lazy = cache.getLazyDataCache();
+        if (lazy != null) {
+            String lazyName = name + ".lazy";
+            Gauge.builder("zookeeper.cache.bytes", lazy, LazyDataCache::getCurrentBytes)
+                    .tags("cache", lazyName, "type", "LazyDataCache")
+                    .register(registry);
+            FunctionCounter.builder("zookeeper.cache.hits", lazy, LazyDataCache::getHits)
+                    .tags("cache", lazyName, "type", "LazyDataCache")
+                    .register(registry);
+            FunctionCounter.builder("zookeeper.cache.misses", lazy, LazyDataCache::getMisses)
+                    .tags("cache", lazyName, "type", "LazyDataCache")
+                    .register(registry);
+            FunctionCounter.builder("zookeeper.cache.evictions", lazy, LazyDataCache::getEvictions)
+                    .tags("cache", lazyName, "type", "LazyDataCache")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * ZNodeDataCache：计数器本来就有，这里只是暴露出去
+     */
+    public static void monitor(MeterRegistry registry, String name, ZNodeDataCache cache) {
+        String type = "ZNodeDataCache";
+        Gauge.builder(ENTRIES, cache, ZNodeDataCache::size)
+                .description("缓存的节点数")
+                .tags("cache", name, "type", type)
+                .register(registry);
+        Gauge.builder("zookeeper.cache.bytes", cache, ZNodeDataCache::getCurrentBytes)
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.hits", cache, ZNodeDataCache::getHits)
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.misses", cache, ZNodeDataCache::getMisses)
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.evictions", cache, ZNodeDataCache::getEvictions)
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.invalidations", cache, ZNodeDataCache::getInvalidations)
+                .tags("cache", name, "type", type)
+                .register(registry);
+    }
+
+
+    /**
+     * TypedValueCache：解码次数和总耗时用FunctionTimer暴露，平均解码耗时由监控系统计算
+     */
+    public static void monitor(MeterRegistry registry, String name, TypedValueCache cache) {
+        String type = "TypedValueCache";
+        Gauge.builder(ENTRIES, cache, TypedValueCache::size)
+                .description("缓存的节点数")
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.hits", cache, TypedValueCache::getHits)
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionTimer.builder("zookeeper.cache.decode", cache, TypedValueCache::getDecodes,
+                TypedValueCache::getDecodeNanos, TimeUnit.NANOSECONDS)
+                .description("解码次数和耗时")
+                .tags("cache", name, "type", type)
+                .register(registry);
+        FunctionCounter.builder("zookeeper.cache.decode.errors", cache, TypedValueCache::getDecodeErrors)
+                .tags("cache", name, "type", type)
+                .register(registry);
+    }
+
+    /**
+     * entries不为null时按事件维护节点数
+     */
+    private static TreeCacheListener treeListener(MeterRegistry registry, String name, String type, AtomicLong entries) {
+        Map<TreeCacheEvent.Type, Counter> counters = new EnumMap<>(TreeCacheEvent.Type.class);
+        for (TreeCacheEvent.Type eventType : TreeCacheEvent.Type.values()) {
+            counters.put(eventType, eventCounter(registry, name, type, eventType.name()));
+        }
+        return (client, event) -> {
+            TreeCacheEvent.Type eventType = event.getType();
+            counters.get(eventType).increment();
+            if (entries != null) {
+                if (eventType == TreeCacheEvent.Type.NODE_ADDED) {
+                    entries.incrementAndGet();
+                } else if (eventType == TreeCacheEvent.Type.NODE_REMOVED) {
+                    entries.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String name, String type, String event) {
+        return Counter.builder(EVENTS)
+                .description("缓存监听器收到的事件次数")
+                .tags("cache", name, "type", type, "event", event)
+                .register(registry);
+    }
+}
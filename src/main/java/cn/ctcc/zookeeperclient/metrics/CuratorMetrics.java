@@ -0,0 +1,156 @@
+package cn.ctcc.zookeeperclient.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.curator.drivers.AdvancedTracerDriver;
+import org.apache.curator.drivers.EventTrace;
+import org.apache.curator.drivers.OperationTrace;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/21 11:00
+ * @Description: CuratorFramework的监控，通过bind(client)挂到客户端上：
+ *      zookeeper.client.requests：每个forPath调用的耗时(Curator的OperationTrace)，operation取自构建器名，
+ *          如CreateBuilderImpl-Foreground记为create，后台调用记为create.background
+ *      zookeeper.client.retries：RetryLoop的重试次数(ExponentialBackoffRetry等策略)，outcome=allowed/disallowed
+ *      zookeeper.client.events：Curator内部的其他事件计数
+ *      zookeeper.client.connection.state：SUSPENDED/LOST/RECONNECTED等状态切换次数，以及当前是否已连接
+ * Curator只在请求结束时通知TracerDriver，所以Curator这一侧没有未完成请求数，原生客户端的见ZkClientMetrics。
+ * 一个CuratorMetrics可以绑定多个客户端，指标合并统计。
+ * @Modified:
+ * @version: V1.0
+ */
+public class CuratorMetrics extends AdvancedTracerDriver implements ConnectionStateListener {
+
+    private static final String RETRIES_ALLOWED = "retries-allowed";
+
+    private static final String RETRIES_DISALLOWED = "retries-disallowed";
+
+    private final MeterRegistry registry;
+
+    private final ZkRequestTimers timers;
+
+    private final Counter retriesAllowed;
+
+    private final Counter retriesDisallowed;
+
+    private final ConcurrentHashMap<String, Counter> events = new ConcurrentHashMap<>();
+
+    private final Map<ConnectionState, Counter> stateChanges = new EnumMap<>(ConnectionState.class);
+
+    /**
+     * 每个客户端最近一次的连接状态
+     */
+    private final ConcurrentHashMap<CuratorFramework, ConnectionState> states = new ConcurrentHashMap<>();
+
+
+    public CuratorMetrics(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.timers = new ZkRequestTimers(registry, "curator", CuratorMetrics::operationTag, percentileHistogram);
+        this.retriesAllowed = retries("allowed");
+        this.retriesDisallowed = retries("disallowed");
+        for (ConnectionState state : ConnectionState.values()) {
+            stateChanges.put(state, Counter.builder("zookeeper.client.connection.state")
+                    .description("连接状态切换次数")
+                    .tag("client", "curator")
+                    .tag("state", state.name())
+                    .register(registry));
+        }
+        Gauge.builder("zookeeper.client.connected", states, CuratorMetrics::countConnected)
+                .description("已连接的客户端个数")
+                .tag("client", "curator")
+                .register(registry);
+    }
+
+
+    /**
+     * 挂到客户端上，需要在start()之前调用才能统计到第一次连接
+     */
+    public CuratorFramework bind(CuratorFramework client) {
+        client.getZookeeperClient().setTracerDriver(this);
+        client.getConnectionStateListenable().addListener(this);
+        return client;
+    }
+
+    /**
+     * 客户端关闭前调用，不再统计它的连接状态
+     */
+    public void unbind(CuratorFramework client) {
+        client.getConnectionStateListenable().removeListener(this);
+        states.remove(client);
+    }
+
+    @Override
+    public void addTrace(OperationTrace trace) {
+        timers.timer(trace.getName(), trace.getReturnCode()).record(trace.getLatencyMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void addEvent(EventTrace trace) {
+        String name = trace.getName();
+        if (RETRIES_ALLOWED.equals(name)) {
+            retriesAllowed.increment();
+        } else if (RETRIES_DISALLOWED.equals(name)) {
+            retriesDisallowed.increment();
+        } else {
+            Counter counter = events.get(name);
+            if (counter == null) {
+                counter = events.computeIfAbsent(name, n -> Counter.builder("zookeeper.client.events")
+                        .description("Curator内部事件次数")
+                        .tag("client", "curator")
+                        .tag("name", n)
+                        .register(registry));
+            }
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void stateChanged(CuratorFramework client, ConnectionState newState) {
+        stateChanges.get(newState).increment();
+        states.put(client, newState);
+    }
+
+
+    private Counter retries(String outcome) {
+        return Counter.builder("zookeeper.client.retries")
+                .description("Curator RetryLoop的重试次数")
+                .tag("client", "curator")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static double countConnected(Map<CuratorFramework, ConnectionState> states) {
+        int count = 0;
+        for (ConnectionState state : states.values()) {
+            if (state.isConnected()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * CreateBuilderImpl-Foreground -> create，GetDataBuilderImpl-Background -> getData.background
+     */
+    static String operationTag(String traceName) {
+        int dash = traceName.indexOf('-');
+        String builder = dash < 0 ? traceName : traceName.substring(0, dash);
+        if (builder.endsWith("BuilderImpl")) {
+            builder = builder.substring(0, builder.length() - "BuilderImpl".length());
+        }
+        String operation = builder.isEmpty() ? traceName
+                : Character.toLowerCase(builder.charAt(0)) + builder.substring(1);
+        return dash >= 0 && traceName.regionMatches(true, dash + 1, "Background", 0, "Background".length())
+                ? operation + ".background" : operation;
+    }
+}
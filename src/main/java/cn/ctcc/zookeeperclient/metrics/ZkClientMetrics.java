@@ -0,0 +1,138 @@
+package cn.ctcc.zookeeperclient.metrics;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.async.OperationObserver;
+import cn.ctcc.zookeeperclient.zkclient.cache.ZNodeDataCache;
+import cn.ctcc.zookeeperclient.zkclient.dispatch.StripedEventDispatcher;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import cn.ctcc.zookeeperclient.zkclient.watch.WatchRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/21 10:30
+ * @Description: 原生客户端这一侧的监控：
+ *      zookeeper.client.requests：AsyncZkClient每个请求的耗时，按operation和result(结果码)打tag
+ *      zookeeper.client.inflight：未完成请求数
+ *      zookeeper.client.connection.events：各会话收到的连接状态事件(SyncConnected、Disconnected、Expired...)
+ *      ZNodeDataCache、StripedEventDispatcher、WatchRegistry的条目数、命中率、队列深度和分发延迟
+ * 请求耗时通过AsyncZkClient的OperationObserver上报，其余指标都是拉取时才计算的Gauge/FunctionCounter，不在请求路径上。
+ * 作为MeterBinder注册成Spring Bean后由actuator自动绑定到MeterRegistry。
+ * @Modified:
+ * @version: V1.0
+ */
+public class ZkClientMetrics implements MeterBinder, OperationObserver, Watcher {
+
+    private final AsyncZkClient asyncZkClient;
+
+    private final ZNodeDataCache zNodeDataCache;
+
+    private final StripedEventDispatcher dispatcher;
+
+    private final WatchRegistry watchRegistry;
+
+    private final boolean percentileHistogram;
+
+    private volatile ZkRequestTimers timers;
+
+    private volatile MeterRegistry registry;
+
+    private final ConcurrentHashMap<Event.KeeperState, Counter> connectionEvents = new ConcurrentHashMap<>();
+
+
+    /**
+     * 除asyncZkClient外其他组件都可以为null
+     */
+    public ZkClientMetrics(AsyncZkClient asyncZkClient, ZNodeDataCache zNodeDataCache, StripedEventDispatcher dispatcher,
+                           WatchRegistry watchRegistry, boolean percentileHistogram) {
+        this.asyncZkClient = asyncZkClient;
+        this.zNodeDataCache = zNodeDataCache;
+        this.dispatcher = dispatcher;
+        this.watchRegistry = watchRegistry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        this.timers = new ZkRequestTimers(registry, "native", UnaryOperator.identity(), percentileHistogram);
+
+        Gauge.builder("zookeeper.client.inflight", asyncZkClient, AsyncZkClient::inFlight)
+                .description("未完成的请求数")
+                .tag("client", "native")
+                .register(registry);
+        Gauge.builder("zookeeper.client.inflight.max", asyncZkClient, c -> (double) c.getMaxInFlight() * c.getSessionManager().size())
+                .description("允许的最大未完成请求数")
+                .tag("client", "native")
+                .register(registry);
+
+        ZkSessionManager sessionManager = asyncZkClient.getSessionManager();
+        Gauge.builder("zookeeper.client.sessions", sessionManager, ZkSessionManager::size)
+                .description("会话个数")
+                .register(registry);
+        sessionManager.addConnectionListener(this);
+
+        if (zNodeDataCache != null) {
+            CacheMetrics.monitor(registry, "zNodeDataCache", zNodeDataCache);
+        }
+        if (dispatcher != null) {
+            bindDispatcher(registry, dispatcher);
+        }
+        if (watchRegistry != null) {
+            Gauge.builder("zookeeper.watches", watchRegistry, WatchRegistry::size)
+                    .description("WatchRegistry中的永久监听个数")
+                    .register(registry);
+        }
+        asyncZkClient.setOperationObserver(this);
+    }
+
+    @Override
+    public void onComplete(String operation, int resultCode, long latencyNanos) {
+        timers.timer(operation, resultCode).record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 连接状态事件
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        Event.KeeperState state = watchedEvent.getState();
+        Counter counter = connectionEvents.get(state);
+        if (counter == null) {
+            counter = connectionEvents.computeIfAbsent(state, s -> Counter.builder("zookeeper.client.connection.events")
+                    .description("连接状态事件次数")
+                    .tag("client", "native")
+                    .tag("state", s.name())
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+
+    private static void bindDispatcher(MeterRegistry registry, StripedEventDispatcher dispatcher) {
+        Gauge.builder("zookeeper.dispatcher.queue.depth", dispatcher, StripedEventDispatcher::getQueueDepth)
+                .description("事件分发队列中排队的任务数")
+                .register(registry);
+        FunctionCounter.builder("zookeeper.dispatcher.dispatched", dispatcher, StripedEventDispatcher::getDispatched)
+                .description("已分发的事件数")
+                .register(registry);
+        TimeGauge.builder("zookeeper.dispatcher.lag.avg", dispatcher, TimeUnit.NANOSECONDS, StripedEventDispatcher::getAverageLagNanos)
+                .description("事件从提交到开始执行的平均延迟")
+                .register(registry);
+        TimeGauge.builder("zookeeper.dispatcher.lag.max", dispatcher, TimeUnit.NANOSECONDS, StripedEventDispatcher::getMaxLagNanos)
+                .description("事件从提交到开始执行的最大延迟")
+                .register(registry);
+    }
+}
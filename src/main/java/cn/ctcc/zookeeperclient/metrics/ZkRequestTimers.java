@@ -0,0 +1,81 @@
+package cn.ctcc.zookeeperclient.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.zookeeper.KeeperException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/21 10:00
+ * @Description: 按(操作, 结果码)缓存的请求耗时Timer。
+ * 每次请求只有一次ConcurrentHashMap查找加一次数组下标访问，Timer和tag只在第一次出现时创建，
+ * 避免在EventThread里反复拼tag、查注册表。
+ * @Modified:
+ * @version: V1.0
+ */
+final class ZkRequestTimers {
+
+    static final String NAME = "zookeeper.client.requests";
+
+    /**
+     * KeeperException的结果码都在(-128, 0]之间，取反后作为数组下标；超出范围的都记到最后一个槽位
+     */
+    private static final int CODES = 128;
+
+    private final MeterRegistry registry;
+
+    /**
+     * client标签：native或curator
+     */
+    private final String client;
+
+    /**
+     * 把原始操作名转换成operation标签
+     */
+    private final UnaryOperator<String> operationTag;
+
+    private final boolean percentileHistogram;
+
+    private final ConcurrentHashMap<String, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+
+
+    ZkRequestTimers(MeterRegistry registry, String client, UnaryOperator<String> operationTag, boolean percentileHistogram) {
+        this.registry = registry;
+        this.client = client;
+        this.operationTag = operationTag;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+
+    Timer timer(String operation, int resultCode) {
+        AtomicReferenceArray<Timer> byCode = timers.get(operation);
+        if (byCode == null) {
+            byCode = timers.computeIfAbsent(operation, k -> new AtomicReferenceArray<>(CODES));
+        }
+        int index = resultCode <= 0 && resultCode > -CODES ? -resultCode : CODES - 1;
+        Timer timer = byCode.get(index);
+        if (timer == null) {
+            timer = register(operation, resultCode);
+            byCode.set(index, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * 同一个(操作, tag)重复注册时MeterRegistry返回已有的Timer，并发创建也没有问题
+     */
+    private Timer register(String operation, int resultCode) {
+        KeeperException.Code code = KeeperException.Code.get(resultCode);
+        return Timer.builder(NAME)
+                .description("ZooKeeper请求耗时")
+                .tag("client", client)
+                .tag("operation", operationTag.apply(operation))
+                .tag("result", code == null ? "UNKNOWN" : code.name())
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+    }
+}
@@ -1,6 +1,7 @@
 package cn.ctcc.zookeeperclient.zkclient;
 
 
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
 import org.apache.zookeeper.*;
 import org.apache.zookeeper.data.Stat;
 
@@ -676,6 +677,35 @@ public class ZookeeperClientAPITest {
 
 
 
+    /**
+     * 使用共享会话管理器：不再每次new ZooKeeper(...)，会话只建立一次并等待SyncConnected，同步、异步操作都复用它
+     */
+    public static void test14()throws Exception{
+
+        //znode节点
+        String zNodes="192.168.241.12:2181,192.168.241.13:2181,192.168.241.14:2181";
+
+        try (ZkSessionManager sessionManager = new ZkSessionManager(zNodes, 4000, 3000, 2)) {
+
+            //同步操作
+            System.out.println("RootChildrens:"+sessionManager.session().getChildren("/",false));
+
+            //异步操作：同一个path固定走同一个会话
+            sessionManager.session("/node02").getData("/node02", false, new AsyncCallback.DataCallback() {
+                @Override
+                public void processResult(int resCode, String path, Object ctx, byte[] bytes, Stat stat) {
+                    System.out.println(resCode);
+                    System.out.println(path);
+                    System.out.println(bytes==null?null:new String(bytes));
+                }
+            }, null);
+
+            Thread.sleep(1000);
+        }
+    }
+
+
+
     public static void main(String[] args) throws Exception {
 
        //test01();
@@ -692,6 +722,7 @@ public class ZookeeperClientAPITest {
        //test10();
        //test11();
        // test12();
+       //test14();
         test13();
        //保证主线程不退出
        System.in.read();
@@ -0,0 +1,543 @@
+package cn.ctcc.zookeeperclient.zkclient.async;
+
+import cn.ctcc.zookeeperclient.codec.PayloadCodec;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 11:00
+ * @Description: 基于原生AsyncCallback的CompletableFuture异步客户端。
+ * ZookeeperClientAPITest里的异步方法只能通过int结果码和无类型的ctx拿结果，也不限制未完成请求数。
+ * 这里每个会话有一个信号量，未完成请求达到maxInFlight时调用方会被阻塞，避免客户端发送队列无限增长。
+ * future在ZooKeeper的EventThread上结束，许可也只能由EventThread归还，所以EventThread上(回调、原生Watcher、
+ * future的同步续作如thenCompose)不会阻塞等许可：有许可直接发送，没有许可时future以RejectedExecutionException结束。
+ * 续作里还要发请求时应使用thenComposeAsync等切到自己的线程池，否则会话繁忙时请求会被拒绝。
+ * 所有请求共用一个无状态的回调对象，ctx就是返回给调用方的future；成功时直接complete，只有失败才会创建KeeperException。
+ * 同一个path的请求固定在同一个会话上，保证顺序。
+ * 发送前同步抛出的异常(path不合法、编码失败)会归还许可并让future异常结束，不会占着许可不放。
+ * 设置了OperationObserver时，每个请求结束会上报操作名、结果码和耗时；没有设置时不读时钟。
+ * 设置了PayloadCodec时，create/setData写入前编码，getData读出后解码；multi里的Op需要调用方自己编码(BatchingZkWriter会编码)。
+ * @Modified:
+ * @version: V1.0
+ */
+public class AsyncZkClient {
+
+    /**
+     * 共用的回调对象
+     */
+    private static final Callbacks CALLBACKS = new Callbacks();
+
+    /**
+     * exists专用回调：节点不存在不算失败
+     */
+    private static final ExistsCallback EXISTS_CALLBACK = new ExistsCallback();
+
+    /**
+     * multi专用回调
+     */
+    private static final MultiCallback MULTI_CALLBACK = new MultiCallback();
+
+    public static final String OP_CREATE = "create";
+
+    public static final String OP_GET_DATA = "getData";
+
+    public static final String OP_GET_CHILDREN = "getChildren";
+
+    public static final String OP_EXISTS = "exists";
+
+    public static final String OP_GET_ACL = "getACL";
+
+    public static final String OP_SET_DATA = "setData";
+
+    public static final String OP_DELETE = "delete";
+
+    public static final String OP_MULTI = "multi";
+
+    /**
+     * 原生客户端EventThread的线程名后缀(ClientCnxn.EventThread)
+     */
+    private static final String EVENT_THREAD_SUFFIX = "-EventThread";
+
+    private final ZkSessionManager sessionManager;
+
+    /**
+     * 每个会话的未完成请求许可
+     */
+    private final Semaphore[] permits;
+
+    private final int maxInFlight;
+
+    /**
+     * 请求观察者，为null时不统计
+     */
+    private volatile OperationObserver observer;
+
+    /**
+     * 节点数据编解码，为null时原样读写
+     */
+    private volatile PayloadCodec codec;
+
+
+    public AsyncZkClient(ZkSessionManager sessionManager, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight必须大于0: " + maxInFlight);
+        }
+        this.sessionManager = sessionManager;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore[sessionManager.size()];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = new Semaphore(maxInFlight);
+        }
+    }
+
+
+    /**
+     * 异步创建节点，返回实际创建的路径(有序节点会带序号)
+     */
+    public CompletableFuture<String> create(String path, byte[] data, List<ACL> acl, CreateMode createMode) {
+        ZkFuture<String> future = newFuture(OP_CREATE);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.create(path, encode(data), acl, createMode, CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 异步获取节点数据
+     */
+    public CompletableFuture<NodeData> getData(String path, Watcher watcher) {
+        ZkFuture<NodeData> future = newFuture(OP_GET_DATA);
+        future.codec = codec;
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.getData(path, watcher, CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    public CompletableFuture<NodeData> getData(String path) {
+        return getData(path, null);
+    }
+
+    /**
+     * 异步获取子节点列表
+     */
+    public CompletableFuture<List<String>> getChildren(String path, Watcher watcher) {
+        ZkFuture<List<String>> future = newFuture(OP_GET_CHILDREN);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.getChildren(path, watcher, CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    public CompletableFuture<List<String>> getChildren(String path) {
+        return getChildren(path, null);
+    }
+
+    /**
+     * 异步检测节点是否存在，不存在时结果为null
+     */
+    public CompletableFuture<Stat> exists(String path, Watcher watcher) {
+        ZkFuture<Stat> future = newFuture(OP_EXISTS);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.exists(path, watcher, EXISTS_CALLBACK, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    public CompletableFuture<Stat> exists(String path) {
+        return exists(path, null);
+    }
+
+    /**
+     * 异步获取节点的ACL
+     */
+    public CompletableFuture<List<ACL>> getACL(String path) {
+        ZkFuture<List<ACL>> future = newFuture(OP_GET_ACL);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.getACL(path, new Stat(), CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 异步设置节点数据，version为-1时不校验版本
+     */
+    public CompletableFuture<Stat> setData(String path, byte[] data, int version) {
+        ZkFuture<Stat> future = newFuture(OP_SET_DATA);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.setData(path, encode(data), version, CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 异步删除节点，version为-1时不校验版本
+     */
+    public CompletableFuture<Void> delete(String path, int version) {
+        ZkFuture<Void> future = newFuture(OP_DELETE);
+        ZooKeeper zooKeeper = acquire(path, future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.delete(path, version, CALLBACKS, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 异步执行事务：只要服务端返回了结果列表，future就正常结束，其中失败的操作是ErrorResult(和同步multi的结果一致)；
+     * 只有连接丢失等没有结果列表的情况才会异常结束。同一批操作按第一个操作的path选择会话，空列表直接返回空结果
+     */
+    public CompletableFuture<List<OpResult>> multi(List<Op> ops) {
+        if (ops.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        ZkFuture<List<OpResult>> future = newFuture(OP_MULTI);
+        ZooKeeper zooKeeper = acquire(ops.get(0).getPath(), future);
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.multi(ops, MULTI_CALLBACK, future);
+            } catch (RuntimeException e) {
+                future.reject(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 当前未完成的请求数
+     */
+    public int inFlight() {
+        int inFlight = 0;
+        for (Semaphore permit : permits) {
+            inFlight += maxInFlight - permit.availablePermits();
+        }
+        return inFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public ZkSessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * 设置请求观察者，传null关闭统计
+     */
+    public void setOperationObserver(OperationObserver observer) {
+        this.observer = observer;
+    }
+
+    public OperationObserver getOperationObserver() {
+        return observer;
+    }
+
+    /**
+     * 设置节点数据编解码，传null关闭
+     */
+    public void setPayloadCodec(PayloadCodec codec) {
+        this.codec = codec;
+    }
+
+    public PayloadCodec getPayloadCodec() {
+        return codec;
+    }
+
+
+    private byte[] encode(byte[] data) {
+        PayloadCodec c = codec;
+        return c == null ? data : c.encode(data);
+    }
+
+    private <T> ZkFuture<T> newFuture(String operation) {
+        ZkFuture<T> future = new ZkFuture<>();
+        OperationObserver o = observer;
+        if (o != null) {
+            future.observer = o;
+            future.operation = operation;
+            future.startNanos = System.nanoTime();
+        }
+        return future;
+    }
+
+    /**
+     * 获取许可和会话，失败时直接结束future并返回null。
+     * EventThread上不阻塞：许可要等EventThread执行回调才会归还，在这里等会让整个会话死锁
+     */
+    private ZooKeeper acquire(String path, ZkFuture<?> future) {
+        int index = sessionManager.indexFor(path);
+        Semaphore permit = permits[index];
+        if (isEventThread()) {
+            if (!permit.tryAcquire()) {
+                future.completeExceptionally(new RejectedExecutionException(
+                        "EventThread上未完成请求已达到" + maxInFlight + "，续作请切换到其它线程发送请求: " + path));
+                return null;
+            }
+        } else {
+            try {
+                permit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return null;
+            }
+        }
+        future.permit = permit;
+        try {
+            return sessionManager.session(path);
+        } catch (Exception e) {
+            future.release();
+            future.observe(KeeperException.Code.CONNECTIONLOSS.intValue());
+            future.completeExceptionally(e);
+            return null;
+        }
+    }
+
+    private static boolean isEventThread() {
+        return Thread.currentThread().getName().endsWith(EVENT_THREAD_SUFFIX);
+    }
+
+
+    /**
+     * 持有许可的future，请求结束时先归还许可再通知调用方
+     */
+    private static final class ZkFuture<T> extends CompletableFuture<T> {
+
+        private static final int OK = KeeperException.Code.OK.intValue();
+
+        private Semaphore permit;
+
+        private OperationObserver observer;
+
+        private String operation;
+
+        private long startNanos;
+
+        /**
+         * getData的解码器
+         */
+        private PayloadCodec codec;
+
+        void release() {
+            Semaphore p = permit;
+            if (p != null) {
+                permit = null;
+                p.release();
+            }
+        }
+
+        void observe(int resultCode) {
+            OperationObserver o = observer;
+            if (o != null) {
+                o.onComplete(operation, resultCode, System.nanoTime() - startNanos);
+            }
+        }
+
+        void succeed(Object value) {
+            succeed(value, OK);
+        }
+
+        /**
+         * 正常结束，但上报的结果码不是OK(exists的NONODE、部分失败的multi)
+         */
+        @SuppressWarnings("unchecked")
+        void succeed(Object value, int resultCode) {
+            release();
+            observe(resultCode);
+            complete((T) value);
+        }
+
+        /**
+         * 服务端成功但本地处理失败(如解码)
+         */
+        void fail(Throwable error) {
+            release();
+            observe(OK);
+            completeExceptionally(error);
+        }
+
+        /**
+         * 请求没有发出去(参数校验或编码失败)
+         */
+        void reject(Throwable error) {
+            release();
+            observe(KeeperException.Code.BADARGUMENTS.intValue());
+            completeExceptionally(error);
+        }
+
+        void fail(int resultCode, String path) {
+            release();
+            observe(resultCode);
+            completeExceptionally(KeeperException.create(KeeperException.Code.get(resultCode), path));
+        }
+    }
+
+
+    /**
+     * 无状态回调：结果码为0时直接complete，不产生额外对象
+     */
+    private static final class Callbacks implements AsyncCallback.StringCallback, AsyncCallback.DataCallback,
+            AsyncCallback.ChildrenCallback, AsyncCallback.StatCallback, AsyncCallback.VoidCallback,
+            AsyncCallback.ACLCallback {
+
+        private static final int OK = KeeperException.Code.OK.intValue();
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, String name) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(name);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, byte[] data, Stat stat) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                PayloadCodec codec = future.codec;
+                if (codec != null) {
+                    try {
+                        data = codec.decode(data);
+                    } catch (RuntimeException e) {
+                        future.fail(e);
+                        return;
+                    }
+                }
+                future.succeed(new NodeData(data, stat));
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, List<String> children) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(children);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, Stat stat) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(stat);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(null);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, List<ACL> acl, Stat stat) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(acl);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+    }
+
+
+    /**
+     * exists回调：节点不存在时结果为null
+     */
+    private static final class ExistsCallback implements AsyncCallback.StatCallback {
+
+        private static final int OK = KeeperException.Code.OK.intValue();
+
+        private static final int NO_NODE = KeeperException.Code.NONODE.intValue();
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, Stat stat) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (resultCode == OK) {
+                future.succeed(stat);
+            } else if (resultCode == NO_NODE) {
+                future.succeed(null, resultCode);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+    }
+
+
+    /**
+     * multi回调：和ChildrenCallback的processResult擦除后签名相同，只能单独实现
+     */
+    private static final class MultiCallback implements AsyncCallback.MultiCallback {
+
+        @Override
+        public void processResult(int resultCode, String path, Object ctx, List<OpResult> results) {
+            ZkFuture<?> future = (ZkFuture<?>) ctx;
+            if (results != null) {
+                future.succeed(results, resultCode);
+            } else {
+                future.fail(resultCode, path);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package cn.ctcc.zookeeperclient.zkclient.async;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 11:05
+ * @Description: getData的结果：节点数据和对应的Stat
+ * @Modified:
+ * @version: V1.0
+ */
+public final class NodeData {
+
+    private final byte[] data;
+
+    private final Stat stat;
+
+    public NodeData(byte[] data, Stat stat) {
+        this.data = data;
+        this.stat = stat;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public Stat getStat() {
+        return stat;
+    }
+}
@@ -0,0 +1,19 @@
+package cn.ctcc.zookeeperclient.zkclient.async;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/21 9:30
+ * @Description: AsyncZkClient的请求观察者，每个请求结束时回调一次，用于接入监控。
+ * 在ZooKeeper的EventThread里执行，实现必须足够轻，不能阻塞
+ * @Modified:
+ * @version: V1.0
+ */
+public interface OperationObserver {
+
+    /**
+     * @param operation 操作名，见AsyncZkClient里的OP_*常量
+     * @param resultCode 服务端结果码(KeeperException.Code)，exists的NONODE也按原样上报
+     * @param latencyNanos 从调用方发起(含等待许可)到结果返回的耗时
+     */
+    void onComplete(String operation, int resultCode, long latencyNanos);
+}
@@ -0,0 +1,348 @@
+package cn.ctcc.zookeeperclient.zkclient.batch;
+
+import cn.ctcc.zookeeperclient.codec.PayloadCodec;
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 13:40
+ * @Description: 写操作合批：create/setData/delete先放进缓冲区，攒够maxBatchSize个(或maxBatchBytes字节)
+ * 或者等待lingerMs之后，合成一个multi()事务发出去，一次往返、一次集群提交。
+ * 每个调用方拿到的是自己那一个操作的future。
+ * 事务失败时不会连累其它调用方：出错的操作单独失败，其余操作重新组成一批再提交。
+ * 只适合互相独立的写操作，同一批里的操作不要互相依赖。
+ * 不保证同一个path上写操作的先后顺序：被回滚的操作稍后在scheduler线程里重新提交，期间后来的批次可能已经发出，
+ * 比如setData(X=1)被回滚重试时，之后的setData(X=2)可能先生效，最后留下的是X=1；
+ * 而且每批按第一个操作的path选择会话，不同批次可能走不同会话。需要顺序时等上一个future结束再写，或者用setData的version做条件更新。
+ * AsyncZkClient设置了PayloadCodec时，create/setData的数据在进入缓冲区前编码，和不合批的写入一致。
+ * @Modified:
+ * @version: V1.0
+ */
+public class BatchingZkWriter implements Closeable {
+
+    private static final int OK = KeeperException.Code.OK.intValue();
+
+    private static final int RUNTIME_INCONSISTENCY = KeeperException.Code.RUNTIMEINCONSISTENCY.intValue();
+
+    /**
+     * close()等待已发出批次的最长时间
+     */
+    private static final long CLOSE_TIMEOUT_MS = 30_000;
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 一批最多多少个操作
+     */
+    private final int maxBatchSize;
+
+    /**
+     * 一批数据最多多少字节，要小于jute.maxbuffer
+     */
+    private final int maxBatchBytes;
+
+    /**
+     * 第一个操作进入缓冲区后最多等待多久
+     */
+    private final long lingerMs;
+
+    /**
+     * 定时刷新和失败重试都在这个线程里执行，避免在EventThread里等待许可
+     */
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+
+    private List<Pending> pending = new ArrayList<>();
+
+    private int pendingBytes;
+
+    private ScheduledFuture<?> lingerTask;
+
+    /**
+     * 已发出还没处理完结果的批次数(包括等待重试的)，close()等它归零再关闭线程
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final Object idle = new Object();
+
+
+    public BatchingZkWriter(AsyncZkClient asyncZkClient, int maxBatchSize, int maxBatchBytes, long lingerMs) {
+        this.asyncZkClient = asyncZkClient;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerMs = lingerMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "zk-batch-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * 合批创建节点，返回实际创建的路径
+     */
+    public CompletableFuture<String> create(String path, byte[] data, List<ACL> acl, CreateMode createMode) {
+        byte[] encoded;
+        try {
+            encoded = encode(data);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return submit(Op.create(path, encoded, acl, createMode), encoded == null ? 0 : encoded.length)
+                .thenApply(result -> ((OpResult.CreateResult) result).getPath());
+    }
+
+    /**
+     * 合批设置节点数据
+     */
+    public CompletableFuture<Stat> setData(String path, byte[] data, int version) {
+        byte[] encoded;
+        try {
+            encoded = encode(data);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return submit(Op.setData(path, encoded, version), encoded == null ? 0 : encoded.length)
+                .thenApply(result -> ((OpResult.SetDataResult) result).getStat());
+    }
+
+    /**
+     * 合批删除节点
+     */
+    public CompletableFuture<Void> delete(String path, int version) {
+        return submit(Op.delete(path, version), 0).thenApply(result -> null);
+    }
+
+    /**
+     * 立即发出缓冲区里的操作
+     */
+    public void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        send(batch);
+    }
+
+    /**
+     * 发出缓冲区，等已发出的批次(包括拆分重试)处理完，最多等CLOSE_TIMEOUT_MS，再关闭线程
+     */
+    @Override
+    public void close() {
+        flush();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+        synchronized (idle) {
+            while (outstanding.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        scheduler.shutdown();
+    }
+
+
+    /**
+     * 和AsyncZkClient.create/setData一样用它的PayloadCodec编码，按编码后的长度计入maxBatchBytes
+     */
+    private byte[] encode(byte[] data) {
+        PayloadCodec codec = asyncZkClient.getPayloadCodec();
+        return codec == null || data == null ? data : codec.encode(data);
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private CompletableFuture<OpResult> submit(Op op, int bytes) {
+        Pending entry = new Pending(op, bytes + op.getPath().length());
+        List<Pending> full = null;
+        List<Pending> overflow = null;
+        synchronized (lock) {
+            if (!pending.isEmpty() && pendingBytes + entry.bytes > maxBatchBytes) {
+                overflow = drain();
+            }
+            pending.add(entry);
+            pendingBytes += entry.bytes;
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (lingerTask == null) {
+                lingerTask = scheduler.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        send(overflow);
+        send(full);
+        return entry.future;
+    }
+
+    /**
+     * 取出当前缓冲区，必须持有lock
+     */
+    private List<Pending> drain() {
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+        List<Pending> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        pendingBytes = 0;
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        List<Op> ops = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            ops.add(entry.op);
+        }
+        outstanding.incrementAndGet();
+        asyncZkClient.multi(ops).whenComplete((results, error) -> {
+            try {
+                if (error != null) {
+                    //连接丢失等情况，不知道服务端是否已经执行，不能重试
+                    for (Pending entry : batch) {
+                        entry.future.completeExceptionally(error);
+                    }
+                } else {
+                    complete(batch, results);
+                }
+            } finally {
+                done();
+            }
+        });
+    }
+
+    /**
+     * 在scheduler线程里重新提交；已经关闭时直接失败。
+     * 重新提交的操作会排在这期间新发出的批次之后，同一个path的写入顺序可能颠倒
+     */
+    private void resend(List<Pending> batch) {
+        outstanding.incrementAndGet();
+        try {
+            scheduler.execute(() -> {
+                try {
+                    send(batch);
+                } finally {
+                    done();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            for (Pending entry : batch) {
+                entry.future.completeExceptionally(e);
+            }
+            done();
+        }
+    }
+
+    private void done() {
+        if (outstanding.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 处理事务结果：全部成功就逐个通知；否则出错的操作单独失败，其余操作重新提交
+     */
+    private void complete(List<Pending> batch, List<OpResult> results) {
+        List<Pending> retry = null;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending entry = batch.get(i);
+            OpResult result = results.get(i);
+            if (!(result instanceof OpResult.ErrorResult)) {
+                continue;
+            }
+            int err = ((OpResult.ErrorResult) result).getErr();
+            if (err == OK || err == RUNTIME_INCONSISTENCY) {
+                //事务被其它操作连累回滚了
+                if (retry == null) {
+                    retry = new ArrayList<>(batch.size());
+                }
+                retry.add(entry);
+            } else {
+                entry.future.completeExceptionally(KeeperException.create(KeeperException.Code.get(err), entry.op.getPath()));
+                batch.set(i, null);
+            }
+        }
+
+        if (retry == null) {
+            //全部成功，或者这一批只有一个出错的操作
+            for (int i = 0; i < batch.size(); i++) {
+                Pending entry = batch.get(i);
+                if (entry != null) {
+                    entry.future.complete(results.get(i));
+                }
+            }
+            return;
+        }
+
+        if (retry.size() == batch.size()) {
+            //找不到出错的操作，对半拆开分别重试
+            if (retry.size() == 1) {
+                retry.get(0).future.completeExceptionally(
+                        KeeperException.create(KeeperException.Code.RUNTIMEINCONSISTENCY, retry.get(0).op.getPath()));
+                return;
+            }
+            int half = retry.size() / 2;
+            List<Pending> left = new ArrayList<>(retry.subList(0, half));
+            List<Pending> right = new ArrayList<>(retry.subList(half, retry.size()));
+            resend(left);
+            resend(right);
+            return;
+        }
+
+        resend(retry);
+    }
+
+
+    /**
+     * 缓冲区中的一个写操作
+     */
+    private static final class Pending {
+
+        private final Op op;
+
+        private final int bytes;
+
+        private final CompletableFuture<OpResult> future = new CompletableFuture<>();
+
+        Pending(Op op, int bytes) {
+            this.op = op;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package cn.ctcc.zookeeperclient.zkclient.cache;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.async.NodeData;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 15:10
+ * @Description: 按path缓存节点数据和Stat的读穿透缓存。
+ * ZookeeperClientAPITest的test04、test10调用getData(path, true, stat)后把数据和监听都扔掉了，之后每次读都要访问集群。
+ * 这里缓存未命中时用getData注册数据监听，收到NodeDataChanged/NodeDeleted就失效对应条目，会话过期时清空整个缓存。
+ * 所有path共用同一个Watcher对象，客户端对同一个path只会保留一个监听。
+ * 按总字节数做LRU淘汰，并统计命中、未命中、淘汰和失效次数。
+ * @Modified:
+ * @version: V1.0
+ */
+public class ZNodeDataCache implements Watcher {
+
+    /**
+     * 每个条目除了数据之外的估算开销(Stat、path、链表节点)
+     */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 缓存的最大字节数
+     */
+    private final long maxBytes;
+
+    /**
+     * 按访问顺序排列的缓存条目，访问需要持有自身的锁
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * 正在加载的path，同一个path的并发读只访问一次集群
+     */
+    private final ConcurrentHashMap<String, Loading> loading = new ConcurrentHashMap<>();
+
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+
+    public ZNodeDataCache(AsyncZkClient asyncZkClient, long maxBytes) {
+        this.asyncZkClient = asyncZkClient;
+        this.maxBytes = maxBytes;
+        asyncZkClient.getSessionManager().addConnectionListener(event -> {
+            //会话过期后服务端的监听都没了，缓存不再可信
+            if (event.getState() == Event.KeeperState.Expired) {
+                clear();
+            }
+        });
+    }
+
+
+    /**
+     * 同步读取
+     */
+    public NodeData get(String path) throws KeeperException, InterruptedException {
+        try {
+            return getAsync(path).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof KeeperException) {
+                throw (KeeperException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 异步读取：命中直接返回，未命中时从集群读取并注册数据监听
+     */
+    public CompletableFuture<NodeData> getAsync(String path) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(path);
+        }
+        if (entry != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry.data);
+        }
+        misses.increment();
+
+        Loading load = new Loading();
+        Loading existing = loading.putIfAbsent(path, load);
+        if (existing != null) {
+            return existing.future;
+        }
+        asyncZkClient.getData(path, this).whenComplete((data, error) -> {
+            if (error != null) {
+                loading.remove(path, load);
+                load.future.completeExceptionally(error);
+                return;
+            }
+            //先放入缓存再移除加载标记，中间收到的失效事件不会被漏掉
+            put(path, data, load);
+            loading.remove(path, load);
+            load.future.complete(data);
+        });
+        return load.future;
+    }
+
+    /**
+     * 手动失效某个path
+     */
+    public void invalidate(String path) {
+        synchronized (entries) {
+            Loading load = loading.get(path);
+            if (load != null) {
+                load.stale = true;
+            }
+            Entry removed = entries.remove(path);
+            if (removed != null) {
+                currentBytes -= removed.size;
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (Loading load : loading.values()) {
+                load.stale = true;
+            }
+            entries.clear();
+            currentBytes = 0;
+        }
+    }
+
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        Event.EventType type = watchedEvent.getType();
+        if (type == Event.EventType.NodeDataChanged || type == Event.EventType.NodeDeleted) {
+            invalidate(watchedEvent.getPath());
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getCurrentBytes() {
+        synchronized (entries) {
+            return currentBytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+
+    /**
+     * 加载完成后放入缓存，加载期间已经失效的结果直接丢弃
+     */
+    private void put(String path, NodeData data, Loading load) {
+        Entry entry = new Entry(data, sizeOf(path, data));
+        if (entry.size > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            if (load.stale) {
+                return;
+            }
+            Entry old = entries.put(path, entry);
+            if (old != null) {
+                currentBytes -= old.size;
+            }
+            currentBytes += entry.size;
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                currentBytes -= eldest.size;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static int sizeOf(String path, NodeData data) {
+        byte[] bytes = data.getData();
+        return ENTRY_OVERHEAD + path.length() * 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+
+    private static final class Entry {
+
+        private final NodeData data;
+
+        private final int size;
+
+        Entry(NodeData data, int size) {
+            this.data = data;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 正在加载的path，加载期间收到失效事件则结果不放入缓存
+     */
+    private static final class Loading {
+
+        private final CompletableFuture<NodeData> future = new CompletableFuture<>();
+
+        private boolean stale;
+    }
+}
@@ -0,0 +1,47 @@
+package cn.ctcc.zookeeperclient.zkclient.delete;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 14:00
+ * @Description: 递归删除的统计结果
+ * @Modified:
+ * @version: V1.0
+ */
+public final class DeleteReport {
+
+    private final long deleted;
+
+    private final long retries;
+
+    private final long elapsedMillis;
+
+    public DeleteReport(long deleted, long retries, long elapsedMillis) {
+        this.deleted = deleted;
+        this.retries = retries;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * 因为NotEmpty重新列举子节点的次数
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedMillis == 0 ? deleted : deleted * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("deleted=%d, retries=%d, elapsed=%dms, nodes/sec=%.1f", deleted, retries, elapsedMillis, getNodesPerSecond());
+    }
+}
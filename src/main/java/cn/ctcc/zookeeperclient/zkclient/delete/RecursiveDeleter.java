@@ -0,0 +1,270 @@
+package cn.ctcc.zookeeperclient.zkclient.delete;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 14:10
+ * @Description: 并行自底向上递归删除--->CuratorAPITest.test06的delete().guaranteed().deletingChildrenIfNeeded()
+ * 逐个节点一次往返，几十万个节点的子树要删很久。这里：
+ *      用并发的异步getChildren列举子树，每个节点记录还没删除的子节点数；
+ *      子节点数为0的节点进入就绪队列，就绪的节点(多数是同时列举出来的兄弟节点)合成multi()批量删除；
+ *      一个节点的最后一个子节点删除后，它自己马上进入就绪队列；
+ *      删除时报NotEmpty说明有并发创建的子节点，重新列举该节点再删；NoNode说明已被别人删除，当作删除成功。
+ * 列举和删除是流水线进行的，同时在途的请求数不超过concurrency。根路径为"/"时只删除其子节点，并跳过系统节点/zookeeper。
+ * @Modified:
+ * @version: V1.0
+ */
+public class RecursiveDeleter {
+
+    private static final int OK = KeeperException.Code.OK.intValue();
+
+    private static final int RUNTIME_INCONSISTENCY = KeeperException.Code.RUNTIMEINCONSISTENCY.intValue();
+
+    private static final int NO_NODE = KeeperException.Code.NONODE.intValue();
+
+    private static final int NOT_EMPTY = KeeperException.Code.NOTEMPTY.intValue();
+
+    /**
+     * 根节点下的系统节点名
+     */
+    private static final String ZOOKEEPER_NODE = "zookeeper";
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 同时在途的请求数
+     */
+    private final int concurrency;
+
+    /**
+     * 一批最多删除多少个节点
+     */
+    private final int maxBatchOps;
+
+
+    public RecursiveDeleter(AsyncZkClient asyncZkClient, int concurrency, int maxBatchOps) {
+        this.asyncZkClient = asyncZkClient;
+        this.concurrency = concurrency;
+        this.maxBatchOps = maxBatchOps;
+    }
+
+
+    /**
+     * 删除rootPath及其所有子孙节点
+     */
+    public DeleteReport delete(String rootPath) throws IOException, InterruptedException {
+        return new Run(rootPath).execute();
+    }
+
+
+    /**
+     * 一次删除过程的状态
+     */
+    private final class Run {
+
+        private final Node root;
+
+        private final boolean deleteRoot;
+
+        /**
+         * 待列举的节点(栈，深度优先)
+         */
+        private final LinkedBlockingDeque<Node> listing = new LinkedBlockingDeque<>();
+
+        /**
+         * 子节点已全部删除、可以删除的节点
+         */
+        private final LinkedBlockingQueue<Node> ready = new LinkedBlockingQueue<>();
+
+        private final Semaphore permits = new Semaphore(concurrency);
+
+        /**
+         * 有请求结束时唤醒主循环
+         */
+        private final Semaphore wakeups = new Semaphore(0);
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final AtomicLong deleted = new AtomicLong();
+
+        private final AtomicLong retries = new AtomicLong();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Run(String rootPath) {
+            this.root = new Node(rootPath, null);
+            this.deleteRoot = !"/".equals(rootPath);
+        }
+
+        DeleteReport execute() throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            listing.push(root);
+            while (failure.get() == null) {
+                Node node = listing.pollFirst();
+                if (node != null) {
+                    submit(list(node));
+                    continue;
+                }
+                List<Node> batch = new ArrayList<>(maxBatchOps);
+                ready.drainTo(batch, maxBatchOps);
+                if (!batch.isEmpty()) {
+                    submit(delete(batch));
+                    continue;
+                }
+                //先看active再看队列：active为0时不会再有节点进入队列
+                if (active.get() == 0 && listing.isEmpty() && ready.isEmpty()) {
+                    break;
+                }
+                wakeups.tryAcquire(10, TimeUnit.MILLISECONDS);
+            }
+            permits.acquire(concurrency);
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new IOException("递归删除失败: " + root.path, error instanceof CompletionException ? error.getCause() : error);
+            }
+            return new DeleteReport(deleted.get(), retries.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        private void submit(Request request) throws InterruptedException {
+            permits.acquire();
+            active.incrementAndGet();
+            request.send().whenComplete((v, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                active.decrementAndGet();
+                permits.release();
+                wakeups.release();
+            });
+        }
+
+        /**
+         * 列举子节点：没有子节点就进入就绪队列
+         */
+        private Request list(Node node) {
+            return () -> asyncZkClient.getChildren(node.path).handle((children, error) -> {
+                if (error != null) {
+                    if (!isNoNode(error)) {
+                        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                    }
+                    //已被别人删除
+                    childDeleted(node.parent);
+                    return null;
+                }
+                boolean isRoot = "/".equals(node.path);
+                if (isRoot) {
+                    //"/zookeeper"是服务端的系统节点(包括/zookeeper/quota)，删除会被拒绝
+                    children = new ArrayList<>(children);
+                    children.remove(ZOOKEEPER_NODE);
+                }
+                if (children.isEmpty()) {
+                    markReady(node);
+                    return null;
+                }
+                //先记下子节点数，再放入待列举栈
+                node.remaining.addAndGet(children.size());
+                String prefix = isRoot ? node.path : node.path + "/";
+                for (String child : children) {
+                    listing.push(new Node(prefix + child, node));
+                }
+                return null;
+            });
+        }
+
+        /**
+         * 批量删除
+         */
+        private Request delete(List<Node> batch) {
+            return () -> {
+                List<Op> ops = new ArrayList<>(batch.size());
+                for (Node node : batch) {
+                    ops.add(Op.delete(node.path, -1));
+                }
+                return asyncZkClient.multi(ops).thenApply(results -> {
+                    for (int i = 0; i < results.size(); i++) {
+                        handle(batch.get(i), results.get(i));
+                    }
+                    return null;
+                });
+            };
+        }
+
+        private void handle(Node node, OpResult result) {
+            if (!(result instanceof OpResult.ErrorResult)) {
+                deleted.incrementAndGet();
+                childDeleted(node.parent);
+                return;
+            }
+            int err = ((OpResult.ErrorResult) result).getErr();
+            if (err == OK || err == RUNTIME_INCONSISTENCY) {
+                //被同一批里的其它操作连累回滚，重新排队
+                ready.add(node);
+            } else if (err == NO_NODE) {
+                childDeleted(node.parent);
+            } else if (err == NOT_EMPTY) {
+                //有并发创建的子节点，重新列举
+                retries.incrementAndGet();
+                listing.push(node);
+            } else {
+                throw new CompletionException(KeeperException.create(KeeperException.Code.get(err), node.path));
+            }
+        }
+
+        private void childDeleted(Node parent) {
+            if (parent != null && parent.remaining.decrementAndGet() == 0) {
+                markReady(parent);
+            }
+        }
+
+        private void markReady(Node node) {
+            if (node != root || deleteRoot) {
+                ready.add(node);
+            }
+        }
+    }
+
+    private static boolean isNoNode(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof KeeperException.NoNodeException;
+    }
+
+
+    @FunctionalInterface
+    private interface Request {
+        CompletableFuture<Void> send();
+    }
+
+    private static final class Node {
+
+        private final String path;
+
+        private final Node parent;
+
+        /**
+         * 还没删除的子节点数
+         */
+        private final AtomicInteger remaining = new AtomicInteger();
+
+        Node(String path, Node parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package cn.ctcc.zookeeperclient.zkclient.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.framework.api.CuratorListener;
+import org.apache.zookeeper.Watcher;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 17:00
+ * @Description: 按path分条带的事件分发器--->ZookeeperClientAPITest里的监听和异步回调、CuratorAPITest.test04的CuratorListener
+ * 都在客户端唯一的EventThread里执行，一个慢监听(比如test10里在PathChildrenCache回调中同步getChildren)会拖慢整个会话的所有事件。
+ * 这里把事件和回调转到一组单线程的条带上执行：同一个path哈希到同一个条带，保证顺序；不同path在多个核上并行。
+ * 统计队列深度和分发延迟(从提交到开始执行的时间)。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class StripedEventDispatcher implements Closeable {
+
+    private final ThreadPoolExecutor[] stripes;
+
+    private final Executor[] stripeExecutors;
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private final LongAdder totalLagNanos = new LongAdder();
+
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Long::max, 0);
+
+
+    public StripedEventDispatcher(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads必须大于0: " + threads);
+        }
+        this.stripes = new ThreadPoolExecutor[threads];
+        this.stripeExecutors = new Executor[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "zk-dispatcher-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            int index = i;
+            stripeExecutors[i] = task -> submit(index, task);
+        }
+    }
+
+
+    /**
+     * 在path对应的条带上执行任务，path为空时使用第一个条带
+     */
+    public void execute(String path, Runnable task) {
+        submit(indexFor(path), task);
+    }
+
+    /**
+     * path对应条带的Executor，可以传给Curator的Listenable.addListener(listener, executor)
+     */
+    public Executor executorFor(String path) {
+        return stripeExecutors[indexFor(path)];
+    }
+
+    /**
+     * 包装原生Watcher：事件按path转到条带上处理
+     */
+    public Watcher wrap(Watcher watcher) {
+        return event -> execute(event.getPath(), () -> watcher.process(event));
+    }
+
+    /**
+     * 包装CuratorListener：事件按path转到条带上处理
+     */
+    public CuratorListener wrap(CuratorListener listener) {
+        return (client, event) -> execute(event.getPath(), () -> {
+            try {
+                listener.eventReceived(client, event);
+            } catch (Exception e) {
+                log.error("CuratorListener处理事件出错: {}", event, e);
+            }
+        });
+    }
+
+    /**
+     * 让异步结果在path对应的条带上通知，调用方的后续处理不会占用EventThread
+     */
+    public <T> CompletableFuture<T> onStripe(String path, CompletableFuture<T> future) {
+        return future.whenCompleteAsync((value, error) -> { }, executorFor(path));
+    }
+
+    /**
+     * 所有条带排队中的任务数
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor stripe : stripes) {
+            depth += stripe.getQueue().size();
+        }
+        return depth;
+    }
+
+    /**
+     * 某个条带排队中的任务数
+     */
+    public int getQueueDepth(int stripe) {
+        return stripes[stripe].getQueue().size();
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * 平均分发延迟(纳秒)
+     */
+    public long getAverageLagNanos() {
+        long count = dispatched.sum();
+        return count == 0 ? 0 : totalLagNanos.sum() / count;
+    }
+
+    /**
+     * 最大分发延迟(纳秒)
+     */
+    public long getMaxLagNanos() {
+        return maxLagNanos.get();
+    }
+
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+
+    private int indexFor(String path) {
+        if (path == null) {
+            return 0;
+        }
+        return (path.hashCode() & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    private void submit(int index, Runnable task) {
+        long submitted = System.nanoTime();
+        stripes[index].execute(() -> {
+            long lag = System.nanoTime() - submitted;
+            dispatched.increment();
+            totalLagNanos.add(lag);
+            maxLagNanos.accumulate(lag);
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                //一个任务出错不影响同一条带上的后续任务
+                log.error("分发任务出错", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package cn.ctcc.zookeeperclient.zkclient.ensemble;
+
+import cn.ctcc.zookeeperclient.config.ZookeeperProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/28 10:00
+ * @Description: 按延迟选择服务端--->连接串192.168.241.12:2181,...原样交给ZooKeeper时，客户端随机连一台，之后一直连着它，
+ * 不管它是不是过载或者离得远。3.4版本不能注入HostProvider(StaticHostProvider还会打乱顺序)，这里改成在后台定期探测每台服务端
+ * (见ServerProbe)，新建会话时只把最快的几台交给ZooKeeper：
+ *      connectString()：按score排序的健康服务端，至少minServers台(保证连着的那台挂了还能切换)，再加上score不超过最快的tolerance倍的
+ *      shouldLeave(...)：某台服务端连续degradeProbes轮score超过最快的degradeRatio倍(且至少慢1ms)或者不健康，并且有更好的可选时返回true，
+ *      ZkSessionManager据此把长连接会话迁走(见ZkSessionManager.enableRebalance)
+ * 倍数、绝对差、连续轮数和迁移冷却时间一起做迟滞，避免延迟接近的服务端之间来回迁移。全部服务端都探测不通时退回原连接串
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class LatencyAwareServerSelector implements Closeable {
+
+    /**
+     * 往返时间的指数加权系数
+     */
+    private static final double ALPHA = 0.3;
+
+    /**
+     * score至少比最快的慢这么多才算变慢，局域网里亚毫秒级的差别不值得迁移
+     */
+    private static final long MIN_GAP_MICROS = 1000;
+
+    private final String connectString;
+
+    /**
+     * 连接串里的chroot后缀，没有时为空串
+     */
+    private final String chroot;
+
+    private final String[] servers;
+
+    private final InetSocketAddress[] addresses;
+
+    private final ZookeeperProperties.Ensemble config;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService probeExecutor;
+
+    /**
+     * 每轮探测后的回调，在探测线程里执行
+     */
+    private final List<Runnable> probeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 和servers下标对应，还没探测过时为null
+     */
+    private volatile ServerStatus[] statuses;
+
+
+    public LatencyAwareServerSelector(String connectString, ZookeeperProperties.Ensemble config) {
+        this.connectString = connectString;
+        this.config = config;
+        int slash = connectString.indexOf('/');
+        this.chroot = slash < 0 ? "" : connectString.substring(slash);
+        this.servers = (slash < 0 ? connectString : connectString.substring(0, slash)).split(",");
+        this.addresses = new InetSocketAddress[servers.length];
+        for (int i = 0; i < servers.length; i++) {
+            servers[i] = servers[i].trim();
+            int colon = servers[i].lastIndexOf(':');
+            addresses[i] = colon < 0
+                    ? new InetSocketAddress(servers[i], 2181)
+                    : new InetSocketAddress(servers[i].substring(0, colon), Integer.parseInt(servers[i].substring(colon + 1)));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "zk-server-selector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probeExecutor = Executors.newFixedThreadPool(servers.length, r -> {
+            Thread thread = new Thread(r, "zk-server-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * 开始后台探测，第一轮立即执行
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::probeAll, 0, config.getProbeIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 新建会话用的连接串
+     */
+    public String connectString() {
+        List<ServerStatus> healthy = healthyByScore();
+        if (healthy.isEmpty()) {
+            return connectString;
+        }
+        long best = healthy.get(0).getScore();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < healthy.size(); i++) {
+            ServerStatus status = healthy.get(i);
+            if (i >= config.getMinServers() && status.getScore() > best * config.getTolerance()) {
+                break;
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(status.getServer());
+        }
+        return sb.append(chroot).toString();
+    }
+
+    /**
+     * 连在remote上的会话是否应该迁走，remote不在连接串里时返回false
+     */
+    public boolean shouldLeave(InetSocketAddress remote) {
+        ServerStatus current = find(remote);
+        if (current == null || current.getDegradedProbes() < config.getDegradeProbes()) {
+            return false;
+        }
+        for (ServerStatus status : healthyByScore()) {
+            if (status != current && status.getDegradedProbes() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * remote对应的服务端状态，找不到时返回null
+     */
+    public ServerStatus find(InetSocketAddress remote) {
+        ServerStatus[] current = statuses;
+        if (remote == null || current == null) {
+            return null;
+        }
+        for (ServerStatus status : current) {
+            InetSocketAddress address = status.getAddress();
+            if (address.getPort() == remote.getPort() && address.getAddress() != null
+                    && address.getAddress().equals(remote.getAddress())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 全部服务端的最新状态，按连接串顺序
+     */
+    public List<ServerStatus> getStatuses() {
+        ServerStatus[] current = statuses;
+        return current == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(current));
+    }
+
+    public void addProbeListener(Runnable listener) {
+        probeListeners.add(listener);
+    }
+
+    public void removeProbeListener(Runnable listener) {
+        probeListeners.remove(listener);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        probeExecutor.shutdownNow();
+    }
+
+
+    private List<ServerStatus> healthyByScore() {
+        ServerStatus[] current = statuses;
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        List<ServerStatus> healthy = new ArrayList<>(current.length);
+        for (ServerStatus status : current) {
+            if (status.isHealthy()) {
+                healthy.add(status);
+            }
+        }
+        healthy.sort(Comparator.comparingLong(ServerStatus::getScore));
+        return healthy;
+    }
+
+    /**
+     * 并行探测全部服务端，再统一判断哪些变慢了
+     */
+    private void probeAll() {
+        try {
+            List<Future<ServerProbe.Result>> futures = new ArrayList<>(servers.length);
+            for (InetSocketAddress address : addresses) {
+                futures.add(probeExecutor.submit(() -> ServerProbe.probe(address, config.getProbeTimeoutMillis())));
+            }
+            ServerStatus[] previous = statuses;
+            ServerStatus[] next = new ServerStatus[servers.length];
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < servers.length; i++) {
+                ServerStatus last = previous == null ? null : previous[i];
+                long rtt = last == null ? -1 : last.getRttMicros();
+                try {
+                    ServerProbe.Result result = futures.get(i).get();
+                    rtt = rtt < 0 ? result.getRttMicros() : (long) (rtt + (result.getRttMicros() - rtt) * ALPHA);
+                    long score = rtt + result.getOutstanding() * config.getOutstandingPenaltyMicros();
+                    next[i] = new ServerStatus(servers[i], addresses[i], true, rtt, result.getOutstanding(), score, 0);
+                    best = Math.min(best, score);
+                } catch (ExecutionException e) {
+                    log.debug("探测{}失败", servers[i], e.getCause());
+                    next[i] = new ServerStatus(servers[i], addresses[i], false, rtt, -1, Long.MAX_VALUE, 0);
+                }
+            }
+            for (int i = 0; i < next.length; i++) {
+                boolean degraded = !next[i].isHealthy()
+                        || (next[i].getScore() > best * config.getDegradeRatio() && next[i].getScore() - best >= MIN_GAP_MICROS);
+                int degradedProbes = degraded ? (previous == null ? 0 : previous[i].getDegradedProbes()) + 1 : 0;
+                next[i] = next[i].withDegradedProbes(degradedProbes);
+                if (degradedProbes == config.getDegradeProbes()) {
+                    log.warn("zookeeper服务端{}连续{}轮变慢或不可用", next[i], degradedProbes);
+                }
+            }
+            statuses = next;
+            for (Runnable listener : probeListeners) {
+                listener.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("探测zookeeper服务端失败", e);
+        }
+    }
+}
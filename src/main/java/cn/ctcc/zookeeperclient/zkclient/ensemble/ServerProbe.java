@@ -0,0 +1,103 @@
+package cn.ctcc.zookeeperclient.zkclient.ensemble;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/28 9:30
+ * @Description: 用四字命令srvr探测一台服务端：往返时间是从建立TCP连接到读完响应的耗时，
+ * 负载取响应里的Outstanding(服务端排队未处理的请求数)。不在服务状态(选举中、未加入集群)或读不到Mode时算不健康
+ * @Modified:
+ * @version: V1.0
+ */
+public final class ServerProbe {
+
+    private static final byte[] SRVR = "srvr".getBytes(StandardCharsets.US_ASCII);
+
+    private ServerProbe() {
+    }
+
+
+    /**
+     * 探测结果
+     */
+    public static final class Result {
+
+        private final long rttMicros;
+
+        private final long outstanding;
+
+        private final String mode;
+
+        Result(long rttMicros, long outstanding, String mode) {
+            this.rttMicros = rttMicros;
+            this.outstanding = outstanding;
+            this.mode = mode;
+        }
+
+        public long getRttMicros() {
+            return rttMicros;
+        }
+
+        public long getOutstanding() {
+            return outstanding;
+        }
+
+        /**
+         * leader、follower、observer或standalone
+         */
+        public String getMode() {
+            return mode;
+        }
+    }
+
+    /**
+     * 探测一次，连接失败、超时或服务端不在服务状态时抛IOException
+     */
+    public static Result probe(InetSocketAddress address, int timeoutMillis) throws IOException {
+        long start = System.nanoTime();
+        String response;
+        try (Socket socket = new Socket()) {
+            socket.connect(address, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            out.write(SRVR);
+            out.flush();
+            response = readAll(socket.getInputStream());
+        }
+        long rttMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        long outstanding = -1;
+        String mode = null;
+        for (String line : response.split("\n")) {
+            if (line.startsWith("Outstanding:")) {
+                outstanding = Long.parseLong(line.substring("Outstanding:".length()).trim());
+            } else if (line.startsWith("Mode:")) {
+                mode = line.substring("Mode:".length()).trim();
+            }
+        }
+        if (mode == null || outstanding < 0) {
+            throw new IOException(address + "不在服务状态: " + response.trim());
+        }
+        return new Result(rttMicros, outstanding, mode);
+    }
+
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        byte[] chunk = new byte[512];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, n);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,85 @@
+package cn.ctcc.zookeeperclient.zkclient.ensemble;
+
+import java.net.InetSocketAddress;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/28 9:50
+ * @Description: 一台服务端最近一次探测后的状态，创建后不再修改。
+ * 往返时间是指数加权平均，score = 往返时间 + Outstanding * 每个排队请求的惩罚，越小越好
+ * @Modified:
+ * @version: V1.0
+ */
+public final class ServerStatus {
+
+    private final String server;
+
+    private final InetSocketAddress address;
+
+    private final boolean healthy;
+
+    private final long rttMicros;
+
+    private final long outstanding;
+
+    private final long score;
+
+    /**
+     * 连续被判定为变慢(或不健康)的探测轮数
+     */
+    private final int degradedProbes;
+
+
+    ServerStatus(String server, InetSocketAddress address, boolean healthy, long rttMicros, long outstanding,
+                 long score, int degradedProbes) {
+        this.server = server;
+        this.address = address;
+        this.healthy = healthy;
+        this.rttMicros = rttMicros;
+        this.outstanding = outstanding;
+        this.score = score;
+        this.degradedProbes = degradedProbes;
+    }
+
+
+    /**
+     * 连接串里的写法，如192.168.241.12:2181
+     */
+    public String getServer() {
+        return server;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getRttMicros() {
+        return rttMicros;
+    }
+
+    public long getOutstanding() {
+        return outstanding;
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public int getDegradedProbes() {
+        return degradedProbes;
+    }
+
+    ServerStatus withDegradedProbes(int degradedProbes) {
+        return new ServerStatus(server, address, healthy, rttMicros, outstanding, score, degradedProbes);
+    }
+
+    @Override
+    public String toString() {
+        return server + (healthy ? "(rtt=" + rttMicros + "us, outstanding=" + outstanding + ", score=" + score + ")" : "(down)")
+                + (degradedProbes > 0 ? " degraded=" + degradedProbes : "");
+    }
+}
@@ -0,0 +1,332 @@
+package cn.ctcc.zookeeperclient.zkclient.session;
+
+import cn.ctcc.zookeeperclient.zkclient.ensemble.LatencyAwareServerSelector;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 9:45
+ * @Description: 共享会话管理器--->ZookeeperClientAPITest中每个方法都new ZooKeeper(...)，
+ * 一个操作就是一条TCP连接、一对SendThread/EventThread和一个服务端会话。
+ * 这里固定维护poolSize个长连接会话，首次使用时建立连接并等待SyncConnected，之后所有同步、异步操作都复用这些会话。
+ * 会话过期(Expired)后，下一次获取时会自动重建。
+ * 设置了LatencyAwareServerSelector时，新建会话只连它挑出来的较快的服务端；开启迁移后，连在变慢服务端上的会话会被换成新会话，
+ * 每轮探测最多迁一个，同一个槽位两次迁移至少间隔冷却时间。迁移会关闭旧会话，临时节点随之删除，监听器会收到一个Expired事件(path为null)，
+ * 和真正过期一样重新注册监听、清空缓存。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class ZkSessionManager implements Closeable {
+
+    /**
+     * znode节点
+     */
+    private final String connectString;
+
+    /**
+     * 会话超时时间
+     */
+    private final int sessionTimeout;
+
+    /**
+     * 等待SyncConnected的超时时间
+     */
+    private final int connectionTimeout;
+
+    /**
+     * 会话槽位，每个槽位持有一个长连接会话
+     */
+    private final Slot[] slots;
+
+    /**
+     * 轮询下标
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * 连接状态监听器：所有会话的None类型事件(连接、断开、过期)都会转发给它们
+     */
+    private final List<Watcher> connectionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 按延迟选择服务端，为null时直接用connectString
+     */
+    private volatile LatencyAwareServerSelector serverSelector;
+
+    /**
+     * 同一个槽位两次迁移的最小间隔，小于0表示不迁移
+     */
+    private volatile long rebalanceCooldownNanos = -1;
+
+    private volatile boolean closed;
+
+
+    public ZkSessionManager(String connectString, int sessionTimeout, int connectionTimeout, int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize必须大于0: " + poolSize);
+        }
+        this.connectString = connectString;
+        this.sessionTimeout = sessionTimeout;
+        this.connectionTimeout = connectionTimeout;
+        this.slots = new Slot[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+
+    /**
+     * 轮询获取一个已连接的会话
+     */
+    public ZooKeeper session() throws IOException {
+        int index = (next.getAndIncrement() & Integer.MAX_VALUE) % slots.length;
+        return slots[index].get();
+    }
+
+    /**
+     * 按key(一般是path)固定到某个会话上，同一个key的请求在同一个会话内按顺序执行
+     */
+    public ZooKeeper session(String key) throws IOException {
+        return slots[indexFor(key)].get();
+    }
+
+    /**
+     * key对应的会话下标
+     */
+    public int indexFor(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % slots.length;
+    }
+
+    /**
+     * 会话个数
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * 添加连接状态监听器
+     */
+    public void addConnectionListener(Watcher listener) {
+        connectionListeners.add(listener);
+    }
+
+    public void removeConnectionListener(Watcher listener) {
+        connectionListeners.remove(listener);
+    }
+
+    public String getConnectString() {
+        return connectString;
+    }
+
+    /**
+     * 新建会话时用selector挑出的服务端
+     */
+    public void setServerSelector(LatencyAwareServerSelector serverSelector) {
+        this.serverSelector = serverSelector;
+    }
+
+    /**
+     * 每轮探测后把连在变慢服务端上的会话迁走，需要先setServerSelector
+     */
+    public void enableRebalance(long cooldownMillis) {
+        LatencyAwareServerSelector selector = serverSelector;
+        if (selector == null) {
+            throw new IllegalStateException("没有设置LatencyAwareServerSelector");
+        }
+        rebalanceCooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        selector.addProbeListener(this::rebalance);
+    }
+
+    /**
+     * 第index个会话当前连着的服务端，没有连接时返回null
+     */
+    public InetSocketAddress getServerAddress(int index) {
+        return slots[index].remoteAddress();
+    }
+
+    /**
+     * 迁走一个连在变慢服务端上、并且已过冷却时间的会话
+     */
+    void rebalance() {
+        LatencyAwareServerSelector selector = serverSelector;
+        long cooldown = rebalanceCooldownNanos;
+        if (selector == null || cooldown < 0 || closed) {
+            return;
+        }
+        for (Slot slot : slots) {
+            InetSocketAddress remote = slot.remoteAddress();
+            if (remote != null && System.nanoTime() - slot.connectedAt >= cooldown && selector.shouldLeave(remote)) {
+                try {
+                    slot.move(remote);
+                } catch (IOException e) {
+                    log.warn("迁移连在{}上的会话失败", remote, e);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            slot.close();
+        }
+    }
+
+
+    /**
+     * 会话槽位：懒加载建立连接，会话失效后重建
+     */
+    private final class Slot {
+
+        private volatile ZooKeeper zooKeeper;
+
+        /**
+         * 当前会话建立的时间(nanoTime)
+         */
+        private volatile long connectedAt;
+
+        ZooKeeper get() throws IOException {
+            ZooKeeper zk = zooKeeper;
+            if (zk != null && zk.getState().isAlive()) {
+                return zk;
+            }
+            synchronized (this) {
+                zk = zooKeeper;
+                if (zk == null || !zk.getState().isAlive()) {
+                    zk = connect();
+                    zooKeeper = zk;
+                }
+                return zk;
+            }
+        }
+
+        /**
+         * 换成一个新会话，再关闭旧会话并通知监听器
+         */
+        void move(InetSocketAddress from) throws IOException {
+            ZooKeeper old;
+            ZooKeeper zk;
+            synchronized (this) {
+                old = zooKeeper;
+                zk = connect();
+                zooKeeper = zk;
+            }
+            log.info("会话从{}迁移到{}", from, remoteAddress());
+            if (old != null) {
+                closeQuietly(old);
+            }
+            WatchedEvent expired = new WatchedEvent(Watcher.Event.EventType.None, Watcher.Event.KeeperState.Expired, null);
+            for (Watcher listener : connectionListeners) {
+                listener.process(expired);
+            }
+        }
+
+        InetSocketAddress remoteAddress() {
+            ZooKeeper zk = zooKeeper;
+            if (!(zk instanceof RemoteAwareZooKeeper) || !zk.getState().isConnected()) {
+                return null;
+            }
+            SocketAddress address = ((RemoteAwareZooKeeper) zk).remoteAddress();
+            return address instanceof InetSocketAddress ? (InetSocketAddress) address : null;
+        }
+
+        private ZooKeeper connect() throws IOException {
+            if (closed) {
+                throw new IOException("ZkSessionManager已关闭");
+            }
+            LatencyAwareServerSelector selector = serverSelector;
+            String target = selector == null ? connectString : selector.connectString();
+            //每个会话一个监听对象，迁移时旧会话重连产生的SyncConnected不会打开新会话的闩
+            SessionWatcher watcher = new SessionWatcher();
+            ZooKeeper zk = new RemoteAwareZooKeeper(target, sessionTimeout, watcher);
+            try {
+                if (!watcher.connected.await(connectionTimeout, TimeUnit.MILLISECONDS)) {
+                    zk.close();
+                    throw new IOException("连接zookeeper超时: " + target);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closeQuietly(zk);
+                throw new InterruptedIOException("等待zookeeper连接时被中断");
+            }
+            connectedAt = System.nanoTime();
+            return zk;
+        }
+
+        synchronized void close() {
+            ZooKeeper zk = zooKeeper;
+            zooKeeper = null;
+            if (zk != null) {
+                closeQuietly(zk);
+            }
+        }
+
+        private void closeQuietly(ZooKeeper zk) {
+            try {
+                zk.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * 一个会话的默认监听：自己的SyncConnected打开自己的闩，连接状态事件转发给connectionListeners
+     */
+    private final class SessionWatcher implements Watcher {
+
+        private final CountDownLatch connected = new CountDownLatch(1);
+
+        @Override
+        public void process(WatchedEvent watchedEvent) {
+            if (watchedEvent.getType() != Event.EventType.None) {
+                return;
+            }
+            if (watchedEvent.getState() == Event.KeeperState.SyncConnected) {
+                connected.countDown();
+            }
+            for (Watcher listener : connectionListeners) {
+                listener.process(watchedEvent);
+            }
+        }
+    }
+
+
+    /**
+     * 3.4版本只有受保护的testableRemoteSocketAddress()能拿到当前连着的服务端
+     */
+    private static final class RemoteAwareZooKeeper extends ZooKeeper {
+
+        RemoteAwareZooKeeper(String connectString, int sessionTimeout, Watcher watcher) throws IOException {
+            super(connectString, sessionTimeout, watcher);
+        }
+
+        SocketAddress remoteAddress() {
+            try {
+                return testableRemoteSocketAddress();
+            } catch (RuntimeException e) {
+                //连接正在切换
+                return null;
+            }
+        }
+    }
+}
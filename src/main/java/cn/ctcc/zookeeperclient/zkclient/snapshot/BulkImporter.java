@@ -0,0 +1,363 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 10:00
+ * @Description: 从快照文件批量恢复--->像CuratorAPITest.test06那样creatingParentContainersIfNeeded一个个创建，大树要几个小时。
+ * 这里：
+ *      先内存映射扫描一遍文件，按深度记录每条记录的位置，再一层一层创建，保证父节点先于子节点；
+ *      同一层按父路径排序，兄弟节点相邻，按个数和字节数切成multi()批次，最多window个批次同时在途；
+ *      批次中已存在的节点算成功(NodeExists)，其余被回滚的操作重新提交，所以重复执行是幂等的；
+ *      进度(层号、层内已连续完成的批次号)定期写到"<快照文件>.progress"，崩溃后重新执行会从断点继续。
+ * 临时节点不恢复；有序节点按原名创建为持久节点。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class BulkImporter {
+
+    private static final int OK = KeeperException.Code.OK.intValue();
+
+    private static final int RUNTIME_INCONSISTENCY = KeeperException.Code.RUNTIMEINCONSISTENCY.intValue();
+
+    private static final int NODE_EXISTS = KeeperException.Code.NODEEXISTS.intValue();
+
+    /**
+     * 每隔多少个批次保存一次进度
+     */
+    private static final int CHECKPOINT_INTERVAL = 100;
+
+    /**
+     * 进度日志间隔
+     */
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 同时在途的批次数
+     */
+    private final int window;
+
+    /**
+     * 一批最多多少个节点
+     */
+    private final int maxBatchOps;
+
+    /**
+     * 一批最多多少字节，要小于jute.maxbuffer
+     */
+    private final int maxBatchBytes;
+
+
+    public BulkImporter(AsyncZkClient asyncZkClient, int window, int maxBatchOps, int maxBatchBytes) {
+        this.asyncZkClient = asyncZkClient;
+        this.window = window;
+        this.maxBatchOps = maxBatchOps;
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+
+    public ImportReport importFile(Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Path progressFile = Paths.get(file.toString() + ".progress");
+        int[] checkpoint = readCheckpoint(progressFile);
+        Counters counters = new Counters();
+
+        try (MappedSnapshotFile snapshot = new MappedSnapshotFile(file)) {
+            TreeMap<Integer, LevelIndex> levels = scan(snapshot);
+            long lastReport = System.nanoTime();
+
+            for (LevelIndex level : levels.values()) {
+                if (level.depth < checkpoint[0]) {
+                    continue;
+                }
+                int resumeBatch = level.depth == checkpoint[0] ? checkpoint[1] : 0;
+                Progress progress = new Progress(progressFile, level.depth, resumeBatch);
+                Semaphore permits = new Semaphore(window);
+                AtomicReference<Throwable> failure = new AtomicReference<>();
+
+                long[] order = level.sortedBySibling();
+                List<Op> ops = new ArrayList<>(maxBatchOps);
+                int bytes = 0;
+                int batchIndex = 0;
+                for (int i = 0; i <= order.length; i++) {
+                    Op op = null;
+                    int opBytes = 0;
+                    if (i < order.length) {
+                        SnapshotRecord record = SnapshotFormat.decode(snapshot.recordAt(level.offsets[(int) order[i]]));
+                        if (record.getStat().getEphemeralOwner() != 0) {
+                            counters.skipped.incrementAndGet();
+                            continue;
+                        }
+                        opBytes = record.getPath().length() + (record.getData() == null ? 0 : record.getData().length);
+                        op = Op.create(record.getPath(), record.getData(), record.getAcl(), CreateMode.PERSISTENT);
+                    }
+                    boolean full = !ops.isEmpty() && (op == null || ops.size() >= maxBatchOps || bytes + opBytes > maxBatchBytes);
+                    if (full) {
+                        int index = batchIndex++;
+                        if (index >= resumeBatch) {
+                            submit(new ArrayList<>(ops), index, permits, progress, counters, failure);
+                        }
+                        ops.clear();
+                        bytes = 0;
+                    }
+                    if (op != null) {
+                        ops.add(op);
+                        bytes += opBytes;
+                    }
+                    if (failure.get() != null) {
+                        break;
+                    }
+                    if (System.nanoTime() - lastReport > REPORT_INTERVAL_NANOS) {
+                        lastReport = System.nanoTime();
+                        log.info("导入进度: depth={}, {}", level.depth, counters.report(start));
+                    }
+                }
+
+                //等待本层全部完成再创建下一层
+                permits.acquire(window);
+                if (failure.get() != null) {
+                    Throwable error = failure.get();
+                    throw new IOException("导入失败: depth=" + level.depth,
+                            error instanceof CompletionException ? error.getCause() : error);
+                }
+                writeCheckpoint(progressFile, level.depth + 1, 0);
+                log.info("第{}层导入完成: {}", level.depth, counters.report(start));
+            }
+        }
+        Files.deleteIfExists(progressFile);
+        return counters.report(start);
+    }
+
+
+    private void submit(List<Op> ops, int index, Semaphore permits, Progress progress, Counters counters,
+                        AtomicReference<Throwable> failure) throws InterruptedException {
+        permits.acquire();
+        execute(ops, counters).whenComplete((v, error) -> {
+            if (error != null) {
+                failure.compareAndSet(null, error);
+            } else {
+                progress.done(index);
+            }
+            permits.release();
+        });
+    }
+
+    /**
+     * 执行一批创建：已存在的节点算成功，其它失败的节点记为失败，被回滚的节点重新提交
+     */
+    private CompletableFuture<Void> execute(List<Op> ops, Counters counters) {
+        return asyncZkClient.multi(ops).thenComposeAsync(results -> {
+            List<Op> retry = new ArrayList<>();
+            int created = 0;
+            for (int i = 0; i < results.size(); i++) {
+                OpResult result = results.get(i);
+                if (!(result instanceof OpResult.ErrorResult)) {
+                    created++;
+                    continue;
+                }
+                int err = ((OpResult.ErrorResult) result).getErr();
+                if (err == OK || err == RUNTIME_INCONSISTENCY) {
+                    retry.add(ops.get(i));
+                } else if (err == NODE_EXISTS) {
+                    counters.existed.incrementAndGet();
+                } else {
+                    counters.failed.incrementAndGet();
+                    log.warn("创建节点失败: {} {}", ops.get(i).getPath(), KeeperException.Code.get(err));
+                }
+            }
+            counters.created.addAndGet(created);
+            if (retry.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (retry.size() == ops.size()) {
+                //找不到出错的操作，逐个提交
+                List<CompletableFuture<Void>> singles = new ArrayList<>(retry.size());
+                for (Op op : retry) {
+                    singles.add(execute(singletonOrFail(op, retry), counters));
+                }
+                return CompletableFuture.allOf(singles.toArray(new CompletableFuture[0]));
+            }
+            return execute(retry, counters);
+        });
+    }
+
+    private static List<Op> singletonOrFail(Op op, List<Op> retry) {
+        if (retry.size() == 1) {
+            throw new CompletionException(KeeperException.create(KeeperException.Code.RUNTIMEINCONSISTENCY, op.getPath()));
+        }
+        List<Op> single = new ArrayList<>(1);
+        single.add(op);
+        return single;
+    }
+
+    /**
+     * 扫描文件，按深度记录每条记录的位置和父路径哈希
+     */
+    private TreeMap<Integer, LevelIndex> scan(MappedSnapshotFile snapshot) throws IOException {
+        TreeMap<Integer, LevelIndex> levels = new TreeMap<>();
+        for (long offset = snapshot.firstOffset(); offset < snapshot.size(); offset = snapshot.next(offset)) {
+            ByteBuffer record = snapshot.recordAt(offset);
+            String path = SnapshotFormat.peekPath(record);
+            int depth = depth(path);
+            int parentEnd = path.lastIndexOf('/');
+            int parentHash = path.substring(0, parentEnd).hashCode();
+            levels.computeIfAbsent(depth, LevelIndex::new).add(offset, parentHash);
+        }
+        return levels;
+    }
+
+    private static int depth(String path) {
+        if ("/".equals(path)) {
+            return 0;
+        }
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static int[] readCheckpoint(Path progressFile) throws IOException {
+        if (!Files.exists(progressFile)) {
+            return new int[]{0, 0};
+        }
+        String[] parts = new String(Files.readAllBytes(progressFile), StandardCharsets.UTF_8).trim().split("\\s+");
+        log.info("从断点继续导入: depth={}, batch={}", parts[0], parts[1]);
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    private static void writeCheckpoint(Path progressFile, int depth, int batch) throws IOException {
+        Path temp = Paths.get(progressFile.toString() + ".tmp");
+        Files.write(temp, (depth + " " + batch).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * 一层的记录位置
+     */
+    private static final class LevelIndex {
+
+        private final int depth;
+
+        private long[] offsets = new long[64];
+
+        private int[] parentHashes = new int[64];
+
+        private int size;
+
+        LevelIndex(int depth) {
+            this.depth = depth;
+        }
+
+        void add(long offset, int parentHash) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                parentHashes = Arrays.copyOf(parentHashes, size * 2);
+            }
+            offsets[size] = offset;
+            parentHashes[size] = parentHash;
+            size++;
+        }
+
+        /**
+         * 按父路径哈希排序后的下标，兄弟节点相邻；排序结果是确定的，续传时批次划分不变
+         */
+        long[] sortedBySibling() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) parentHashes[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < size; i++) {
+                keys[i] = keys[i] & 0xFFFFFFFFL;
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * 层内进度：记录连续完成的批次号，定期保存
+     */
+    private static final class Progress {
+
+        private final Path progressFile;
+
+        private final int depth;
+
+        private final List<Boolean> done = new ArrayList<>();
+
+        private int contiguous;
+
+        private int sinceCheckpoint;
+
+        Progress(Path progressFile, int depth, int resumeBatch) {
+            this.progressFile = progressFile;
+            this.depth = depth;
+            this.contiguous = resumeBatch;
+        }
+
+        synchronized void done(int index) {
+            while (done.size() <= index) {
+                done.add(Boolean.FALSE);
+            }
+            done.set(index, Boolean.TRUE);
+            while (contiguous < done.size() && done.get(contiguous)) {
+                contiguous++;
+            }
+            if (++sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                sinceCheckpoint = 0;
+                try {
+                    writeCheckpoint(progressFile, depth, contiguous);
+                } catch (IOException e) {
+                    log.warn("保存导入进度失败", e);
+                }
+            }
+        }
+    }
+
+    private static final class Counters {
+
+        private final AtomicLong created = new AtomicLong();
+
+        private final AtomicLong existed = new AtomicLong();
+
+        private final AtomicLong skipped = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        ImportReport report(long startNanos) {
+            return new ImportReport(created.get(), existed.get(), skipped.get(), failed.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+}
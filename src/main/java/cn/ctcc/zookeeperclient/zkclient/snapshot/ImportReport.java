@@ -0,0 +1,60 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 9:50
+ * @Description: 导入统计：新建、已存在(续传时跳过)、忽略(临时节点)和失败的节点数
+ * @Modified:
+ * @version: V1.0
+ */
+public final class ImportReport {
+
+    private final long created;
+
+    private final long existed;
+
+    private final long skipped;
+
+    private final long failed;
+
+    private final long elapsedMillis;
+
+    public ImportReport(long created, long existed, long skipped, long failed, long elapsedMillis) {
+        this.created = created;
+        this.existed = existed;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getExisted() {
+        return existed;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getNodesPerSecond() {
+        long nodes = created + existed;
+        return elapsedMillis == 0 ? nodes : nodes * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("created=%d, existed=%d, skipped=%d, failed=%d, elapsed=%dms, nodes/sec=%.1f",
+                created, existed, skipped, failed, elapsedMillis, getNodesPerSecond());
+    }
+}
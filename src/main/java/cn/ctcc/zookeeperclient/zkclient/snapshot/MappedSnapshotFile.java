@@ -0,0 +1,96 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 9:30
+ * @Description: 以内存映射方式读取快照文件：按窗口映射(默认256MB)，记录跨窗口时从记录开头重新映射，
+ * 所以文件可以超过2GB。非线程安全。
+ * @Modified:
+ * @version: V1.0
+ */
+public class MappedSnapshotFile implements Closeable {
+
+    private static final long DEFAULT_WINDOW = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart = -1;
+
+
+    public MappedSnapshotFile(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+
+    public MappedSnapshotFile(Path file, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.MAGIC.length);
+        channel.read(header, 0);
+        header.flip();
+        SnapshotFormat.checkMagic(header);
+    }
+
+
+    /**
+     * 第一条记录的位置
+     */
+    public long firstOffset() {
+        return SnapshotFormat.MAGIC.length;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 返回一个position指向offset处记录开头的buffer，整条记录都在buffer里
+     */
+    public ByteBuffer recordAt(long offset) throws IOException {
+        ByteBuffer buffer = map(offset, 4);
+        int length = buffer.getInt(buffer.position());
+        return map(offset, 4 + length);
+    }
+
+    /**
+     * 下一条记录的位置
+     */
+    public long next(long offset) throws IOException {
+        ByteBuffer buffer = map(offset, 4);
+        return offset + 4 + buffer.getInt(buffer.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    private ByteBuffer map(long offset, int length) throws IOException {
+        if (offset + length > size) {
+            throw new IOException("快照文件不完整: offset=" + offset);
+        }
+        if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+            long mapSize = Math.min(Math.max(windowSize, length), size - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapSize);
+            windowStart = offset;
+        }
+        ByteBuffer view = window.duplicate();
+        view.position((int) (offset - windowStart));
+        return view;
+    }
+}
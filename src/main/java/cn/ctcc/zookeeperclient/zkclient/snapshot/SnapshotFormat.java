@@ -0,0 +1,152 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Id;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 15:35
+ * @Description: 快照文件格式：
+ *      文件头：8字节魔数"ZKSNAP01"
+ *      之后是若干条记录，每条记录：int记录长度(不含自身) + 记录体
+ *      记录体：short路径长度 + 路径(UTF-8)
+ *             + Stat(czxid、mzxid、ctime、mtime、pzxid、ephemeralOwner共6个long，version、cversion、aversion、dataLength、numChildren共5个int)
+ *             + int ACL个数 + 每个ACL(int perms + short scheme长度 + scheme + short id长度 + id)
+ *             + int数据长度(-1表示null) + 数据
+ * 记录之间没有顺序要求。
+ * @Modified:
+ * @version: V1.0
+ */
+public final class SnapshotFormat {
+
+    public static final byte[] MAGIC = "ZKSNAP01".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int STAT_BYTES = 6 * 8 + 5 * 4;
+
+    private SnapshotFormat() {
+    }
+
+
+    /**
+     * 把一条记录编码成带长度前缀的ByteBuffer(已flip)
+     */
+    public static ByteBuffer encode(SnapshotRecord record) {
+        byte[] path = record.getPath().getBytes(StandardCharsets.UTF_8);
+        List<ACL> acl = record.getAcl();
+        byte[] data = record.getData();
+
+        int size = 2 + path.length + STAT_BYTES + 4;
+        List<byte[]> aclStrings = new ArrayList<>(acl.size() * 2);
+        for (ACL entry : acl) {
+            byte[] scheme = entry.getId().getScheme().getBytes(StandardCharsets.UTF_8);
+            byte[] id = entry.getId().getId().getBytes(StandardCharsets.UTF_8);
+            aclStrings.add(scheme);
+            aclStrings.add(id);
+            size += 4 + 2 + scheme.length + 2 + id.length;
+        }
+        size += 4 + (data == null ? 0 : data.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + size);
+        buffer.putInt(size);
+        buffer.putShort((short) path.length).put(path);
+        Stat stat = record.getStat();
+        buffer.putLong(stat.getCzxid()).putLong(stat.getMzxid()).putLong(stat.getCtime()).putLong(stat.getMtime())
+                .putLong(stat.getPzxid()).putLong(stat.getEphemeralOwner())
+                .putInt(stat.getVersion()).putInt(stat.getCversion()).putInt(stat.getAversion())
+                .putInt(stat.getDataLength()).putInt(stat.getNumChildren());
+        buffer.putInt(acl.size());
+        for (int i = 0; i < acl.size(); i++) {
+            byte[] scheme = aclStrings.get(i * 2);
+            byte[] id = aclStrings.get(i * 2 + 1);
+            buffer.putInt(acl.get(i).getPerms());
+            buffer.putShort((short) scheme.length).put(scheme);
+            buffer.putShort((short) id.length).put(id);
+        }
+        if (data == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(data.length).put(data);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 从当前位置解码一条记录，position移到下一条记录
+     */
+    public static SnapshotRecord decode(ByteBuffer buffer) throws IOException {
+        int size = buffer.getInt();
+        if (size <= 0 || size > buffer.remaining()) {
+            throw new IOException("快照记录长度错误: " + size);
+        }
+        String path = readString(buffer);
+        Stat stat = new Stat();
+        stat.setCzxid(buffer.getLong());
+        stat.setMzxid(buffer.getLong());
+        stat.setCtime(buffer.getLong());
+        stat.setMtime(buffer.getLong());
+        stat.setPzxid(buffer.getLong());
+        stat.setEphemeralOwner(buffer.getLong());
+        stat.setVersion(buffer.getInt());
+        stat.setCversion(buffer.getInt());
+        stat.setAversion(buffer.getInt());
+        stat.setDataLength(buffer.getInt());
+        stat.setNumChildren(buffer.getInt());
+        int aclCount = buffer.getInt();
+        List<ACL> acl = new ArrayList<>(aclCount);
+        for (int i = 0; i < aclCount; i++) {
+            int perms = buffer.getInt();
+            String scheme = readString(buffer);
+            String id = readString(buffer);
+            acl.add(new ACL(perms, new Id(scheme, id)));
+        }
+        int dataLength = buffer.getInt();
+        byte[] data = null;
+        if (dataLength >= 0) {
+            data = new byte[dataLength];
+            buffer.get(data);
+        }
+        return new SnapshotRecord(path, stat, acl, data);
+    }
+
+    /**
+     * 只读取记录的路径，不移动position(position需要在记录开头)
+     */
+    public static String peekPath(ByteBuffer buffer) {
+        int position = buffer.position();
+        byte[] path = new byte[buffer.getShort(position + 4) & 0xFFFF];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = buffer.get(position + 6 + i);
+        }
+        return new String(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 校验文件头
+     */
+    public static void checkMagic(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() < magic.length) {
+            throw new IOException("不是快照文件");
+        }
+        buffer.get(magic);
+        for (int i = 0; i < magic.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("不是快照文件");
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.List;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 15:30
+ * @Description: 快照文件中的一个节点：路径、Stat、ACL和数据
+ * @Modified:
+ * @version: V1.0
+ */
+public final class SnapshotRecord {
+
+    private final String path;
+
+    private final Stat stat;
+
+    private final List<ACL> acl;
+
+    private final byte[] data;
+
+    public SnapshotRecord(String path, Stat stat, List<ACL> acl, byte[] data) {
+        this.path = path;
+        this.stat = stat;
+        this.acl = acl;
+        this.data = data;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Stat getStat() {
+        return stat;
+    }
+
+    public List<ACL> getAcl() {
+        return acl;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+}
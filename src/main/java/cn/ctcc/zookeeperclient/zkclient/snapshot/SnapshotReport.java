@@ -0,0 +1,44 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 15:50
+ * @Description: 导出/导入的统计结果
+ * @Modified:
+ * @version: V1.0
+ */
+public final class SnapshotReport {
+
+    private final long nodes;
+
+    private final long bytes;
+
+    private final long elapsedMillis;
+
+    public SnapshotReport(long nodes, long bytes, long elapsedMillis) {
+        this.nodes = nodes;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedMillis == 0 ? nodes : nodes * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes=%d, bytes=%d, elapsed=%dms, nodes/sec=%.1f", nodes, bytes, elapsedMillis, getNodesPerSecond());
+    }
+}
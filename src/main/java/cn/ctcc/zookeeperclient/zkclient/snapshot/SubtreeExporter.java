@@ -0,0 +1,214 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.async.NodeData;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.ACL;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 16:00
+ * @Description: 并行流式子树导出--->test04、test06那样串行getData/getChildren，大子树要导很久。
+ * 这里最多同时处理concurrency个节点，每个节点并行发出getData、getACL、getChildren；
+ * 结果编码成SnapshotFormat记录，交给写线程顺序写入FileChannel；等待写入的记录数由主线程在发请求前限制，
+ * 回调(ZooKeeper的EventThread)里只入队不阻塞，写线程慢时不会卡住共享会话上的其它回调和监听。
+ * 待访问路径按栈(深度优先)处理，内存只和当前路径上各层的子节点列表有关，和整棵树的大小无关。
+ * 导出过程中被删除的节点直接跳过。
+ * @Modified:
+ * @version: V1.0
+ */
+public class SubtreeExporter {
+
+    /**
+     * 写线程的结束标记
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 同时处理的节点数
+     */
+    private final int concurrency;
+
+    /**
+     * 等待写入的记录数上限(包括正在读取的节点)
+     */
+    private final int writeQueueSize;
+
+
+    public SubtreeExporter(AsyncZkClient asyncZkClient, int concurrency) {
+        this(asyncZkClient, concurrency, 4096);
+    }
+
+    public SubtreeExporter(AsyncZkClient asyncZkClient, int concurrency, int writeQueueSize) {
+        this.asyncZkClient = asyncZkClient;
+        this.concurrency = concurrency;
+        this.writeQueueSize = writeQueueSize;
+    }
+
+
+    /**
+     * 导出rootPath及其所有子孙节点到file
+     */
+    public SnapshotReport export(String rootPath, Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        LinkedBlockingDeque<String> pending = new LinkedBlockingDeque<>();
+        //队列本身不限长，由writeSlots限制：主线程先占一个位置再访问节点，写线程写完一条归还，回调里不会阻塞
+        BlockingQueue<ByteBuffer> writeQueue = new LinkedBlockingQueue<>();
+        Semaphore writeSlots = new Semaphore(writeQueueSize);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger active = new AtomicInteger();
+        AtomicLong nodes = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(SnapshotFormat.MAGIC));
+            Writer writer = new Writer(channel, writeQueue, writeSlots);
+            writer.start();
+
+            pending.push(rootPath);
+            //写文件出错后不再继续读子树
+            while (failure.get() == null && writer.error == null) {
+                String path = pending.pollFirst(10, TimeUnit.MILLISECONDS);
+                if (path == null) {
+                    //先看active再看队列：active为0时不会再有节点往队列里放子节点
+                    if (active.get() == 0 && pending.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                writeSlots.acquire();
+                permits.acquire();
+                active.incrementAndGet();
+                visit(path, pending, writeQueue).whenComplete((v, error) -> {
+                    if (error != null) {
+                        failure.compareAndSet(null, error);
+                    } else if (v) {
+                        nodes.incrementAndGet();
+                    }
+                    //没有产生记录时位置直接归还，产生了记录由写线程写完后归还
+                    if (error != null || !v) {
+                        writeSlots.release();
+                    }
+                    active.decrementAndGet();
+                    permits.release();
+                });
+            }
+
+            //等待进行中的请求结束
+            permits.acquire(concurrency);
+            writeQueue.put(END);
+            writer.join();
+            if (writer.error != null) {
+                throw writer.error;
+            }
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new IOException("导出失败: " + rootPath, error instanceof CompletionException ? error.getCause() : error);
+            }
+            return new SnapshotReport(nodes.get(), channel.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * 读取一个节点，结果为false表示节点已被删除
+     */
+    private CompletableFuture<Boolean> visit(String path, LinkedBlockingDeque<String> pending, BlockingQueue<ByteBuffer> writeQueue) {
+        CompletableFuture<NodeData> data = asyncZkClient.getData(path);
+        CompletableFuture<List<ACL>> acl = asyncZkClient.getACL(path);
+        CompletableFuture<List<String>> children = asyncZkClient.getChildren(path);
+        return CompletableFuture.allOf(data, acl, children).handle((v, error) -> {
+            if (error != null) {
+                if (isNoNode(error)) {
+                    return false;
+                }
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            NodeData nodeData = data.join();
+            ByteBuffer record = SnapshotFormat.encode(new SnapshotRecord(path, nodeData.getStat(), acl.join(), nodeData.getData()));
+            //在EventThread里执行，不能阻塞；主线程已经为这条记录占了位置
+            writeQueue.offer(record);
+            String prefix = "/".equals(path) ? path : path + "/";
+            for (String child : children.join()) {
+                pending.push(prefix + child);
+            }
+            return true;
+        });
+    }
+
+    private static boolean isNoNode(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof KeeperException.NoNodeException;
+    }
+
+
+    /**
+     * 写线程：从队列取记录顺序写入文件
+     */
+    private static final class Writer extends Thread {
+
+        private final FileChannel channel;
+
+        private final BlockingQueue<ByteBuffer> queue;
+
+        private final Semaphore slots;
+
+        private volatile IOException error;
+
+        Writer(FileChannel channel, BlockingQueue<ByteBuffer> queue, Semaphore slots) {
+            super("zk-snapshot-writer");
+            setDaemon(true);
+            this.channel = channel;
+            this.queue = queue;
+            this.slots = slots;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    ByteBuffer record = queue.take();
+                    if (record == END) {
+                        return;
+                    }
+                    //写失败后继续取队列，避免生产者一直阻塞
+                    if (error == null) {
+                        write(record);
+                    }
+                    slots.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void write(ByteBuffer record) {
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package cn.ctcc.zookeeperclient.zkclient.watch;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.dispatch.StripedEventDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 16:05
+ * @Description: 永久监听注册中心--->原生监听只触发一次，CuratorAPITest.test12要在process()里手动重新注册，
+ * 触发和重新注册之间的变化可能丢失；同一个JVM里N个监听同一个path，服务端也会有N个监听。
+ * 这里每个(path, 监听类型)只在服务端注册一个监听，事件分发给JVM内任意多个监听器。
+ * 事件触发后先重新注册，再通知监听器，监听器此时读到的数据一定不早于重新注册的时刻，间隙里的变化不会丢；
+ * 会话过期后所有监听重新注册，并比较重新注册时读到的Stat(mzxid/pzxid)，期间有变化就补发一个事件。
+ * 监听器在StripedEventDispatcher上按path执行，慢监听器不会拖慢其它path。
+ * @Modified:
+ * @version: V1.0
+ */
+@Slf4j
+public class WatchRegistry implements Closeable {
+
+    /**
+     * 重新注册失败(比如连接丢失)后的重试间隔
+     */
+    private static final long RETRY_DELAY_MS = 1000;
+
+    /**
+     * 节点不存在时记录的zxid
+     */
+    private static final long NOT_EXISTS = 0L;
+
+    private final AsyncZkClient asyncZkClient;
+
+    /**
+     * 监听器的执行线程
+     */
+    private final StripedEventDispatcher dispatcher;
+
+    private final ConcurrentHashMap<Key, Registration> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * 重新注册在这个线程里执行，不占用EventThread
+     */
+    private final ScheduledExecutorService executor;
+
+    private final Watcher connectionListener;
+
+
+    public WatchRegistry(AsyncZkClient asyncZkClient, StripedEventDispatcher dispatcher) {
+        this.asyncZkClient = asyncZkClient;
+        this.dispatcher = dispatcher;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "zk-watch-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connectionListener = event -> {
+            //会话过期后服务端监听全部丢失，需要在新会话上重新注册
+            if (event.getState() == Watcher.Event.KeeperState.Expired) {
+                executor.execute(this::rearmAll);
+            }
+        };
+        asyncZkClient.getSessionManager().addConnectionListener(connectionListener);
+    }
+
+
+    /**
+     * 添加监听器，返回的future在服务端监听注册成功后结束
+     */
+    public CompletableFuture<Void> addListener(String path, WatchType type, Watcher listener) {
+        Key key = new Key(path, type);
+        //和removeListener都在compute里修改监听器列表，不会把监听器加到刚被移除的Registration上
+        Registration registration = registrations.compute(key, (k, current) -> {
+            Registration r = current == null ? new Registration(k) : current;
+            r.listeners.add(listener);
+            return r;
+        });
+        registration.start();
+        return registration.armed;
+    }
+
+    /**
+     * 移除监听器，没有监听器后不再重新注册(3.4版本无法主动删除服务端监听，它会在下一次触发后消失)
+     */
+    public void removeListener(String path, WatchType type, Watcher listener) {
+        registrations.computeIfPresent(new Key(path, type), (k, registration) -> {
+            registration.listeners.remove(listener);
+            return registration.listeners.isEmpty() ? null : registration;
+        });
+    }
+
+    /**
+     * 服务端监听个数
+     */
+    public int size() {
+        return registrations.size();
+    }
+
+    @Override
+    public void close() {
+        asyncZkClient.getSessionManager().removeConnectionListener(connectionListener);
+        registrations.clear();
+        executor.shutdownNow();
+    }
+
+
+    private void rearmAll() {
+        for (Registration registration : registrations.values()) {
+            registration.rearm(null);
+        }
+    }
+
+
+    /**
+     * 一个(path, 监听类型)对应的服务端监听
+     */
+    private final class Registration implements Watcher {
+
+        private final Key key;
+
+        private final List<Watcher> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * 首次注册完成
+         */
+        private final CompletableFuture<Void> armed = new CompletableFuture<>();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        /**
+         * 最近一次看到的zxid：DATA是mzxid，CHILDREN是pzxid，节点不存在时为0，-1表示还没注册过
+         */
+        private volatile long lastZxid = -1;
+
+        Registration(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * 首次注册，放进registrations之后才能调用
+         */
+        void start() {
+            if (started.compareAndSet(false, true)) {
+                executor.execute(() -> rearm(null));
+            }
+        }
+
+        @Override
+        public void process(WatchedEvent watchedEvent) {
+            //连接状态事件由connectionListener处理
+            if (watchedEvent.getType() == Event.EventType.None) {
+                return;
+            }
+            executor.execute(() -> rearm(watchedEvent));
+        }
+
+        /**
+         * 重新注册服务端监听，然后通知监听器。
+         * event为空表示不是由监听触发的(首次注册或会话过期)，此时根据zxid是否变化决定是否补发事件；
+         * 由监听触发时先分发原事件，再比较重新注册时节点是否存在，和事件不一致(删除后重建、变更后删除)时补发一个事件
+         */
+        void rearm(WatchedEvent event) {
+            if (registrations.get(key) != this) {
+                return;
+            }
+            arm().whenCompleteAsync((zxid, error) -> {
+                if (error != null) {
+                    log.warn("注册监听失败，{}ms后重试: {} {}", RETRY_DELAY_MS, key.path, key.type, error);
+                    executor.schedule(() -> rearm(event), RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                long previous = lastZxid;
+                lastZxid = zxid;
+                if (!armed.isDone()) {
+                    armed.complete(null);
+                    return;
+                }
+                if (event != null) {
+                    dispatch(event);
+                    //触发到重新注册之间节点又被删除或重建时，补发一个事件
+                    boolean existedAtEvent = event.getType() != Event.EventType.NodeDeleted;
+                    if (existedAtEvent != (zxid != NOT_EXISTS)) {
+                        dispatch(new WatchedEvent(gapEventType(existedAtEvent ? previous : NOT_EXISTS, zxid),
+                                Event.KeeperState.SyncConnected, key.path));
+                    }
+                } else if (previous != zxid) {
+                    dispatch(new WatchedEvent(gapEventType(previous, zxid), Event.KeeperState.SyncConnected, key.path));
+                }
+            }, executor);
+        }
+
+        /**
+         * 注册监听并返回当前zxid。
+         * 上一个请求的future在EventThread上结束，后续请求切回executor发送，不在EventThread上等许可
+         */
+        private CompletableFuture<Long> arm() {
+            if (key.type == WatchType.DATA) {
+                //exists在节点不存在时也能注册监听
+                return asyncZkClient.exists(key.path, this).thenApply(WatchRegistry::mzxid);
+            }
+            return asyncZkClient.getChildren(key.path, this)
+                    .thenComposeAsync(children -> asyncZkClient.exists(key.path), executor)
+                    .thenApply(WatchRegistry::pzxid)
+                    .handleAsync((zxid, error) -> {
+                        if (error == null) {
+                            return CompletableFuture.completedFuture(zxid);
+                        }
+                        if (!isNoNode(error)) {
+                            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                        }
+                        //节点不存在时getChildren不会注册监听，改为监听节点创建，创建后再注册子节点监听
+                        return asyncZkClient.exists(key.path, this)
+                                .thenComposeAsync(stat -> stat == null ? CompletableFuture.completedFuture(NOT_EXISTS) : arm(), executor);
+                    }, executor)
+                    .thenCompose(future -> future);
+        }
+
+        private Event.EventType gapEventType(long previous, long current) {
+            if (current == NOT_EXISTS) {
+                return Event.EventType.NodeDeleted;
+            }
+            if (key.type == WatchType.CHILDREN) {
+                return Event.EventType.NodeChildrenChanged;
+            }
+            return previous == NOT_EXISTS ? Event.EventType.NodeCreated : Event.EventType.NodeDataChanged;
+        }
+
+        private void dispatch(WatchedEvent event) {
+            dispatcher.execute(key.path, () -> {
+                for (Watcher listener : listeners) {
+                    try {
+                        listener.process(event);
+                    } catch (RuntimeException e) {
+                        //一个监听器出错不影响其它监听器
+                        log.error("监听器处理事件出错: {}", event, e);
+                    }
+                }
+            });
+        }
+    }
+
+
+    private static long mzxid(Stat stat) {
+        return stat == null ? NOT_EXISTS : stat.getMzxid();
+    }
+
+    private static long pzxid(Stat stat) {
+        return stat == null ? NOT_EXISTS : stat.getPzxid();
+    }
+
+    private static boolean isNoNode(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof KeeperException.NoNodeException;
+    }
+
+
+    private static final class Key {
+
+        private final String path;
+
+        private final WatchType type;
+
+        Key(String path, WatchType type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return path.equals(other.path) && type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() * 31 + type.hashCode();
+        }
+    }
+}
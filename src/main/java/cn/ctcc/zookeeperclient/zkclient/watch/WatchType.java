@@ -0,0 +1,16 @@
+package cn.ctcc.zookeeperclient.zkclient.watch;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 16:00
+ * @Description: 监听类型：DATA对应exists/getData的监听(NodeCreated、NodeDataChanged、NodeDeleted)，
+ * CHILDREN对应getChildren的监听(NodeChildrenChanged)
+ * @Modified:
+ * @version: V1.0
+ */
+public enum WatchType {
+
+    DATA,
+
+    CHILDREN
+}
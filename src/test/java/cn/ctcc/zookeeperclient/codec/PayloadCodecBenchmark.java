@@ -0,0 +1,104 @@
+package cn.ctcc.zookeeperclient.codec;
+
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 15:30
+ * @Description: 对比不压缩、DEFLATE、LZ4三种方式下JSON数据写入集群的字节数和setData/getData耗时。
+ * 直接运行main方法，参数为每种大小的读写次数(默认200)
+ * @Modified:
+ * @version: V1.0
+ */
+public class PayloadCodecBenchmark {
+
+    private static final String PATH = "/benchmark_codec";
+
+    private static final int[] SIZES = {512, 4 * 1024, 64 * 1024, 900 * 1024};
+
+    public static void main(String[] args) throws Exception {
+
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        try (TestingServer server = new TestingServer()) {
+            System.out.printf("%-8s %8s %10s %10s %10s %10s %10s%n",
+                    "codec", "size", "onWire", "ratio", "set p50", "set p99", "get p50/p99(us)");
+            for (int size : SIZES) {
+                byte[] payload = json(size);
+                run(server, "none", null, payload, rounds);
+                run(server, "deflate", new CompressingCodec(Compression.DEFLATE, 1024), payload, rounds);
+                run(server, "lz4", new CompressingCodec(Compression.LZ4, 1024), payload, rounds);
+            }
+        }
+    }
+
+    private static void run(TestingServer server, String name, PayloadCodec codec, byte[] payload, int rounds) throws Exception {
+        CuratorFrameworkFactory.Builder builder = CuratorFrameworkFactory.builder()
+                .connectString(server.getConnectString())
+                .sessionTimeoutMs(60 * 1000)
+                .connectionTimeoutMs(15 * 1000)
+                .retryPolicy(new ExponentialBackoffRetry(1000, 3));
+        if (codec != null) {
+            builder.compressionProvider(new CodecCompressionProvider(codec));
+        }
+        CuratorFramework client = builder.build();
+        client.start();
+        client.blockUntilConnected();
+        try {
+            if (client.checkExists().forPath(PATH) == null) {
+                client.create().forPath(PATH);
+            }
+            Histogram set = new Histogram(TimeUnit.SECONDS.toMicros(10), 3);
+            Histogram get = new Histogram(TimeUnit.SECONDS.toMicros(10), 3);
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                if (codec == null) {
+                    client.setData().forPath(PATH, payload);
+                } else {
+                    client.setData().compressed().forPath(PATH, payload);
+                }
+                set.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+                start = System.nanoTime();
+                //没有设置CompressionProvider时Curator默认用gzip，不压缩的一组不能调用compressed()/decompressed()
+                byte[] data = codec == null ? client.getData().forPath(PATH) : client.getData().decompressed().forPath(PATH);
+                get.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                if (data.length != payload.length) {
+                    throw new IllegalStateException("读出的数据长度不对: " + data.length);
+                }
+            }
+            //服务端保存的就是网络上传输的字节
+            int onWire = client.checkExists().forPath(PATH).getDataLength();
+            System.out.printf("%-8s %8d %10d %10.2f %10d %10d %10d/%d%n", name, payload.length, onWire,
+                    (double) payload.length / onWire, set.getValueAtPercentile(50), set.getValueAtPercentile(99),
+                    get.getValueAtPercentile(50), get.getValueAtPercentile(99));
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * 生成size字节左右的配置类JSON
+     */
+    private static byte[] json(int size) {
+        Random random = new Random(size);
+        StringBuilder builder = new StringBuilder(size + 64).append('[');
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("{\"id\":").append(i)
+                    .append(",\"host\":\"10.0.").append(random.nextInt(256)).append('.').append(random.nextInt(256))
+                    .append("\",\"port\":").append(8000 + random.nextInt(100))
+                    .append(",\"weight\":").append(random.nextInt(100))
+                    .append(",\"enabled\":").append(random.nextBoolean())
+                    .append("},");
+        }
+        builder.setCharAt(builder.length() - 1, ']');
+        return builder.toString().getBytes();
+    }
+}
@@ -0,0 +1,95 @@
+package cn.ctcc.zookeeperclient.curator.binding;
+
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 15:00
+ * @Description: 多个线程反复读取同一个版本的properties配置，对比每次都解码和TypedValueCache只解码一次的吞吐。
+ * 不需要ZooKeeper，直接运行main方法，参数为线程数(默认8)和每个线程的读取次数(默认200000)
+ * @Modified:
+ * @version: V1.0
+ */
+public class TypedValueCacheBenchmark {
+
+    private static final String PATH = "/config/app1/datasource";
+
+    public static void main(String[] args) throws Exception {
+
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("datasource.pool").append(i).append(".url=jdbc:mysql://10.0.0.").append(i).append(":3306/db\n");
+        }
+        Stat stat = new Stat();
+        stat.setMzxid(1000L);
+        ChildData childData = new ChildData(PATH, stat, text.toString().getBytes());
+
+        TypedValueCache cache = new TypedValueCache();
+        TypedValueCache.Binding<Map<String, String>> binding = cache.register("/config/", TypedValueCacheBenchmark::decode);
+
+        for (int round = 0; round < 3; round++) {
+            long raw = run(threads, reads, data -> {
+                try {
+                    return decode(data.getPath(), data.getData());
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, childData);
+            long cached = run(threads, reads, binding::get, childData);
+            System.out.printf("round=%d threads=%d decode-every-time=%.0f ops/s  cached=%.0f ops/s%n", round, threads,
+                    threads * (double) reads * 1e9 / raw, threads * (double) reads * 1e9 / cached);
+        }
+        System.out.printf("hits=%d decodes=%d avgDecode=%dus%n", cache.getHits(), cache.getDecodes(),
+                TimeUnit.NANOSECONDS.toMicros(cache.getDecodeNanos() / Math.max(cache.getDecodes(), 1)));
+    }
+
+    private static long run(int threads, int reads, Function<ChildData, Map<String, String>> reader, ChildData childData)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    int size = 0;
+                    for (int j = 0; j < reads; j++) {
+                        size += reader.apply(childData).size();
+                    }
+                    if (size == 0) {
+                        System.out.println("empty");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    private static Map<String, String> decode(String path, byte[] data) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(data));
+        Map<String, String> map = new HashMap<>();
+        properties.stringPropertyNames().forEach(name -> map.put(name, properties.getProperty(name)));
+        return Collections.unmodifiableMap(map);
+    }
+}
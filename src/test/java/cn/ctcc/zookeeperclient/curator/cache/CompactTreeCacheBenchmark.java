@@ -0,0 +1,137 @@
+package cn.ctcc.zookeeperclient.curator.cache;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 11:40
+ * @Description: 对比TreeCache、CompactTreeCache(DataMode.ALL)和CompactTreeCache(DataMode.LAZY)初始化完成后的堆占用和启动耗时，
+ * 直接运行main方法，参数为节点数(默认100000)
+ * @Modified:
+ * @version: V1.0
+ */
+public class CompactTreeCacheBenchmark {
+
+    private static final String ROOT = "/benchmark_tree";
+
+    private static final int GROUPS = 100;
+
+    public static void main(String[] args) throws Exception {
+
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        try (TestingServer server = new TestingServer()) {
+            populate(server.getConnectString(), nodes);
+
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                    60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+            client.start();
+            client.blockUntilConnected();
+
+            long baseline = usedHeap();
+
+            //stock TreeCache
+            CountDownLatch treeCacheReady = new CountDownLatch(1);
+            TreeCache treeCache = TreeCache.newBuilder(client, ROOT).setCacheData(true).setMaxDepth(5).build();
+            treeCache.getListenable().addListener((c, event) -> {
+                if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                    treeCacheReady.countDown();
+                }
+            });
+            long start = System.nanoTime();
+            treeCache.start();
+            treeCacheReady.await();
+            long treeCacheMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long treeCacheHeap = usedHeap() - baseline;
+            treeCache.close();
+
+            baseline = usedHeap();
+
+            //CompactTreeCache
+            CountDownLatch compactReady = new CountDownLatch(1);
+            CompactTreeCache compactTreeCache = new CompactTreeCache(client, ROOT, true, 5);
+            compactTreeCache.addListener((c, event) -> {
+                if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                    compactReady.countDown();
+                }
+            });
+            start = System.nanoTime();
+            compactTreeCache.start();
+            compactReady.await();
+            long compactMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long compactHeap = usedHeap() - baseline;
+
+            System.out.printf("nodes=%d%n", nodes);
+            System.out.printf("TreeCache         heap=%8.1fMB  start=%6dms%n", treeCacheHeap / 1048576.0, treeCacheMillis);
+            System.out.printf("CompactTreeCache  heap=%8.1fMB  offHeap=%8.1fMB  start=%6dms  cached=%d%n",
+                    compactHeap / 1048576.0, compactTreeCache.getOffHeapBytes() / 1048576.0, compactMillis, compactTreeCache.size());
+
+            compactTreeCache.close();
+
+            baseline = usedHeap();
+
+            //CompactTreeCache，数据按需加载
+            CountDownLatch lazyReady = new CountDownLatch(1);
+            CompactTreeCache lazyTreeCache = new CompactTreeCache(client, ROOT, DataMode.LAZY, 5, 16 * 1024 * 1024);
+            lazyTreeCache.addListener((c, event) -> {
+                if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                    lazyReady.countDown();
+                }
+            });
+            start = System.nanoTime();
+            lazyTreeCache.start();
+            lazyReady.await();
+            long lazyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long lazyHeap = usedHeap() - baseline;
+            System.out.printf("LazyTreeCache     heap=%8.1fMB  start=%6dms  cached=%d%n",
+                    lazyHeap / 1048576.0, lazyMillis, lazyTreeCache.size());
+            lazyTreeCache.close();
+
+            client.close();
+        }
+    }
+
+    /**
+     * 造数据：/benchmark_tree/groupX/nodeY
+     */
+    private static void populate(String connectString, int nodes) throws Exception {
+        try (ZkSessionManager manager = new ZkSessionManager(connectString, 60000, 15000, 4)) {
+            AsyncZkClient asyncZkClient = new AsyncZkClient(manager, 2000);
+            manager.session().create(ROOT, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            for (int g = 0; g < GROUPS; g++) {
+                manager.session().create(ROOT + "/group" + g, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            }
+            List<CompletableFuture<String>> futures = new ArrayList<>(nodes);
+            for (int i = 0; i < nodes; i++) {
+                String path = ROOT + "/group" + (i % GROUPS) + "/node" + i;
+                futures.add(asyncZkClient.create(path, ("{\"id\":" + i + ",\"enabled\":true}").getBytes(),
+                        ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,59 @@
+package cn.ctcc.zookeeperclient.curator.chunk;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/23 11:00
+ * @Description: 写入、读取超过jute.maxbuffer的数据，统计耗时和吞吐，并校验读出的数据一致。
+ * 直接运行main方法，参数为数据大小(MB，默认32)和并发读取数(默认16)
+ * @Modified:
+ * @version: V1.0
+ */
+public class ChunkedValueStoreBenchmark {
+
+    private static final String PATH = "/benchmark_chunked/routing_table";
+
+    public static void main(String[] args) throws Exception {
+
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int parallelReads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        byte[] value = new byte[megabytes * 1024 * 1024];
+        new Random(42).nextBytes(value);
+
+        try (TestingServer server = new TestingServer()) {
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                    60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+            client.start();
+            client.blockUntilConnected();
+
+            ChunkedValueStore store = new ChunkedValueStore(client, 256 * 1024, 768 * 1024, parallelReads, 60 * 1000);
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                store.write(PATH, value);
+                long writeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                start = System.nanoTime();
+                byte[] read = store.read(PATH);
+                long readMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                if (!Arrays.equals(value, read)) {
+                    throw new IllegalStateException("读出的数据和写入的不一致");
+                }
+                ChunkManifest manifest = store.readManifest(PATH);
+                System.out.printf("round=%d size=%dMB chunks=%d write=%dms(%.1fMB/s) read=%dms(%.1fMB/s)%n", round,
+                        megabytes, manifest.getChunkCount(), writeMillis, megabytes * 1000.0 / Math.max(writeMillis, 1),
+                        readMillis, megabytes * 1000.0 / Math.max(readMillis, 1));
+            }
+            client.close();
+        }
+    }
+}
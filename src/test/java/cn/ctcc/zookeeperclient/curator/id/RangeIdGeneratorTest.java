@@ -0,0 +1,144 @@
+package cn.ctcc.zookeeperclient.curator.id;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingCluster;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/24 15:00
+ * @Description: 在3节点TestingCluster上启动多个JVM，每个JVM多线程取ID写到文件，汇总后校验没有重复、每个线程内递增、空洞不超过上限，并输出吞吐
+ * @Modified:
+ * @version: V1.0
+ */
+public class RangeIdGeneratorTest {
+
+    private static final String COUNTER = "/test_id/order";
+
+    private static final int JVMS = 3;
+
+    private static final int THREADS = 4;
+
+    private static final int IDS_PER_THREAD = 250_000;
+
+    private static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * 每个JVM退出时最多留下当前号段的剩余部分和一个预取号段
+     */
+    private static final long MAX_GAPS = 2L * JVMS * MAX_BLOCK_SIZE;
+
+    @Test
+    public void uniqueAcrossJvms() throws Exception {
+        try (TestingCluster cluster = new TestingCluster(3)) {
+            cluster.start();
+
+            List<Process> processes = new ArrayList<>();
+            List<File> outputs = new ArrayList<>();
+            for (int i = 0; i < JVMS; i++) {
+                File output = File.createTempFile("ids-" + i + "-", ".bin");
+                output.deleteOnExit();
+                outputs.add(output);
+                processes.add(new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                        "-cp", System.getProperty("java.class.path"),
+                        Worker.class.getName(), cluster.getConnectString(), output.getAbsolutePath())
+                        .inheritIO()
+                        .start());
+            }
+            for (Process process : processes) {
+                Assert.assertTrue("子进程超时", process.waitFor(2, TimeUnit.MINUTES));
+                Assert.assertEquals("子进程失败", 0, process.exitValue());
+            }
+
+            long[] ids = new long[JVMS * THREADS * IDS_PER_THREAD];
+            int count = 0;
+            for (File output : outputs) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(output)))) {
+                    for (int i = 0; i < THREADS * IDS_PER_THREAD; i++) {
+                        ids[count++] = in.readLong();
+                    }
+                }
+            }
+            Arrays.sort(ids);
+            long gaps = 0;
+            for (int i = 1; i < ids.length; i++) {
+                Assert.assertNotEquals("ID重复: " + ids[i], ids[i - 1], ids[i]);
+                gaps += ids[i] - ids[i - 1] - 1;
+            }
+            System.out.printf("jvms=%d ids=%d min=%d max=%d gaps=%d%n", JVMS, ids.length, ids[0], ids[ids.length - 1], gaps);
+            Assert.assertTrue("空洞" + gaps + "超过" + MAX_GAPS, gaps <= MAX_GAPS);
+        }
+    }
+
+
+    /**
+     * 子进程：THREADS个线程各取IDS_PER_THREAD个ID，按二进制写到文件
+     */
+    public static class Worker {
+
+        public static void main(String[] args) throws Exception {
+            CuratorFramework client = CuratorFrameworkFactory.newClient(args[0],
+                    60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+            client.start();
+            client.blockUntilConnected();
+
+            long[][] ids = new long[THREADS][IDS_PER_THREAD];
+            try (RangeIdGenerator generator = new RangeIdGenerator(client, COUNTER, 1000, MAX_BLOCK_SIZE, 200)) {
+                CountDownLatch done = new CountDownLatch(THREADS);
+                long start = System.nanoTime();
+                for (int t = 0; t < THREADS; t++) {
+                    long[] out = ids[t];
+                    new Thread(() -> {
+                        for (int i = 0; i < out.length; i++) {
+                            out[i] = generator.nextId();
+                        }
+                        done.countDown();
+                    }).start();
+                }
+                done.await();
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("worker ids/s=%.0f leases=%d casConflicts=%d blockSize=%d%n",
+                        THREADS * (double) IDS_PER_THREAD * 1e9 / elapsed, generator.getLeases(),
+                        generator.getCasConflicts(), generator.getBlockSize());
+            }
+            //号段递增，同一个线程拿到的ID一定严格递增
+            for (long[] thread : ids) {
+                for (int i = 1; i < thread.length; i++) {
+                    if (thread[i] <= thread[i - 1]) {
+                        throw new IllegalStateException("ID回退: " + thread[i - 1] + " -> " + thread[i]);
+                    }
+                }
+            }
+            write(new File(args[1]), ids);
+            client.close();
+        }
+
+        private static void write(File file, long[][] ids) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (long[] thread : ids) {
+                    for (long id : thread) {
+                        out.writeLong(id);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package cn.ctcc.zookeeperclient.curator.leader;
+
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.InstanceSpec;
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.TestingCluster;
+import org.apache.zookeeper.ZooKeeper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/27 14:00
+ * @Description: 在3节点TestingCluster上起多个参与者，反复杀掉当前leader，统计从杀掉到新leader开始执行任务的耗时。
+ * 两种杀法：让leader的会话过期(KillSession)，以及每第serverKillEvery轮停掉leader连着的服务端(会话还在，靠SUSPENDED放弃领导权)。
+ * 轮数用-Dleader.rounds指定，默认50
+ * @Modified:
+ * @version: V1.0
+ */
+public class LeaderFailoverTest {
+
+    private static final String BASE_PATH = "/test_leader/job";
+
+    private static final String COUNTER = "counter";
+
+    private static final int PARTICIPANTS = 4;
+
+    private static final int SERVER_KILL_EVERY = 5;
+
+    private static final long HIGHEST_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+
+    /**
+     * 某个参与者开始执行任务
+     */
+    private static class Elected {
+
+        private final String participantId;
+
+        private final long term;
+
+        private final long nanos;
+
+        private final boolean warm;
+
+        private Elected(String participantId, long term, long nanos, boolean warm) {
+            this.participantId = participantId;
+            this.term = term;
+            this.nanos = nanos;
+            this.warm = warm;
+        }
+    }
+
+    @Test
+    public void repeatedFailover() throws Exception {
+        int rounds = Integer.getInteger("leader.rounds", 50);
+        BlockingQueue<Elected> events = new LinkedBlockingQueue<>();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        try (TestingCluster cluster = new TestingCluster(3)) {
+            cluster.start();
+
+            Map<String, CuratorFramework> clients = new HashMap<>();
+            List<LeaderElection> elections = new ArrayList<>();
+            try {
+                for (int i = 0; i < PARTICIPANTS; i++) {
+                    String id = "participant-" + i;
+                    CuratorFramework client = CuratorFrameworkFactory.newClient(cluster.getConnectString(),
+                            10 * 1000, 5 * 1000, new ExponentialBackoffRetry(100, 5));
+                    client.start();
+                    client.blockUntilConnected();
+                    clients.put(id, client);
+                    elections.add(new LeaderElection(client, BASE_PATH, id, 100,
+                            context -> work(context, events, active, overlaps)).start());
+                }
+
+                Elected current = events.poll(1, TimeUnit.MINUTES);
+                Assert.assertNotNull("没有选出leader", current);
+
+                Histogram expired = new Histogram(HIGHEST_MILLIS, 3);
+                Histogram serverKilled = new Histogram(HIGHEST_MILLIS, 3);
+                int cold = 0;
+                for (int r = 1; r <= rounds; r++) {
+                    ZooKeeper zooKeeper = clients.get(current.participantId).getZookeeperClient().getZooKeeper();
+                    InstanceSpec killedServer = null;
+                    long start = System.nanoTime();
+                    if (r % SERVER_KILL_EVERY == 0) {
+                        killedServer = cluster.findConnectionInstance(zooKeeper);
+                        cluster.killServer(killedServer);
+                    } else {
+                        KillSession.kill(zooKeeper, cluster.getConnectString());
+                    }
+
+                    Elected next = awaitNewTerm(events, current.term);
+                    Assert.assertNotNull("第" + r + "轮没有选出新leader", next);
+                    long millis = TimeUnit.NANOSECONDS.toMillis(next.nanos - start);
+                    (killedServer == null ? expired : serverKilled).recordValue(Math.min(millis, HIGHEST_MILLIS));
+                    if (!next.warm) {
+                        cold++;
+                    }
+                    current = next;
+
+                    if (killedServer != null) {
+                        cluster.restartServer(killedServer);
+                        awaitServer(killedServer);
+                    }
+                }
+
+                System.out.printf("rounds=%d participants=%d overlaps=%d cold=%d%n", rounds, PARTICIPANTS, overlaps.get(), cold);
+                print("session-expired", expired);
+                print("server-killed", serverKilled);
+                for (LeaderElection election : elections) {
+                    election.printReport(System.out);
+                }
+                Assert.assertEquals("备用节点当选时状态没有预先加载", 0, cold);
+            } finally {
+                for (LeaderElection election : elections) {
+                    election.close();
+                }
+                for (CuratorFramework client : clients.values()) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * leader的任务：每50ms把计数器加1写回状态，直到被中断或任期失效
+     */
+    private static void work(LeaderContext context, BlockingQueue<Elected> events,
+                             AtomicInteger active, AtomicInteger overlaps) throws InterruptedException {
+        byte[] state = context.getState(COUNTER);
+        if (active.incrementAndGet() > 1) {
+            overlaps.incrementAndGet();
+        }
+        events.add(new Elected(context.getParticipantId(), context.getTerm(), System.nanoTime(), state != null));
+        try {
+            long counter = state == null ? 0 : ByteBuffer.wrap(state).getLong();
+            while (context.isLeader()) {
+                context.writeState(COUNTER, ByteBuffer.allocate(8).putLong(++counter).array());
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            //断线或任期失效，放弃本任期
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private static Elected awaitNewTerm(BlockingQueue<Elected> events, long term) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (true) {
+            Elected elected = events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (elected == null || elected.term > term) {
+                return elected;
+            }
+        }
+    }
+
+    /**
+     * 等重启的服务端重新加入集群并能接受连接
+     */
+    private static void awaitServer(InstanceSpec spec) throws InterruptedException {
+        CuratorFramework probe = CuratorFrameworkFactory.newClient(spec.getConnectString(),
+                10 * 1000, 5 * 1000, new ExponentialBackoffRetry(100, 5));
+        try {
+            probe.start();
+            Assert.assertTrue("服务端" + spec.getConnectString() + "重启后无法连接", probe.blockUntilConnected(1, TimeUnit.MINUTES));
+        } finally {
+            probe.close();
+        }
+    }
+
+    private static void print(String name, Histogram histogram) {
+        System.out.printf("%-16s count=%d p50=%dms p99=%dms max=%dms%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMaxValue());
+    }
+}
@@ -0,0 +1,137 @@
+package cn.ctcc.zookeeperclient.curator.lock;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/24 11:00
+ * @Description: 两个客户端(模拟两个JVM)各threads个线程争抢同一个锁，对比InterProcessMutex和CoalescingLock的
+ * 获取/释放吞吐和等待时间p99。直接运行main方法，参数为每个客户端的线程数(默认16)和每个线程的加锁次数(默认200)
+ * @Modified:
+ * @version: V1.0
+ */
+public class CoalescingLockBenchmark {
+
+    private static final String PATH = "/benchmark_lock";
+
+    private static final int CLIENTS = 2;
+
+    public static void main(String[] args) throws Exception {
+
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        try (TestingServer server = new TestingServer()) {
+            CuratorFramework[] clients = new CuratorFramework[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                clients[i] = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                        60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+                clients[i].start();
+                clients[i].blockUntilConnected();
+            }
+
+            //InterProcessMutex：每个客户端共用一个实例，每个线程各自排队
+            InterProcessMutex[] mutexes = new InterProcessMutex[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                mutexes[i] = new InterProcessMutex(clients[i], PATH + "/mutex");
+            }
+            report("InterProcessMutex", threads, iterations, client -> {
+                InterProcessMutex mutex = mutexes[client];
+                return new Locker() {
+                    @Override
+                    public void acquire() throws Exception {
+                        mutex.acquire();
+                    }
+
+                    @Override
+                    public void release() throws Exception {
+                        mutex.release();
+                    }
+                };
+            });
+
+            CoalescingLock[] locks = new CoalescingLock[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                locks[i] = new CoalescingLockManager(clients[i], 64, 50).lock(PATH + "/coalescing");
+            }
+            report("CoalescingLock", threads, iterations, client -> {
+                CoalescingLock lock = locks[client];
+                return new Locker() {
+                    @Override
+                    public void acquire() throws Exception {
+                        lock.acquire();
+                    }
+
+                    @Override
+                    public void release() throws Exception {
+                        lock.release();
+                    }
+                };
+            });
+            for (int i = 0; i < CLIENTS; i++) {
+                System.out.printf("client-%d zkAcquisitions=%d localHandoffs=%d%n", i,
+                        locks[i].getZkAcquisitions(), locks[i].getLocalHandoffs());
+            }
+
+            for (CuratorFramework client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private static void report(String name, int threads, int iterations, LockerFactory factory) throws InterruptedException {
+        Histogram waits = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CLIENTS * threads);
+        for (int client = 0; client < CLIENTS; client++) {
+            Locker locker = factory.create(client);
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            long begin = System.nanoTime();
+                            locker.acquire();
+                            waits.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin),
+                                    TimeUnit.MINUTES.toMicros(1)));
+                            locker.release();
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%-18s ops/s=%8.0f  wait p50=%6dus p99=%8dus max=%8dus%n", name,
+                waits.getTotalCount() * 1e9 / elapsed, waits.getValueAtPercentile(50),
+                waits.getValueAtPercentile(99), waits.getMaxValue());
+    }
+
+
+    private interface Locker {
+
+        void acquire() throws Exception;
+
+        void release() throws Exception;
+    }
+
+    private interface LockerFactory {
+
+        Locker create(int client);
+    }
+}
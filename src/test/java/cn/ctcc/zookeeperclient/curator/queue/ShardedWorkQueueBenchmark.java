@@ -0,0 +1,106 @@
+package cn.ctcc.zookeeperclient.curator.queue;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/25 11:30
+ * @Description: 先批量入队items个元素(默认100万)，再由consumers个消费者并发批量取出，
+ * 统计入队吞吐、出队吞吐、每次take的耗时和元素从入队到被取出的排队时间。
+ * 直接运行main方法，参数为元素数、分片数(默认64)、消费者数(默认8)、是否确认模式(默认false)；100万元素需要较大的堆(-Xmx4g)
+ * @Modified:
+ * @version: V1.0
+ */
+public class ShardedWorkQueueBenchmark {
+
+    private static final String ROOT = "/benchmark_queue";
+
+    private static final int TAKE_SIZE = 200;
+
+    public static void main(String[] args) throws Exception {
+
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int shards = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int consumers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        boolean acknowledged = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        try (TestingServer server = new TestingServer()) {
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                    60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+            client.start();
+            client.blockUntilConnected();
+
+            ShardedWorkQueue queue = new ShardedWorkQueue(client, ROOT, shards, 1000, 512 * 1024).start();
+
+            //入队：数据是入队时间，用来计算排队时间
+            long start = System.nanoTime();
+            List<byte[]> batch = new ArrayList<>(10_000);
+            for (int i = 0; i < items; i++) {
+                batch.add(ByteBuffer.allocate(8).putLong(System.nanoTime()).array());
+                if (batch.size() == 10_000 || i == items - 1) {
+                    queue.enqueueAll(batch);
+                    batch.clear();
+                }
+            }
+            long enqueueNanos = System.nanoTime() - start;
+            System.out.printf("enqueue items=%d shards=%d %.0f items/s, queued=%d%n", items, shards,
+                    items * 1e9 / enqueueNanos, queue.size());
+
+            Histogram takeLatency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+            Histogram queueTime = new ConcurrentHistogram(TimeUnit.HOURS.toMillis(1), 3);
+            AtomicLong taken = new AtomicLong();
+            CountDownLatch done = new CountDownLatch(consumers);
+            start = System.nanoTime();
+            for (int c = 0; c < consumers; c++) {
+                QueueConsumer consumer = queue.newConsumer(acknowledged);
+                new Thread(() -> {
+                    try {
+                        while (taken.get() < items) {
+                            long begin = System.nanoTime();
+                            List<QueueItem> result = consumer.take(TAKE_SIZE, 1, TimeUnit.SECONDS);
+                            long now = System.nanoTime();
+                            if (result.isEmpty()) {
+                                continue;
+                            }
+                            takeLatency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - begin), TimeUnit.MINUTES.toMicros(1)));
+                            for (QueueItem item : result) {
+                                long enqueued = ByteBuffer.wrap(item.getData()).getLong();
+                                queueTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMillis(now - enqueued), TimeUnit.HOURS.toMillis(1)));
+                            }
+                            consumer.ack(result);
+                            taken.addAndGet(result.size());
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        consumer.close();
+                        done.countDown();
+                    }
+                }).start();
+            }
+            done.await();
+            long dequeueNanos = System.nanoTime() - start;
+            System.out.printf("dequeue consumers=%d ack=%s %.0f items/s, taken=%d%n", consumers, acknowledged,
+                    taken.get() * 1e9 / dequeueNanos, taken.get());
+            System.out.printf("take latency p50=%dus p99=%dus max=%dus, avg batch=%.1f%n",
+                    takeLatency.getValueAtPercentile(50), takeLatency.getValueAtPercentile(99), takeLatency.getMaxValue(),
+                    (double) taken.get() / Math.max(takeLatency.getTotalCount(), 1));
+            System.out.printf("queue time p50=%dms p99=%dms max=%dms%n",
+                    queueTime.getValueAtPercentile(50), queueTime.getValueAtPercentile(99), queueTime.getMaxValue());
+
+            client.close();
+        }
+    }
+}
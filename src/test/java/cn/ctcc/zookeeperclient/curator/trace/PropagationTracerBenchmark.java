@@ -0,0 +1,89 @@
+package cn.ctcc.zookeeperclient.curator.trace;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.InstanceSpec;
+import org.apache.curator.test.TestingCluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/22 11:00
+ * @Description: 在本地3节点TestingCluster上测量setData到NodeCache、TreeCache监听器的传播延迟。
+ * 写入方连第一台服务器，每台服务器各连一个监听客户端，跟随者上的监听器能反映提交和同步的开销。
+ * 直接运行main方法，参数为写入次数(默认1000)和阈值毫秒数(默认50)
+ * @Modified:
+ * @version: V1.0
+ */
+public class PropagationTracerBenchmark {
+
+    private static final String ROOT = "/benchmark_propagation";
+
+    private static final String PATH = ROOT + "/app1/config";
+
+    public static void main(String[] args) throws Exception {
+
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long threshold = args.length > 1 ? Long.parseLong(args[1]) : 50;
+
+        try (TestingCluster cluster = new TestingCluster(3)) {
+            cluster.start();
+
+            List<InstanceSpec> instances = new ArrayList<>(cluster.getInstances());
+            CuratorFramework writer = newClient(instances.get(0).getConnectString());
+            writer.create().creatingParentsIfNeeded().forPath(PATH, new byte[0]);
+
+            PropagationTracer tracer = new PropagationTracer(2, threshold);
+            List<CuratorFramework> clients = new ArrayList<>();
+            List<AutoCloseable> caches = new ArrayList<>();
+            for (int i = 0; i < instances.size(); i++) {
+                CuratorFramework client = newClient(instances.get(i).getConnectString());
+                clients.add(client);
+
+                NodeCache nodeCache = new NodeCache(client, PATH);
+                nodeCache.getListenable().addListener(tracer.trace("nodeCache-" + i, nodeCache, () -> {
+                }));
+                nodeCache.start(true);
+                caches.add(nodeCache);
+
+                TreeCache treeCache = TreeCache.newBuilder(client, ROOT).setCacheData(true).build();
+                treeCache.getListenable().addListener(tracer.trace("treeCache-" + i, (c, event) -> {
+                }));
+                treeCache.start();
+                caches.add(treeCache);
+            }
+            //等缓存完成初始同步
+            Thread.sleep(1000);
+
+            for (int i = 0; i < writes; i++) {
+                tracer.write(writer, PATH, ("value_" + i).getBytes());
+                Thread.sleep(5);
+            }
+            Thread.sleep(1000);
+
+            System.out.printf("servers=%d, writes=%d%n", instances.size(), writes);
+            tracer.printReport(System.out);
+
+            for (AutoCloseable cache : caches) {
+                cache.close();
+            }
+            for (CuratorFramework client : clients) {
+                client.close();
+            }
+            writer.close();
+        }
+    }
+
+    private static CuratorFramework newClient(String connectString) throws InterruptedException {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(connectString,
+                60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        client.blockUntilConnected();
+        return client;
+    }
+}
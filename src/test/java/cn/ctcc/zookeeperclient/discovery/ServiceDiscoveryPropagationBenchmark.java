@@ -0,0 +1,110 @@
+package cn.ctcc.zookeeperclient.discovery;
+
+import org.HdrHistogram.Histogram;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceInstance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/26 14:30
+ * @Description: 服务上下线的传播延迟：提供方和消费方各用一个会话，提供方注册/注销一个实例，
+ * 统计从registerService/unregisterService返回到消费方ServicePool的快照反映这次变化的时间。
+ * 直接运行main方法，参数为轮数(默认1000)和常驻实例数(默认50)
+ * @Modified:
+ * @version: V1.0
+ */
+public class ServiceDiscoveryPropagationBenchmark {
+
+    private static final String BASE_PATH = "/benchmark_services";
+
+    private static final String SERVICE = "propagation";
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(30);
+
+    public static void main(String[] args) throws Exception {
+
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int resident = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        try (TestingServer server = new TestingServer();
+             CuratorFramework providerClient = newClient(server);
+             CuratorFramework consumerClient = newClient(server);
+             DiscoveryManager provider = new DiscoveryManager(providerClient, BASE_PATH, null);
+             DiscoveryManager consumer = new DiscoveryManager(consumerClient, BASE_PATH, null)) {
+            provider.start();
+            consumer.start();
+            ServiceDiscovery<InstanceDetails> discovery = provider.getServiceDiscovery();
+
+            for (int i = 0; i < resident; i++) {
+                discovery.registerService(instance("resident-" + i, i));
+            }
+            ServicePool pool = consumer.pool(SERVICE, new RoundRobinStrategy());
+            awaitSize(pool, resident);
+            System.out.printf("pool ready: %d instances%n", pool.size());
+
+            Histogram register = new Histogram(HIGHEST_MICROS, 3);
+            Histogram unregister = new Histogram(HIGHEST_MICROS, 3);
+            for (int r = 0; r < rounds; r++) {
+                ServiceInstance<InstanceDetails> instance = instance("round-" + r, resident + r);
+
+                discovery.registerService(instance);
+                long start = System.nanoTime();
+                awaitSize(pool, resident + 1);
+                register.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_MICROS));
+
+                discovery.unregisterService(instance);
+                start = System.nanoTime();
+                awaitSize(pool, resident);
+                unregister.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_MICROS));
+            }
+
+            System.out.printf("rounds=%d resident=%d snapshots=%d%n", rounds, resident, pool.getVersion());
+            print("register", register);
+            print("unregister", unregister);
+        }
+    }
+
+    private static CuratorFramework newClient(TestingServer server) throws InterruptedException {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        client.blockUntilConnected();
+        return client;
+    }
+
+    private static ServiceInstance<InstanceDetails> instance(String id, int n) throws Exception {
+        return ServiceInstance.<InstanceDetails>builder()
+                .name(SERVICE)
+                .id(id)
+                .address("10.0." + (n / 256 % 256) + "." + (n % 256))
+                .port(8080)
+                .payload(new InstanceDetails("default"))
+                .build();
+    }
+
+    /**
+     * 自旋等待快照里的实例数变成expected，只读volatile快照，不影响被测的传播路径
+     */
+    private static void awaitSize(ServicePool pool, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pool.size() != expected) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("等待实例数变为" + expected + "超时，当前" + pool.size());
+            }
+            LockSupport.parkNanos(20_000);
+        }
+    }
+
+    private static void print(String name, Histogram histogram) {
+        System.out.printf("%-10s p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus%n", name,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+}
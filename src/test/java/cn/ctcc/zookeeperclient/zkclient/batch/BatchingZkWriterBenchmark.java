@@ -0,0 +1,106 @@
+package cn.ctcc.zookeeperclient.zkclient.batch;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 14:30
+ * @Description: 按1k/10k/100k writes/sec的目标速率分别跑不合批(AsyncZkClient)和合批(BatchingZkWriter)的setData，
+ * 输出实际吞吐和平均延迟，直接运行main方法
+ * @Modified:
+ * @version: V1.0
+ */
+public class BatchingZkWriterBenchmark {
+
+    private static final int[] RATES = {1_000, 10_000, 100_000};
+
+    private static final long DURATION_MS = 10_000;
+
+    private static final int KEYS = 1000;
+
+    private static final byte[] PAYLOAD = new byte[64];
+
+    public static void main(String[] args) throws Exception {
+
+        try (TestingServer server = new TestingServer();
+             ZkSessionManager manager = new ZkSessionManager(server.getConnectString(), 30000, 5000, 2)) {
+
+            AsyncZkClient asyncZkClient = new AsyncZkClient(manager, 5000);
+            ZooKeeper zooKeeper = manager.session();
+            List<String> paths = new ArrayList<>(KEYS);
+            zooKeeper.create("/benchmark_batch", new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            for (int i = 0; i < KEYS; i++) {
+                String path = "/benchmark_batch/key" + i;
+                zooKeeper.create(path, PAYLOAD, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+                paths.add(path);
+            }
+
+            try (BatchingZkWriter writer = new BatchingZkWriter(asyncZkClient, 200, 512 * 1024, 2)) {
+                for (int rate : RATES) {
+                    run("unbatched", rate, paths, path -> asyncZkClient.setData(path, PAYLOAD, -1));
+                    run("batched", rate, paths, path -> writer.setData(path, PAYLOAD, -1));
+                }
+            }
+        }
+    }
+
+    private static void run(String name, int rate, List<String> paths, Writer writer) throws Exception {
+
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        List<CompletableFuture<Stat>> futures = new ArrayList<>();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(DURATION_MS);
+        long next = start;
+        int i = 0;
+        while (next < end) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            long sendTime = next;
+            CompletableFuture<Stat> future = writer.write(paths.get(i++ % paths.size()));
+            future.whenComplete((stat, error) -> {
+                if (error == null) {
+                    completed.incrementAndGet();
+                    latencyNanos.addAndGet(System.nanoTime() - sendTime);
+                } else {
+                    failed.incrementAndGet();
+                }
+            });
+            if ((i & 1023) == 0) {
+                futures.removeIf(CompletableFuture::isDone);
+            }
+            futures.add(future);
+            next += intervalNanos;
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((v, e) -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-10s target=%7d/s  actual=%10.1f/s  avgLatency=%8.2fms  failed=%d%n",
+                name, rate, completed.get() * 1e9 / elapsed,
+                completed.get() == 0 ? 0 : latencyNanos.get() / 1e6 / completed.get(), failed.get());
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        CompletableFuture<Stat> write(String path);
+    }
+}
@@ -0,0 +1,68 @@
+package cn.ctcc.zookeeperclient.zkclient.delete;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 15:00
+ * @Description: 对比Curator的deletingChildrenIfNeeded和RecursiveDeleter删除同样子树的速度，直接运行main方法，参数为节点数(默认100000)
+ * @Modified:
+ * @version: V1.0
+ */
+public class RecursiveDeleterBenchmark {
+
+    private static final String ROOT = "/benchmark_delete";
+
+    private static final int FAN_OUT = 1000;
+
+    public static void main(String[] args) throws Exception {
+
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        try (TestingServer server = new TestingServer();
+             ZkSessionManager manager = new ZkSessionManager(server.getConnectString(), 60000, 15000, 4)) {
+
+            AsyncZkClient asyncZkClient = new AsyncZkClient(manager, 5000);
+
+            CuratorFramework curatorFramework = CuratorFrameworkFactory.newClient(server.getConnectString(),
+                    60 * 1000, 15 * 1000, new ExponentialBackoffRetry(1000, 3));
+            curatorFramework.start();
+            populate(manager, asyncZkClient, nodes);
+            long start = System.nanoTime();
+            curatorFramework.delete().guaranteed().deletingChildrenIfNeeded().forPath(ROOT);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("curator             deleted=%d, elapsed=%dms, nodes/sec=%.1f%n", nodes, millis, nodes * 1000.0 / Math.max(millis, 1));
+            curatorFramework.close();
+
+            for (int concurrency : new int[]{8, 64, 256}) {
+                populate(manager, asyncZkClient, nodes);
+                DeleteReport report = new RecursiveDeleter(asyncZkClient, concurrency, 200).delete(ROOT);
+                System.out.printf("concurrency=%-4d    %s%n", concurrency, report);
+            }
+        }
+    }
+
+    private static void populate(ZkSessionManager manager, AsyncZkClient asyncZkClient, int nodes) throws Exception {
+        manager.session().create(ROOT, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        Semaphore window = new Semaphore(10_000);
+        for (int i = 0; i < nodes; i++) {
+            if (i % FAN_OUT == 0) {
+                manager.session().create(ROOT + "/group" + (i / FAN_OUT), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            }
+            window.acquire();
+            asyncZkClient.create(ROOT + "/group" + (i / FAN_OUT) + "/task" + i, new byte[0],
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL).whenComplete((path, error) -> window.release());
+        }
+        window.acquire(10_000);
+    }
+}
@@ -0,0 +1,120 @@
+package cn.ctcc.zookeeperclient.zkclient.ensemble;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/28 14:00
+ * @Description: 本机TCP代理，放在一台TestingCluster服务端前面，客户端发往服务端的每一段数据先等delayMillis再转发，
+ * 用来模拟某台服务端变慢或者离得远。延迟可以随时调整
+ * @Modified:
+ * @version: V1.0
+ */
+class DelayProxy implements Closeable {
+
+    private final InetSocketAddress target;
+
+    private final ServerSocket serverSocket;
+
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    private volatile long delayMillis;
+
+
+    DelayProxy(InetSocketAddress target) throws IOException {
+        this.target = target;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "delay-proxy-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+
+    String getConnectString() {
+        return serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            closeQuietly(socket);
+        }
+    }
+
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket();
+                try {
+                    server.connect(target);
+                } catch (IOException e) {
+                    closeQuietly(client);
+                    continue;
+                }
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(server);
+                pump(client, server, true);
+                pump(server, client, false);
+            } catch (IOException e) {
+                //关闭
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to, boolean delayed) {
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[8192];
+            try {
+                InputStream in = from.getInputStream();
+                OutputStream out = to.getOutputStream();
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    long delay = delayMillis;
+                    if (delayed && delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    out.write(buffer, 0, n);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                //任一方断开
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "delay-proxy-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void closeQuietly(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //忽略
+        }
+    }
+}
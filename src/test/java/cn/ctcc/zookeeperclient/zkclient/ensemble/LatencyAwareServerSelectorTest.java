@@ -0,0 +1,136 @@
+package cn.ctcc.zookeeperclient.zkclient.ensemble;
+
+import cn.ctcc.zookeeperclient.config.ZookeeperProperties;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.HdrHistogram.Histogram;
+import org.apache.curator.test.InstanceSpec;
+import org.apache.curator.test.TestingCluster;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/28 14:30
+ * @Description: 3节点TestingCluster，每台服务端前面放一个DelayProxy注入不同的延迟：
+ *      1、选择器探测后，新建会话只连最快的服务端，和直接用原连接串对比请求耗时
+ *      2、把最快的那台变慢，开启迁移的会话会被换到其他服务端上
+ * @Modified:
+ * @version: V1.0
+ */
+public class LatencyAwareServerSelectorTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private static final int REQUESTS = 200;
+
+    @Test
+    public void prefersFastServerAndRebalances() throws Exception {
+        List<DelayProxy> proxies = new ArrayList<>();
+        try (TestingCluster cluster = new TestingCluster(3)) {
+            cluster.start();
+            StringJoiner connectString = new StringJoiner(",");
+            for (InstanceSpec spec : cluster.getInstances()) {
+                DelayProxy proxy = new DelayProxy(new InetSocketAddress("127.0.0.1", spec.getPort()));
+                proxies.add(proxy);
+                connectString.add(proxy.getConnectString());
+            }
+            DelayProxy far = proxies.get(0);
+            DelayProxy near = proxies.get(1);
+            DelayProxy fast = proxies.get(2);
+            far.setDelayMillis(60);
+            near.setDelayMillis(30);
+
+            ZookeeperProperties.Ensemble config = new ZookeeperProperties.Ensemble();
+            config.setProbeIntervalMillis(200);
+            config.setProbeTimeoutMillis(2000);
+            config.setMinServers(1);
+            LatencyAwareServerSelector selector = new LatencyAwareServerSelector(connectString.toString(), config);
+            ZkSessionManager plain = new ZkSessionManager(connectString.toString(), 10_000, 5_000, POOL_SIZE);
+            ZkSessionManager selected = new ZkSessionManager(connectString.toString(), 10_000, 5_000, POOL_SIZE);
+            try {
+                awaitProbes(selector, 5);
+                System.out.println("servers: " + selector.getStatuses());
+                Assert.assertEquals(fast.getConnectString(), selector.connectString());
+
+                selected.setServerSelector(selector);
+                selected.enableRebalance(1000);
+                Histogram plainLatency = measure(plain);
+                Histogram selectedLatency = measure(selected);
+                for (int i = 0; i < POOL_SIZE; i++) {
+                    Assert.assertEquals(fast.getPort(), selected.getServerAddress(i).getPort());
+                }
+                print("plain", plainLatency);
+                print("selected", selectedLatency);
+
+                //最快的那台变慢，会话应该被迁到near上
+                fast.setDelayMillis(150);
+                long start = System.nanoTime();
+                long deadline = start + TimeUnit.SECONDS.toNanos(60);
+                while (onPort(selected, fast.getPort()) > 0) {
+                    Assert.assertTrue("会话没有从变慢的服务端迁走: " + selector.getStatuses(), System.nanoTime() < deadline);
+                    Thread.sleep(100);
+                }
+                System.out.printf("rebalanced %d sessions in %dms, servers: %s%n", POOL_SIZE,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), selector.getStatuses());
+                Assert.assertEquals(POOL_SIZE, onPort(selected, near.getPort()));
+                print("rebalanced", measure(selected));
+            } finally {
+                plain.close();
+                selected.close();
+                selector.close();
+                for (DelayProxy proxy : proxies) {
+                    proxy.close();
+                }
+            }
+        }
+    }
+
+
+    private static void awaitProbes(LatencyAwareServerSelector selector, int rounds) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(rounds);
+        //TestingCluster.start()返回时可能还没选出leader，不提供服务的服务端探测会失败，只统计全部服务端都健康的轮次
+        selector.addProbeListener(() -> {
+            if (selector.getStatuses().stream().allMatch(ServerStatus::isHealthy)) {
+                latch.countDown();
+            }
+        });
+        selector.start();
+        Assert.assertTrue("探测超时", latch.await(1, TimeUnit.MINUTES));
+    }
+
+    /**
+     * 每个会话轮流执行exists("/")，返回耗时(微秒)
+     */
+    private static Histogram measure(ZkSessionManager manager) throws Exception {
+        Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        for (int i = 0; i < REQUESTS; i++) {
+            long begin = System.nanoTime();
+            manager.session().exists("/", false);
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin), TimeUnit.MINUTES.toMicros(1)));
+        }
+        return histogram;
+    }
+
+    private static int onPort(ZkSessionManager manager, int port) {
+        int count = 0;
+        for (int i = 0; i < manager.size(); i++) {
+            InetSocketAddress address = manager.getServerAddress(i);
+            if (address != null && address.getPort() == port) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void print(String name, Histogram histogram) {
+        System.out.printf("%-10s p50=%dus p99=%dus max=%dus%n", name,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMaxValue());
+    }
+}
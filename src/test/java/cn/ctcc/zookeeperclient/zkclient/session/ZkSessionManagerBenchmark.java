@@ -0,0 +1,90 @@
+package cn.ctcc.zookeeperclient.zkclient.session;
+
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/17 10:20
+ * @Description: 对比每次操作new ZooKeeper(...)和ZkSessionManager共享会话的吞吐(ops/sec)与线程数，
+ * 直接运行main方法，会启动一个本地TestingServer
+ * @Modified:
+ * @version: V1.0
+ */
+public class ZkSessionManagerBenchmark {
+
+    private static final int THREADS = 16;
+
+    private static final long DURATION_MS = 10_000;
+
+    private static final String PATH = "/benchmark_session";
+
+    public static void main(String[] args) throws Exception {
+
+        try (TestingServer server = new TestingServer()) {
+            String connectString = server.getConnectString();
+
+            try (ZkSessionManager manager = new ZkSessionManager(connectString, 4000, 3000, 2)) {
+                manager.session().create(PATH, "benchmark".getBytes(), ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+
+                //每次操作都新建连接，和ZookeeperClientAPITest中的写法一样(这里会关闭连接，否则跑不完)
+                run("connect-per-call", () -> {
+                    try (ZkSessionManager single = new ZkSessionManager(connectString, 4000, 3000, 1)) {
+                        single.session().getData(PATH, false, new Stat());
+                    }
+                });
+
+                //复用共享会话
+                run("shared-sessions", () -> manager.session().getData(PATH, false, new Stat()));
+            }
+        }
+    }
+
+    private static void run(String name, Operation operation) throws Exception {
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+
+        LongAdder ops = new LongAdder();
+        LongAdder errors = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    try {
+                        operation.run();
+                        ops.increment();
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        System.out.printf("%-18s ops/sec=%10.1f  errors=%d  peakThreads=%d%n",
+                name, ops.sum() * 1000.0 / DURATION_MS, errors.sum(), threadMXBean.getPeakThreadCount());
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
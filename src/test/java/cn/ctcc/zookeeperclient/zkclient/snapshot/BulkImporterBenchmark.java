@@ -0,0 +1,45 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.test.TestingServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/19 11:00
+ * @Description: 在一个TestingServer上造数据并导出，再按不同在途窗口导入到新的TestingServer，输出吞吐，直接运行main方法，参数为节点数(默认200000)
+ * @Modified:
+ * @version: V1.0
+ */
+public class BulkImporterBenchmark {
+
+    private static final int[] WINDOWS = {1, 8, 32, 128};
+
+    public static void main(String[] args) throws Exception {
+
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path file = Files.createTempFile("zk-import", ".snap");
+
+        try (TestingServer source = new TestingServer();
+             ZkSessionManager manager = new ZkSessionManager(source.getConnectString(), 60000, 15000, 4)) {
+            AsyncZkClient asyncZkClient = new AsyncZkClient(manager, 5000);
+            SubtreeExporterBenchmark.populate(manager, asyncZkClient, nodes);
+            System.out.println("export: " + new SubtreeExporter(asyncZkClient, 64).export("/benchmark_export", file));
+        }
+
+        try {
+            for (int window : WINDOWS) {
+                try (TestingServer target = new TestingServer();
+                     ZkSessionManager manager = new ZkSessionManager(target.getConnectString(), 60000, 15000, 4)) {
+                    BulkImporter importer = new BulkImporter(new AsyncZkClient(manager, 5000), window, 500, 512 * 1024);
+                    System.out.printf("window=%4d  %s%n", window, importer.importFile(file));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
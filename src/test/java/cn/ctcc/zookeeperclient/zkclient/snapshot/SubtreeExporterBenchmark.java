@@ -0,0 +1,79 @@
+package cn.ctcc.zookeeperclient.zkclient.snapshot;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/18 16:40
+ * @Description: 在TestingServer上造1M个节点(参数可改)，按不同并发度导出，输出nodes/sec，直接运行main方法
+ * @Modified:
+ * @version: V1.0
+ */
+public class SubtreeExporterBenchmark {
+
+    private static final String ROOT = "/benchmark_export";
+
+    private static final int FAN_OUT = 1000;
+
+    private static final int[] CONCURRENCY = {1, 4, 16, 64, 256};
+
+    public static void main(String[] args) throws Exception {
+
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        try (TestingServer server = new TestingServer();
+             ZkSessionManager manager = new ZkSessionManager(server.getConnectString(), 60000, 15000, 4)) {
+
+            AsyncZkClient asyncZkClient = new AsyncZkClient(manager, 5000);
+            populate(manager, asyncZkClient, nodes);
+
+            for (int concurrency : CONCURRENCY) {
+                Path file = Files.createTempFile("zk-export", ".snap");
+                try {
+                    SnapshotReport report = new SubtreeExporter(asyncZkClient, concurrency).export(ROOT, file);
+                    System.out.printf("concurrency=%4d  %s%n", concurrency, report);
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 造数据：/benchmark_export/groupX/nodeY，每组FAN_OUT个节点
+     */
+    static void populate(ZkSessionManager manager, AsyncZkClient asyncZkClient, int nodes) throws Exception {
+        manager.session().create(ROOT, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        Semaphore window = new Semaphore(10_000);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        byte[] payload = new byte[100];
+        for (int i = 0; i < nodes; i++) {
+            if (i % FAN_OUT == 0) {
+                manager.session().create(ROOT + "/group" + (i / FAN_OUT), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            }
+            window.acquire();
+            CompletableFuture<String> future = asyncZkClient.create(ROOT + "/group" + (i / FAN_OUT) + "/node" + i, payload,
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            future.whenComplete((path, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                window.release();
+            });
+        }
+        window.acquire(10_000);
+        if (failure.get() != null) {
+            throw new IllegalStateException("造数据失败", failure.get());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cn.ctcc.zookeeperclient.zkclient.watch;
+
+import cn.ctcc.zookeeperclient.zkclient.async.AsyncZkClient;
+import cn.ctcc.zookeeperclient.zkclient.dispatch.StripedEventDispatcher;
+import cn.ctcc.zookeeperclient.zkclient.session.ZkSessionManager;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooDefs;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Author: zk
+ * @Date: 2026/10/29 10:30
+ * @Description: 会话的未完成请求一直处于maxInFlight时，子节点监听每次触发后都要能重新注册并收到下一次事件，
+ * 重新注册的后续请求不能在EventThread上等许可把会话卡死
+ * @Modified:
+ * @version: V1.0
+ */
+public class WatchRegistryTest {
+
+    private static final String PATH = "/test_watch_registry";
+
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private static final int LOADERS = 8;
+
+    private static final int ROUNDS = 50;
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void rearmsWhileSessionSaturated() throws Exception {
+        try (TestingServer server = new TestingServer()) {
+            ZkSessionManager sessionManager = new ZkSessionManager(server.getConnectString(), 10_000, 5_000, 1);
+            AsyncZkClient asyncZkClient = new AsyncZkClient(sessionManager, MAX_IN_FLIGHT);
+            StripedEventDispatcher dispatcher = new StripedEventDispatcher(2);
+            WatchRegistry registry = new WatchRegistry(asyncZkClient, dispatcher);
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong loaded = new AtomicLong();
+            AtomicReference<Throwable> loadError = new AtomicReference<>();
+            List<Thread> loaders = new ArrayList<>();
+            try {
+                sessionManager.session().create(PATH, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+                Semaphore events = new Semaphore(0);
+                Watcher listener = event -> {
+                    if (event.getType() == Watcher.Event.EventType.NodeChildrenChanged) {
+                        events.release();
+                    }
+                };
+                registry.addListener(PATH, WatchType.CHILDREN, listener).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+                //其它线程不停发请求，许可一归还就会被抢走
+                for (int i = 0; i < LOADERS; i++) {
+                    Thread loader = new Thread(() -> {
+                        while (running.get()) {
+                            try {
+                                asyncZkClient.exists(PATH).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                                loaded.incrementAndGet();
+                            } catch (Exception e) {
+                                loadError.compareAndSet(null, e);
+                                return;
+                            }
+                        }
+                    }, "watch-registry-loader-" + i);
+                    loader.setDaemon(true);
+                    loader.start();
+                    loaders.add(loader);
+                }
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    //上一次事件分发之前已经重新注册完成，每个子节点都会触发一次事件
+                    sessionManager.session().create(PATH + "/n-", new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                            CreateMode.PERSISTENT_SEQUENTIAL);
+                    Assert.assertTrue("第" + i + "次子节点变化没有收到事件，inFlight=" + asyncZkClient.inFlight(),
+                            events.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                }
+                Assert.assertNull("会话繁忙时请求失败", loadError.get());
+                Assert.assertNotNull(asyncZkClient.exists(PATH).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                System.out.printf("rounds=%d loaderRequests=%d%n", ROUNDS, loaded.get());
+            } finally {
+                running.set(false);
+                for (Thread loader : loaders) {
+                    loader.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                }
+                registry.close();
+                dispatcher.close();
+                sessionManager.close();
+            }
+        }
+    }
+}